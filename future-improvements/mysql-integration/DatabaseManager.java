@@ -18,10 +18,10 @@
 //            patient_name VARCHAR(100), doctor_id INT, doctor_name VARCHAR(100),
 //            slot VARCHAR(20), reason VARCHAR(255), status VARCHAR(20));
 //
-// TODO:
-//   - Create a connection pool using HikariCP
-//   - Replace FileManager save/load methods with SQL INSERT, SELECT, UPDATE
-//   - Use PreparedStatements to prevent SQL injection
+// Status:
+//   repository.JdbcStorage now covers the pool, the SQL and the PreparedStatements
+//   against embedded H2 (-Dstorage=jdbc). What is left is running it against MySQL:
+//   add the connector and pass -Djdbc.url=jdbc:mysql://localhost:3306/doctor_system
 
 public class DatabaseManager {
     // Implementation coming soon
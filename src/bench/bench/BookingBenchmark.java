@@ -0,0 +1,105 @@
+package bench;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import org.openjdk.jmh.annotations.*;
+import service.AppointmentManager;
+import service.AppointmentService;
+import service.BookingRequest;
+import service.Result;
+import util.FileManager;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end AppointmentService.book — validation, conflict check, slot
+ * claim and journal append. Each call opens and books a fresh slot so the
+ * benchmark never runs out of availability.
+ *
+ * bookLoop and bookAll book the same 12-appointment series, one book() per
+ * slot against one bookAll(); both report time per appointment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Ddata.dir=target/bench-data/booking" })
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingBenchmark {
+
+    private AppointmentManager manager;
+    private AppointmentService service;
+    private List<Doctor>  doctors;
+    private List<Patient> patients;
+    private PrintStream   console;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        new File(FileManager.DATA_DIR + "appointments.txt").delete();
+        new File(FileManager.DATA_DIR + "appointments.journal").delete();
+        manager  = new AppointmentManager();
+        service  = new AppointmentService(manager);
+        doctors  = DataGenerator.doctors(100, 0);
+        patients = DataGenerator.patients(10_000);
+
+        // book() reports on stdout; keep console I/O out of the measurement
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+        manager.close();
+    }
+
+    private static final int SERIES = 12;
+
+    @Benchmark
+    @OperationsPerInvocation(SERIES)
+    public int bookLoop() {
+        int booked = 0;
+        for (BookingRequest r : nextSeries())
+            if (service.book(r.patient(), r.doctor(), r.slot(), r.reason()).isOk()) booked++;
+        return booked;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SERIES)
+    public Result<List<Appointment>> bookAll() {
+        return service.bookAll(nextSeries());
+    }
+
+    // One patient and doctor, SERIES fresh slots opened for the doctor
+    private List<BookingRequest> nextSeries() {
+        int n = next;
+        next += SERIES;
+        Doctor  doctor  = doctors.get(n % doctors.size());
+        Patient patient = patients.get(n % patients.size());
+        List<BookingRequest> series = new ArrayList<>(SERIES);
+        for (int i = 0; i < SERIES; i++) {
+            Slot slot = Slot.ofEpochMinute(DataGenerator.slot(n + i));
+            doctor.addAvailableSlot(slot);
+            series.add(new BookingRequest(patient, doctor, slot, "Benchmark"));
+        }
+        return series;
+    }
+
+    @Benchmark
+    public Result<Appointment> book() {
+        int n = next++;
+        Doctor  doctor  = doctors.get(n % doctors.size());
+        Patient patient = patients.get(n % patients.size());
+        String  slot    = Slot.format(DataGenerator.slot(n));
+        doctor.addAvailableSlot(slot);
+        return service.book(patient, doctor, slot, "Benchmark");
+    }
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import util.FileManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic data for benchmarks. The same seed and sizes always
+ * produce the same records, so results can be reproduced across machines.
+ *
+ * Stand-alone use writes the three text files into the data directory:
+ *   java -Ddata.dir=target/bench-data -cp target/benchmarks.jar bench.DataGenerator 1000 100000 1000000
+ */
+public final class DataGenerator {
+
+    public static final long SEED = 20240610L;
+
+    // 2099-01-01 00:00 — far enough ahead that DateValidator accepts every slot
+    public static final long FIRST_SLOT = Slot.toEpochMinute("2099-01-01 00:00");
+
+    private static final String[] SPECIALIZATIONS = {
+            "Cardiologist", "General Practitioner", "Dermatologist", "Surgeon",
+            "Paediatrician", "Neurologist", "Psychiatrist", "Radiologist"
+    };
+    private static final String[] REASONS = { "Checkup", "Follow-up", "Consultation", "Test results" };
+
+    private DataGenerator() { }
+
+    public static List<Doctor> doctors(int count, int slotsPerDoctor) {
+        List<Doctor> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Doctor d = new Doctor(i, "Doctor " + i, SPECIALIZATIONS[i % SPECIALIZATIONS.length],
+                    "011-555-" + i, "doctor" + i, "pw" + i);
+            for (int s = 0; s < slotsPerDoctor; s++) d.addOneOffSlotMinute(slot(s));
+            list.add(d);
+        }
+        return list;
+    }
+
+    public static List<Patient> patients(int count) {
+        List<Patient> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++)
+            list.add(new Patient(i, "Patient " + i, 18 + i % 70, "011-000-" + i, "user" + i, "pw" + i));
+        return list;
+    }
+
+    /** Appointments spread over {@code patients} patients and {@code doctors} doctors. */
+    public static List<Appointment> appointments(int count, int patients, int doctors) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Appointment> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            int p = 1 + random.nextInt(patients);
+            int d = 1 + random.nextInt(doctors);
+            Appointment a = new Appointment(i, p, "Patient " + p, d, "Doctor " + d,
+                    Slot.format(slot(random.nextInt(100_000))), REASONS[i % REASONS.length]);
+            switch (random.nextInt(4)) {
+                case 0 -> a.cancel();
+                case 1 -> a.complete();
+                default -> { }
+            }
+            list.add(a);
+        }
+        return list;
+    }
+
+    /** The n-th slot: 15-minute steps from 08:00 to 17:00 on consecutive days. */
+    public static long slot(int n) {
+        int perDay = 36;
+        return FIRST_SLOT + (long) (n / perDay) * 24 * 60 + 8 * 60 + (n % perDay) * 15L;
+    }
+
+    /** Writes doctors, patients and appointments text files into FileManager.DATA_DIR. */
+    public static void writeDataFiles(int doctors, int patients, int appointments) {
+        FileManager.saveDoctors(doctors(doctors, 4));
+        FileManager.savePatients(patients(patients));
+        FileManager.saveAppointments(appointments(appointments, Math.max(1, patients), Math.max(1, doctors)));
+    }
+
+    public static void main(String[] args) {
+        int doctors      = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int patients     = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int appointments = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        writeDataFiles(doctors, patients, appointments);
+        System.out.println("  Wrote " + doctors + " doctors, " + patients + " patients and "
+                + appointments + " appointments to " + FileManager.DATA_DIR);
+    }
+}
@@ -0,0 +1,24 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import util.DateValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/** Per-booking slot validation cost. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DateValidatorBenchmark {
+
+    private final String futureSlot = "2099-07-01 10:00";
+
+    @Benchmark
+    public boolean isValid() { return DateValidator.isValid(futureSlot); }
+
+    @Benchmark
+    public boolean isValidFormat() { return DateValidator.isValidFormat(futureSlot); }
+}
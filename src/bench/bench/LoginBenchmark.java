@@ -0,0 +1,55 @@
+package bench;
+
+import model.Patient;
+import org.openjdk.jmh.annotations.*;
+import service.PatientService;
+import service.Result;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** PatientService.login latency should stay flat as the patient base grows. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int users;
+
+    private PatientService service;
+    private String[] usernames;
+    private String[] passwords;
+    private PrintStream console;
+    private final SplittableRandom random = new SplittableRandom(DataGenerator.SEED);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new PatientService(DataGenerator.patients(users));
+        // Pre-built, upper-cased credentials — the benchmark measures lookup, not string building
+        int sample = Math.min(users, 65_536);
+        usernames = new String[sample];
+        passwords = new String[sample];
+        for (int i = 0; i < sample; i++) {
+            int n = 1 + random.nextInt(users);
+            usernames[i] = ("user" + n).toUpperCase();
+            passwords[i] = "pw" + n;
+        }
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { System.setOut(console); }
+
+    @Benchmark
+    public Result<Patient> login() {
+        int i = random.nextInt(usernames.length);
+        return service.login(usernames[i], passwords[i]);
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import model.Appointment;
+import org.openjdk.jmh.annotations.*;
+import service.AppointmentManager;
+import util.FileManager;
+
+import java.io.File;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** AppointmentManager history and schedule lookups over a loaded data set. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Ddata.dir=target/bench-data/lookup" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LookupBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private AppointmentManager manager;
+    private int patients;
+    private int doctors;
+    private final SplittableRandom random = new SplittableRandom(DataGenerator.SEED);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        patients = Math.max(1, rows / 10);
+        doctors  = Math.max(1, rows / 100);
+        new File(FileManager.DATA_DIR + "appointments.journal").delete();
+        FileManager.saveAppointments(DataGenerator.appointments(rows, patients, doctors));
+        manager = new AppointmentManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { manager.close(); }
+
+    @Benchmark
+    public List<Appointment> getByPatient() {
+        return manager.getByPatient(1 + random.nextInt(patients));
+    }
+
+    @Benchmark
+    public List<Appointment> getByDoctor() {
+        return manager.getByDoctor(1 + random.nextInt(doctors));
+    }
+}
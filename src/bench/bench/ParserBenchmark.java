@@ -0,0 +1,66 @@
+package bench;
+
+import model.Appointment;
+import org.openjdk.jmh.annotations.*;
+import util.FileManager;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appointment file parsing: the cursor parser behind FileManager against the
+ * previous readLine + split + trim + valueOf loop. Run with {@code -prof gc}
+ * to compare allocation per load. The common pool is pinned to one thread so
+ * only the parser differs, not the fork-join chunking.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Ddata.dir=target/bench-data/parser",
+        "-Djava.util.concurrent.ForkJoinPool.common.parallelism=1" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ParserBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int rows;
+
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FileManager.saveAppointments(DataGenerator.appointments(rows, Math.max(1, rows / 10),
+                                                                Math.max(1, rows / 100)));
+        path = FileManager.DATA_DIR + "appointments.txt";
+    }
+
+    @Benchmark
+    public List<Appointment> cursor() {
+        return FileManager.loadAppointments();
+    }
+
+    @Benchmark
+    public List<Appointment> splitBaseline() throws IOException {
+        List<Appointment> list = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(path, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                // The trailing checksum lands in f[8] and is ignored, as the old loader would
+                String[] f = line.split("\\|");
+                if (f.length < 8) continue;
+                Appointment a = new Appointment(
+                        Integer.parseInt(f[0].trim()), Integer.parseInt(f[1].trim()),
+                        f[2].trim(), Integer.parseInt(f[3].trim()), f[4].trim(),
+                        f[5].trim(), f[6].trim());
+                a.setStatus(Appointment.Status.valueOf(f[7].trim()));
+                list.add(a);
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,45 @@
+package bench;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import org.openjdk.jmh.annotations.*;
+import util.FileManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** FileManager load/save cost as the data files grow. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Ddata.dir=target/bench-data/persistence" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class PersistenceBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private List<Doctor>      doctors;
+    private List<Patient>     patients;
+    private List<Appointment> appointments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        doctors      = DataGenerator.doctors(rows, 4);
+        patients     = DataGenerator.patients(rows);
+        appointments = DataGenerator.appointments(rows, Math.max(1, rows / 10), Math.max(1, rows / 100));
+        FileManager.saveDoctors(doctors);
+        FileManager.savePatients(patients);
+        FileManager.saveAppointments(appointments);
+    }
+
+    @Benchmark public List<Doctor>      loadDoctors()      { return FileManager.loadDoctors(); }
+    @Benchmark public List<Patient>     loadPatients()     { return FileManager.loadPatients(); }
+    @Benchmark public List<Appointment> loadAppointments() { return FileManager.loadAppointments(); }
+
+    @Benchmark public void saveDoctors()      { FileManager.saveDoctors(doctors); }
+    @Benchmark public void savePatients()     { FileManager.savePatients(patients); }
+    @Benchmark public void saveAppointments() { FileManager.saveAppointments(appointments); }
+}
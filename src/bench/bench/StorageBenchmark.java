@@ -0,0 +1,66 @@
+package bench;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import org.openjdk.jmh.annotations.*;
+import repository.StorageEngine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** The storage backends side by side: whole-list load/save, and a booking-sized insert. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Ddata.dir=target/bench-data/storage" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class StorageBenchmark {
+
+    @Param({ "text", "binary", "jdbc", "sharded" })
+    public String storage;
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private StorageEngine     engine;
+    private List<Doctor>      doctors;
+    private List<Patient>     patients;
+    private List<Appointment> appointments;
+    private int               nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine       = StorageEngine.open(storage);
+        doctors      = DataGenerator.doctors(rows, 4);
+        patients     = DataGenerator.patients(rows);
+        appointments = DataGenerator.appointments(rows, Math.max(1, rows / 10), Math.max(1, rows / 100));
+        engine.doctors().saveAll(doctors);
+        engine.patients().saveAll(patients);
+        engine.appointments().saveAll(appointments);
+        nextId = rows + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark public List<Doctor>      loadDoctors()      { return engine.doctors().loadAll(); }
+    @Benchmark public List<Patient>     loadPatients()     { return engine.patients().loadAll(); }
+    @Benchmark public List<Appointment> loadAppointments() { return engine.appointments().loadAll(); }
+
+    @Benchmark public boolean saveDoctors()      { return engine.doctors().saveAll(doctors); }
+    @Benchmark public boolean saveAppointments() { return engine.appointments().saveAll(appointments); }
+
+    // One booking's worth of durable write: a journal append or a one-row transaction;
+    // sharded appends to the doctor's own journal
+    @Benchmark
+    public void insertAppointment() {
+        Appointment template = appointments.get(nextId % appointments.size());
+        engine.appointments().insert(List.of(new Appointment(nextId++, template.getPatientId(),
+                template.getPatientName(), template.getDoctorId(), template.getDoctorName(),
+                template.getSlotTime(), template.getReason())));
+    }
+}
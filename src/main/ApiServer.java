@@ -0,0 +1,426 @@
+package main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import service.AppointmentQuery;
+import service.AppointmentService;
+import service.BookingRequest;
+import service.DoctorService;
+import service.ErrorCode;
+import service.PatientService;
+import service.Result;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP/JSON front end over the same services the console menu uses.
+ * Requests take form-encoded bodies or query parameters; responses are JSON.
+ * Login returns a token that later calls pass as {@code token} or
+ * {@code Authorization: Bearer <token>}; it lapses after
+ * {@code -Dapi.session.minutes} (default 30) without use, or on logout.
+ *
+ *   POST /api/patients/register   name, age, contact, username, password
+ *   POST /api/patients/login      username, password
+ *   POST /api/doctors/login       username, password
+ *   POST /api/logout              token
+ *   GET  /api/doctors
+ *   GET  /api/slots               specialization, from, to (slots, inclusive), limit
+ *   POST /api/appointments        token, doctorId, slot, reason
+ *   POST /api/appointments/batch  token, doctorId, slots (comma-separated), reason — all or nothing
+ *   POST /api/appointments/cancel token, id
+ *   GET  /api/appointments        token            (patient history)
+ *   GET  /api/schedule            token            (doctor schedule)
+ *   GET  /metrics                                  (Prometheus text format)
+ *
+ * Both GETs take optional status, from, to (slot, exclusive), cursor and limit.
+ * With cursor or limit the reply is one page, {"items":[...],"next":cursor|null};
+ * otherwise it is the whole list as a plain array.
+ */
+public class ApiServer {
+
+    private static final int MAX_PAGE = 500;
+    // Upcoming slots inlined per doctor; /api/slots searches further ahead
+    private static final int LISTED_SLOTS = 50;
+    static final String SESSION_MINUTES_PROPERTY = "api.session.minutes";
+    private static final long SESSION_IDLE_MILLIS =
+            Integer.getInteger(SESSION_MINUTES_PROPERTY, 30) * 60_000L;
+
+    private final PatientService     patientService;
+    private final DoctorService      doctorService;
+    private final AppointmentService appointmentService;
+
+    // token -> logged-in patient or doctor
+    private final Sessions<Patient> patientSessions = new Sessions<>(SESSION_IDLE_MILLIS);
+    private final Sessions<Doctor>  doctorSessions  = new Sessions<>(SESSION_IDLE_MILLIS);
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ApiServer(PatientService patientService, DoctorService doctorService,
+                     AppointmentService appointmentService) {
+        this.patientService     = patientService;
+        this.doctorService      = doctorService;
+        this.appointmentService = appointmentService;
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/api/patients/register",   handler(this::registerPatient));
+        server.createContext("/api/patients/login",      handler(this::loginPatient));
+        server.createContext("/api/doctors/login",       handler(this::loginDoctor));
+        server.createContext("/api/logout",              handler(this::logout));
+        server.createContext("/api/doctors",             handler(this::listDoctors));
+        server.createContext("/api/slots",               handler(this::findSlots));
+        server.createContext("/api/appointments/batch",  handler(this::bookBatch));
+        server.createContext("/api/appointments/cancel", handler(this::cancel));
+        server.createContext("/api/appointments",        handler(this::appointments));
+        server.createContext("/api/schedule",            handler(this::schedule));
+        server.createContext(MetricsEndpoint.PATH,       MetricsEndpoint.handler());
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+        System.out.println("  INFO: API server listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        if (server != null) server.stop(1);
+        if (executor != null) executor.shutdown();
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    /**
+     * One virtual thread per request when the runtime has them (Java 21+);
+     * the build targets Java 17, so fall back to a cached pool otherwise.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // ── Endpoints ─────────────────────────────────────────────────────────────
+
+    private Response registerPatient(Request req) {
+        if (!req.isPost()) return Response.methodNotAllowed();
+        Integer age = req.intParam("age");
+        if (age == null) return Response.error(400, "age must be a number");
+        Result<Patient> p = patientService.register(req.param("name"), age, req.param("contact"),
+                req.param("username"), req.param("password"));
+        if (!p.isOk()) return Response.error(p);
+        return new Response(201, patientJson(p.value()));
+    }
+
+    private Response loginPatient(Request req) {
+        if (!req.isPost()) return Response.methodNotAllowed();
+        Result<Patient> p = patientService.login(req.param("username"), req.param("password"));
+        if (!p.isOk()) return Response.error(p);
+        String token = patientSessions.open(p.value());
+        return new Response(200, "{\"token\":" + str(token) + ",\"patient\":" + patientJson(p.value()) + "}");
+    }
+
+    private Response loginDoctor(Request req) {
+        if (!req.isPost()) return Response.methodNotAllowed();
+        Result<Doctor> d = doctorService.login(req.param("username"), req.param("password"));
+        if (!d.isOk()) return Response.error(d);
+        String token = doctorSessions.open(d.value());
+        return new Response(200, "{\"token\":" + str(token) + ",\"doctor\":" + doctorJson(d.value()) + "}");
+    }
+
+    private Response logout(Request req) {
+        if (!req.isPost()) return Response.methodNotAllowed();
+        String token = req.token();
+        if (!patientSessions.close(token) && !doctorSessions.close(token)) return Response.error(401, "Not logged in");
+        return new Response(200, "{\"loggedOut\":true}");
+    }
+
+    private Response listDoctors(Request req) {
+        if (!req.isGet()) return Response.methodNotAllowed();
+        List<String> items = new ArrayList<>();
+        for (Doctor d : doctorService.getAllDoctors()) items.add(doctorJson(d));
+        return new Response(200, array(items));
+    }
+
+    private Response findSlots(Request req) {
+        if (!req.isGet()) return Response.methodNotAllowed();
+        String specialization = req.param("specialization");
+        if (specialization.isEmpty()) return Response.error(400, "specialization is required");
+        Integer limit = req.param("limit").isEmpty() ? AppointmentQuery.DEFAULT_LIMIT : req.intParam("limit");
+        if (limit == null || limit <= 0 || limit > MAX_PAGE)
+            return Response.error(400, "limit must be between 1 and " + MAX_PAGE);
+        Slot from, to;
+        try {
+            from = req.param("from").isEmpty() ? null : Slot.parse(req.param("from"));
+            to   = req.param("to").isEmpty()   ? null : Slot.parse(req.param("to"));
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        }
+
+        List<String> items = new ArrayList<>();
+        for (DoctorService.OpenSlot o : doctorService.findAvailableSlots(specialization, from, to, limit))
+            items.add("{\"slot\":" + str(o.slot().toString()) + ",\"doctorId\":" + o.doctor().getId()
+                    + ",\"doctorName\":" + str(o.doctor().getName()) + "}");
+        return new Response(200, array(items));
+    }
+
+    private Response appointments(Request req) {
+        Patient patient = patientSessions.get(req.token());
+        if (patient == null) return Response.error(401, "Login required");
+        if (req.isGet()) return query(req, AppointmentQuery.forPatient(patient.getId()));
+        if (!req.isPost()) return Response.methodNotAllowed();
+
+        Integer doctorId = req.intParam("doctorId");
+        Optional<Doctor> doctor = doctorId == null ? Optional.empty() : doctorService.findById(doctorId);
+        if (doctor.isEmpty()) return Response.error(404, "Doctor not found");
+        String slot = req.param("slot");
+        if (slot.isEmpty()) return Response.error(400, "slot is required");
+        Result<Appointment> appt = appointmentService.book(patient, doctor.get(), slot, req.param("reason"));
+        if (!appt.isOk()) return Response.error(appt);
+        doctorService.saveDoctor(doctor.get());
+        return new Response(201, appointmentJson(appt.value()));
+    }
+
+    private Response bookBatch(Request req) {
+        if (!req.isPost()) return Response.methodNotAllowed();
+        Patient patient = patientSessions.get(req.token());
+        if (patient == null) return Response.error(401, "Login required");
+        Integer doctorId = req.intParam("doctorId");
+        Optional<Doctor> doctor = doctorId == null ? Optional.empty() : doctorService.findById(doctorId);
+        if (doctor.isEmpty()) return Response.error(404, "Doctor not found");
+        if (req.param("slots").isEmpty()) return Response.error(400, "slots is required");
+
+        List<BookingRequest> batch = new ArrayList<>();
+        try {
+            for (String slot : req.param("slots").split(","))
+                batch.add(new BookingRequest(patient, doctor.get(), Slot.parse(slot.trim()), req.param("reason")));
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        }
+        if (batch.size() > MAX_PAGE) return Response.error(400, "At most " + MAX_PAGE + " slots per batch");
+        Result<List<Appointment>> booked = appointmentService.bookAll(batch);
+        if (!booked.isOk()) return Response.error(booked);
+        doctorService.saveDoctor(doctor.get());
+        return new Response(201, appointmentsJson(booked.value()));
+    }
+
+    private Response cancel(Request req) {
+        if (!req.isPost()) return Response.methodNotAllowed();
+        Patient patient = patientSessions.get(req.token());
+        if (patient == null) return Response.error(401, "Login required");
+        Integer id = req.intParam("id");
+        if (id == null) return Response.error(400, "id must be a number");
+        Result<Appointment> cancelled = appointmentService.cancel(id, patient, doctorService);
+        if (!cancelled.isOk()) return Response.error(cancelled);
+        return new Response(200, "{\"cancelled\":" + id + "}");
+    }
+
+    private Response schedule(Request req) {
+        if (!req.isGet()) return Response.methodNotAllowed();
+        Doctor doctor = doctorSessions.get(req.token());
+        if (doctor == null) return Response.error(401, "Doctor login required");
+        AppointmentQuery q = AppointmentQuery.forDoctor(doctor.getId());
+        return query(req, req.param("status").isEmpty() ? q.withStatus(Appointment.Status.SCHEDULED) : q);
+    }
+
+    // Applies the optional filter/paging params shared by the two listing endpoints
+    private Response query(Request req, AppointmentQuery q) {
+        try {
+            if (!req.param("status").isEmpty())
+                q = q.withStatus(Appointment.Status.valueOf(req.param("status").toUpperCase(Locale.ROOT)));
+            String from = req.param("from"), to = req.param("to");
+            if (!from.isEmpty() || !to.isEmpty())
+                q = q.between(from.isEmpty() ? null : Slot.parse(from), to.isEmpty() ? null : Slot.parse(to));
+            q = q.after(req.param("cursor"));
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        }
+
+        boolean paged = !req.param("cursor").isEmpty() || !req.param("limit").isEmpty();
+        if (!paged) return new Response(200, appointmentsJson(
+                appointmentService.stream(q.limit(Integer.MAX_VALUE)).collect(Collectors.toList())));
+
+        Integer limit = req.intParam("limit");
+        if (req.param("limit").isEmpty()) limit = AppointmentQuery.DEFAULT_LIMIT;
+        if (limit == null || limit <= 0 || limit > MAX_PAGE)
+            return Response.error(400, "limit must be between 1 and " + MAX_PAGE);
+        AppointmentQuery.Page page = appointmentService.page(q.limit(limit));
+        return new Response(200, "{\"items\":" + appointmentsJson(page.items())
+                + ",\"next\":" + str(page.nextCursor()) + "}");
+    }
+
+    // ── JSON ──────────────────────────────────────────────────────────────────
+
+    private static String patientJson(Patient p) {
+        return "{\"id\":" + p.getId() + ",\"name\":" + str(p.getName())
+                + ",\"age\":" + p.getAge() + ",\"contact\":" + str(p.getContactNumber()) + "}";
+    }
+
+    private static String doctorJson(Doctor d) {
+        List<String> slots = new ArrayList<>();
+        for (Slot s : d.nextAvailableSlots(Slot.now(), LISTED_SLOTS)) slots.add(str(s.toString()));
+        return "{\"id\":" + d.getId() + ",\"name\":" + str(d.getName())
+                + ",\"specialization\":" + str(d.getSpecialization())
+                + ",\"contact\":" + str(d.getContactNumber())
+                + ",\"availableSlots\":" + array(slots) + "}";
+    }
+
+    private static String appointmentJson(Appointment a) {
+        return "{\"id\":" + a.getId() + ",\"patientId\":" + a.getPatientId()
+                + ",\"patientName\":" + str(a.getPatientName())
+                + ",\"doctorId\":" + a.getDoctorId() + ",\"doctorName\":" + str(a.getDoctorName())
+                + ",\"slot\":" + str(a.getSlot()) + ",\"reason\":" + str(a.getReason())
+                + ",\"status\":" + str(a.getStatus().name()) + "}";
+    }
+
+    private static String appointmentsJson(List<Appointment> list) {
+        List<String> items = new ArrayList<>(list.size());
+        for (Appointment a : list) items.add(appointmentJson(a));
+        return array(items);
+    }
+
+    private static String array(List<String> items) {
+        return "[" + String.join(",", items) + "]";
+    }
+
+    static String str(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"'  -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default   -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // ── Plumbing ──────────────────────────────────────────────────────────────
+
+    private interface Endpoint { Response handle(Request req); }
+
+    private static HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            Response res;
+            try {
+                res = endpoint.handle(Request.read(exchange));
+            } catch (RuntimeException e) {
+                // The details stay on the console; they can name files and internals
+                System.out.println("  ERROR: " + exchange.getRequestMethod() + " "
+                                   + exchange.getRequestURI().getPath() + " failed -- " + e);
+                res = Response.error(500, "Internal error");
+            }
+            byte[] body = res.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(res.status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(body); }
+        };
+    }
+
+    private static final class Request {
+        private final String method;
+        private final String bearer;
+        private final Map<String, String> params;
+
+        private Request(String method, String bearer, Map<String, String> params) {
+            this.method = method;
+            this.bearer = bearer;
+            this.params = params;
+        }
+
+        static Request read(HttpExchange exchange) throws IOException {
+            Map<String, String> params = new HashMap<>();
+            parseForm(exchange.getRequestURI().getRawQuery(), params);
+            parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), params);
+            String auth = exchange.getRequestHeaders().getFirst("Authorization");
+            String bearer = auth != null && auth.startsWith("Bearer ") ? auth.substring(7).trim() : null;
+            return new Request(exchange.getRequestMethod(), bearer, params);
+        }
+
+        private static void parseForm(String form, Map<String, String> into) {
+            if (form == null || form.isEmpty()) return;
+            for (String pair : form.split("&")) {
+                int eq = pair.indexOf('=');
+                String key   = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? ""   : pair.substring(eq + 1);
+                into.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                         URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+
+        boolean isGet()  { return "GET".equals(method); }
+        boolean isPost() { return "POST".equals(method); }
+
+        String param(String name) { return params.getOrDefault(name, "").trim(); }
+
+        Integer intParam(String name) {
+            try { return Integer.parseInt(param(name)); }
+            catch (NumberFormatException e) { return null; }
+        }
+
+        String token() { return bearer != null ? bearer : param("token"); }
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body   = body;
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + str(message) + "}");
+        }
+
+        /** A refused service call, as {"error":message,"code":"SLOT_UNAVAILABLE"} with a matching status. */
+        static Response error(Result<?> result) {
+            return new Response(status(result.error()),
+                    "{\"error\":" + str(result.message()) + ",\"code\":" + str(result.error().name()) + "}");
+        }
+
+        static Response methodNotAllowed() { return error(405, "Method not allowed"); }
+
+        private static int status(ErrorCode error) {
+            return switch (error) {
+                case INVALID_SLOT, SLOT_IN_PAST, DUPLICATE_SLOT, EMPTY_BATCH,
+                     REQUIRED_FIELD, INVALID_AGE                              -> 400;
+                case INVALID_CREDENTIALS                                      -> 401;
+                case NOT_OWNER                                                -> 403;
+                case NOT_FOUND                                                -> 404;
+                case SLOT_UNAVAILABLE, PATIENT_CONFLICT, NOT_SCHEDULED,
+                     USERNAME_TAKEN                                           -> 409;
+                case NOT_SAVED                                                -> 503;
+            };
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package main;
+
+import model.Appointment;
+import util.MappedAppointmentStore;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reports over the whole appointment history, read from the memory-mapped
+ * archive rather than loaded: opening it builds nothing, the summary is one
+ * pass over fixed-width records, and a doctor's listing materialises only
+ * that doctor's appointments. The archive is refreshed from
+ * data/appointments.txt when that is newer, so it reflects the last
+ * compaction (every clean shutdown compacts).
+ *
+ *   java -cp out main.HistoryReport              appointments per doctor, by status
+ *   java -cp out main.HistoryReport <doctorId>   one doctor's appointments, in id order
+ */
+public class HistoryReport {
+
+    private static final Appointment.Status[] STATUSES = Appointment.Status.values();
+
+    public static void main(String[] args) {
+        Integer doctorId = null;
+        if (args.length > 0) {
+            try {
+                doctorId = Integer.parseInt(args[0].trim());
+            } catch (NumberFormatException e) {
+                System.out.println("  ERROR: Doctor id must be a number.");
+                return;
+            }
+        }
+        long start = System.nanoTime();
+        try (MappedAppointmentStore store = MappedAppointmentStore.openArchive()) {
+            if (doctorId == null) summary(store);
+            else listDoctor(store, doctorId);
+            System.out.println("\n  INFO: " + store.size() + " archived appointment(s) read in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } catch (IOException e) {
+            System.out.println("  ERROR: Could not open the appointment archive -- " + e.getMessage());
+        }
+    }
+
+    private static void summary(MappedAppointmentStore store) {
+        System.out.println("\n  +======================================================+");
+        System.out.println("  | APPOINTMENT HISTORY BY DOCTOR                        |");
+        System.out.println("  +======================================================+");
+        StringBuilder header = new StringBuilder(String.format("  %-10s", "Doctor"));
+        for (Appointment.Status s : STATUSES) header.append(String.format(" %10s", s));
+        System.out.println(header);
+        for (Map.Entry<Integer, int[]> e : store.countByDoctorAndStatus().entrySet()) {
+            StringBuilder row = new StringBuilder(String.format("  %-10d", e.getKey()));
+            for (int count : e.getValue()) row.append(String.format(" %10d", count));
+            System.out.println(row);
+        }
+    }
+
+    private static void listDoctor(MappedAppointmentStore store, int doctorId) {
+        int[] found = store.indexesOfDoctor(doctorId);
+        System.out.println("\n  +======================================================+");
+        System.out.printf ("  | HISTORY -- doctor #%-34d|%n", doctorId);
+        System.out.println("  +======================================================+");
+        if (found.length == 0) { System.out.println("  No appointments found."); return; }
+        for (int i : found) System.out.println("\n" + store.get(i));
+    }
+}
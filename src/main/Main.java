@@ -1,33 +1,92 @@
 package main;
 
 import model.Appointment;
+import model.AvailabilityTemplate;
 import model.Doctor;
 import model.Patient;
+import model.Slot;
+import repository.StorageEngine;
 import service.AppointmentManager;
 import service.AppointmentService;
+import service.Bootstrap;
+import service.BookingRequest;
 import service.DoctorService;
+import service.ErrorCode;
 import service.PatientService;
+import service.PersistenceScheduler;
+import service.Result;
 import util.DateValidator;
+import util.Metrics;
 
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
 
 public class Main {
 
-    private static final AppointmentManager  manager            = new AppointmentManager();
-    private static final DoctorService       doctorService      = new DoctorService();
-    private static final PatientService      patientService     = new PatientService();
+    private static final PersistenceScheduler persistence       = new PersistenceScheduler();
+    // -Dstorage=text|binary|jdbc picks the backend; text files by default
+    private static final StorageEngine       storage            = StorageEngine.fromSystemProperty();
+    // Loads the three stores concurrently and prints per-phase timings
+    private static final Bootstrap           boot               = Bootstrap.load(persistence, storage);
+    private static final AppointmentManager  manager            = boot.manager();
+    private static final DoctorService       doctorService      = boot.doctorService();
+    private static final PatientService      patientService     = boot.patientService();
     private static final AppointmentService  appointmentService = new AppointmentService(manager);
     private static final Scanner             scanner            = new Scanner(System.in);
+    private static final int                 SEARCH_RESULTS     = 10;
+    private static final int                 LISTED_SLOTS       = 20;
+    private static final int                 MAX_SERIES_WEEKS   = 52;
+
+    static {
+        Metrics.gauge("das_persistence_marks",          "Changes marked for saving",     persistence::marks);
+        Metrics.gauge("das_persistence_writes",         "File writes performed",         persistence::writes);
+        Metrics.gauge("das_persistence_writes_avoided", "Marks coalesced into another write",
+                      persistence::writesAvoided);
+    }
 
     private static Patient currentPatient = null;
     private static Doctor  currentDoctor  = null;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Server mode: java -jar app.jar --server [port]
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            ApiServer server = new ApiServer(patientService, doctorService, appointmentService);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                manager.close();
+                persistence.close();
+                storage.close();
+            }));
+            server.start(port);
+            return;
+        }
+
+        // Console mode can expose /metrics on loopback: java -jar app.jar --metrics-port 9400
+        MetricsEndpoint metrics = null;
+        if (args.length > 1 && args[0].equals("--metrics-port"))
+            metrics = MetricsEndpoint.start(Integer.parseInt(args[1]));
+
         banner();
         mainMenu();
         System.out.println("\n  Goodbye! Thank you for using the system.");
+        if (metrics != null) metrics.stop();
+        manager.close();
+        persistence.close();
+        storage.close();
         scanner.close();
     }
 
@@ -44,7 +103,8 @@ public class Main {
             System.out.println("  3. Register as Doctor");
             System.out.println("  4. Doctor Login");
             System.out.println("  5. View All Doctors");
-            System.out.println("  6. Exit");
+            System.out.println("  6. Show Metrics");
+            System.out.println("  7. Exit");
             System.out.println("  ========================================");
             System.out.print("  Choice: ");
             switch (input()) {
@@ -53,8 +113,9 @@ public class Main {
                 case "3" -> registerDoctor();
                 case "4" -> { loginDoctor();  if (currentDoctor  != null) doctorMenu();  }
                 case "5" -> doctorService.displayAllDoctors();
-                case "6" -> running = false;
-                default  -> System.out.println("\n  Please enter 1-6.");
+                case "6" -> System.out.print("\n" + Metrics.describe());
+                case "7" -> running = false;
+                default  -> System.out.println("\n  Please enter 1-7.");
             }
         }
     }
@@ -71,20 +132,24 @@ public class Main {
             System.out.println("  2. Book an Appointment");
             System.out.println("  3. My Appointment History");
             System.out.println("  4. Cancel an Appointment");
-            System.out.println("  5. Logout");
+            System.out.println("  5. Find Open Slots by Specialization");
+            System.out.println("  6. Book a Weekly Series");
+            System.out.println("  7. Logout");
             System.out.println("  ========================================");
             System.out.print("  Choice: ");
             switch (input()) {
                 case "1" -> doctorService.displayAllDoctors();
                 case "2" -> bookAppointment();
-                case "3" -> appointmentService.showPatientHistory(currentPatient);
+                case "3" -> showPaged(cursor -> appointmentService.showPatientHistory(currentPatient, cursor));
                 case "4" -> cancelAppointment();
-                case "5" -> {
+                case "5" -> findOpenSlots();
+                case "6" -> bookWeeklySeries();
+                case "7" -> {
                     System.out.println("\n  Logged out.");
                     currentPatient = null;
                     active = false;
                 }
-                default -> System.out.println("\n  Please enter 1-5.");
+                default -> System.out.println("\n  Please enter 1-7.");
             }
         }
     }
@@ -101,20 +166,24 @@ public class Main {
             System.out.println("  2. View My Available Slots");
             System.out.println("  3. Add a Slot");
             System.out.println("  4. Remove a Slot");
-            System.out.println("  5. Logout");
+            System.out.println("  5. View a Day or Week");
+            System.out.println("  6. Add Recurring Slots");
+            System.out.println("  7. Logout");
             System.out.println("  ========================================");
             System.out.print("  Choice: ");
             switch (input()) {
-                case "1" -> appointmentService.showDoctorSchedule(currentDoctor);
+                case "1" -> showPaged(cursor -> appointmentService.showDoctorSchedule(currentDoctor, cursor));
                 case "2" -> showDoctorSlots();
                 case "3" -> addDoctorSlot();
                 case "4" -> removeDoctorSlot();
-                case "5" -> {
+                case "5" -> showDoctorCalendar();
+                case "6" -> addRecurringSlots();
+                case "7" -> {
                     System.out.println("\n  Logged out.");
                     currentDoctor = null;
                     active = false;
                 }
-                default -> System.out.println("\n  Please enter 1-5.");
+                default -> System.out.println("\n  Please enter 1-7.");
             }
         }
     }
@@ -128,14 +197,16 @@ public class Main {
         System.out.print("  Contact Number  : "); String contact  = input();
         System.out.print("  Username        : "); String username = input();
         System.out.print("  Password        : "); String password = input();
-        patientService.register(name, age, contact, username, password);
+        Patient p = report(patientService.register(name, age, contact, username, password));
+        if (p != null) System.out.println("\n  SUCCESS: Registration complete! Welcome, " + p.getName() + ".");
     }
 
     private static void loginPatient() {
         System.out.println("\n  --- PATIENT LOGIN ------------------------------");
         System.out.print("  Username : "); String username = input();
         System.out.print("  Password : "); String password = input();
-        currentPatient = patientService.login(username, password);
+        currentPatient = report(patientService.login(username, password));
+        if (currentPatient != null) System.out.println("\n  SUCCESS: Welcome back, " + currentPatient.getName() + "!");
     }
 
     private static void registerDoctor() {
@@ -145,14 +216,16 @@ public class Main {
         System.out.print("  Contact Number   : "); String contact        = input();
         System.out.print("  Username         : "); String username       = input();
         System.out.print("  Password         : "); String password       = input();
-        doctorService.register(name, specialization, contact, username, password);
+        Doctor d = report(doctorService.register(name, specialization, contact, username, password));
+        if (d != null) System.out.println("\n  SUCCESS: Doctor registered! Welcome, Dr. " + d.getName() + ".");
     }
 
     private static void loginDoctor() {
         System.out.println("\n  --- DOCTOR LOGIN --------------------------------");
         System.out.print("  Username : "); String username = input();
         System.out.print("  Password : "); String password = input();
-        currentDoctor = doctorService.login(username, password).orElse(null);
+        currentDoctor = report(doctorService.login(username, password));
+        if (currentDoctor != null) System.out.println("\n  SUCCESS: Welcome, Dr. " + currentDoctor.getName() + "!");
     }
 
     // ── Patient Actions ───────────────────────────────────────────────────────
@@ -165,35 +238,117 @@ public class Main {
         Optional<Doctor> doctorOpt = doctorService.findById(doctorId);
         if (doctorOpt.isEmpty()) { System.out.println("\n  ERROR: Doctor not found."); return; }
         Doctor doctor = doctorOpt.get();
-        List<String> slots = doctor.getAvailableSlots();
+        List<Slot> slots = doctor.nextAvailableSlots(Slot.now(), LISTED_SLOTS);
         if (slots.isEmpty()) { System.out.println("\n  ERROR: No available slots."); return; }
-        System.out.println("\n  Slots for Dr. " + doctor.getName() + ":");
+        System.out.println("\n  Next slots for Dr. " + doctor.getName() + ":");
         for (int i = 0; i < slots.size(); i++)
             System.out.println("  " + (i + 1) + ". " + slots.get(i));
         System.out.print("\n  Select slot number : ");
         int idx = readInt() - 1;
         if (idx < 0 || idx >= slots.size()) { System.out.println("\n  ERROR: Invalid selection."); return; }
         System.out.print("  Reason for visit   : ");
-        appointmentService.book(currentPatient, doctor, slots.get(idx), input());
+        // The claimed slot reaches doctors.txt with the next coalesced flush
+        booked(doctor, appointmentService.book(currentPatient, doctor, slots.get(idx), input()));
+    }
+
+    private static void bookWeeklySeries() {
+        System.out.println("\n  --- BOOK A WEEKLY SERIES -----------------------");
+        System.out.print("  Enter Doctor ID : ");
+        Optional<Doctor> doctorOpt = doctorService.findById(readInt());
+        if (doctorOpt.isEmpty()) { System.out.println("\n  ERROR: Doctor not found."); return; }
+        Doctor doctor = doctorOpt.get();
+        List<Slot> slots = doctor.nextAvailableSlots(Slot.now(), LISTED_SLOTS);
+        if (slots.isEmpty()) { System.out.println("\n  ERROR: No available slots."); return; }
+        for (int i = 0; i < slots.size(); i++)
+            System.out.println("  " + (i + 1) + ". " + slots.get(i));
+        System.out.print("\n  First slot number  : ");
+        int idx = readInt() - 1;
+        if (idx < 0 || idx >= slots.size()) { System.out.println("\n  ERROR: Invalid selection."); return; }
+        System.out.print("  Number of weeks (2-" + MAX_SERIES_WEEKS + ") : ");
+        int weeks = readInt();
+        if (weeks < 2 || weeks > MAX_SERIES_WEEKS) { System.out.println("\n  ERROR: Invalid number of weeks."); return; }
+        System.out.print("  Reason for visit   : ");
+        String reason = input();
+
+        List<BookingRequest> series = new ArrayList<>(weeks);
+        long first = slots.get(idx).epochMinute();
+        for (int w = 0; w < weeks; w++)
+            series.add(new BookingRequest(currentPatient, doctor,
+                    Slot.ofEpochMinute(first + w * 7L * Slot.MINUTES_PER_DAY), reason));
+        // All or nothing — one journal write, one doctor record saved
+        List<Appointment> booked = report(appointmentService.bookAll(series));
+        if (booked == null) return;
+        doctorService.saveDoctor(doctor);
+        System.out.println("\n  SUCCESS: " + booked.size() + " appointment(s) booked!");
+        for (Appointment a : booked) System.out.println(a);
+    }
+
+    private static void findOpenSlots() {
+        System.out.println("\n  --- FIND OPEN SLOTS ----------------------------");
+        System.out.println("  Specializations: " + String.join(", ", doctorService.getSpecializations()));
+        System.out.print("  Specialization                      : ");
+        String specialization = input();
+        System.out.print("  From date (YYYY-MM-DD, blank = now) : ");
+        String from = input();
+        System.out.print("  To date   (YYYY-MM-DD, blank = any) : ");
+        String to = input();
+        Slot lo, hi;
+        try {
+            lo = from.isEmpty() ? null : Slot.parse(from + " 00:00");
+            // Through the whole of the "to" day: the search bound is exclusive
+            hi = to.isEmpty()   ? null : Slot.ofEpochMinute((Slot.parse(to + " 00:00").epochDay() + 1) * Slot.MINUTES_PER_DAY);
+        } catch (IllegalArgumentException e) {
+            System.out.println("  ERROR: Invalid date. Use YYYY-MM-DD.");
+            return;
+        }
+
+        List<DoctorService.OpenSlot> found = doctorService.findAvailableSlots(specialization, lo, hi, SEARCH_RESULTS);
+        if (found.isEmpty()) { System.out.println("\n  No open slots found."); return; }
+        System.out.println();
+        for (int i = 0; i < found.size(); i++)
+            System.out.println("  " + (i + 1) + ". " + found.get(i));
+        System.out.print("\n  Select a slot to book (blank to go back) : ");
+        String choice = input();
+        if (choice.isEmpty()) return;
+        int idx;
+        try { idx = Integer.parseInt(choice) - 1; } catch (NumberFormatException e) { idx = -1; }
+        if (idx < 0 || idx >= found.size()) { System.out.println("\n  ERROR: Invalid selection."); return; }
+        System.out.print("  Reason for visit   : ");
+        DoctorService.OpenSlot pick = found.get(idx);
+        booked(pick.doctor(), appointmentService.book(currentPatient, pick.doctor(), pick.slot(), input()));
+    }
+
+    private static void booked(Doctor doctor, Result<Appointment> result) {
+        Appointment appt = report(result);
+        if (appt == null) return;
+        doctorService.saveDoctor(doctor);
+        System.out.println("\n  SUCCESS: Appointment booked!");
+        System.out.println(appt);
     }
 
     private static void cancelAppointment() {
         System.out.println("\n  --- CANCEL APPOINTMENT -------------------------");
-        appointmentService.showPatientHistory(currentPatient);
+        showPaged(cursor -> appointmentService.showPatientHistory(currentPatient, cursor));
         List<Appointment> active = appointmentService.getScheduledForPatient(currentPatient.getId());
         if (active.isEmpty()) { System.out.println("\n  No active appointments to cancel."); return; }
         System.out.print("\n  Enter Appointment ID to cancel : ");
-        appointmentService.cancel(readInt(), currentPatient, doctorService);
+        Appointment cancelled = report(appointmentService.cancel(readInt(), currentPatient, doctorService));
+        if (cancelled != null)
+            System.out.println("\n  SUCCESS: Appointment #" + cancelled.getId() + " cancelled. Slot restored.");
     }
 
     // ── Doctor Actions ────────────────────────────────────────────────────────
 
-    private static void showDoctorSlots() {
-        List<String> slots = currentDoctor.getAvailableSlots();
-        System.out.println("\n  --- AVAILABLE SLOTS -- Dr. " + currentDoctor.getName() + " ---");
-        if (slots.isEmpty()) { System.out.println("  No available slots."); return; }
+    // Lists the next LISTED_SLOTS open slots and returns them, for selection by number
+    private static List<Slot> showDoctorSlots() {
+        List<Slot> slots = currentDoctor.nextAvailableSlots(Slot.now(), LISTED_SLOTS);
+        System.out.println("\n  --- UPCOMING SLOTS -- Dr. " + currentDoctor.getName() + " ---");
+        for (AvailabilityTemplate rule : currentDoctor.getRules())
+            System.out.println("  Recurring: " + rule);
+        if (slots.isEmpty()) { System.out.println("  No available slots."); return slots; }
         for (int i = 0; i < slots.size(); i++)
             System.out.println("  " + (i + 1) + ". " + slots.get(i));
+        return slots;
     }
 
     private static void addDoctorSlot() {
@@ -206,26 +361,128 @@ public class Main {
         // Validate format only — doctors can add future prep slots
         if (!DateValidator.isValidFormat(slot)) return;
 
-        currentDoctor.addAvailableSlot(slot);
-        doctorService.saveDoctors();
-        System.out.println("  SUCCESS: Slot '" + slot + "' added and saved.");
+        currentDoctor.addAvailableSlot(Slot.parse(slot));
+        if (saved(doctorService.saveDoctor(currentDoctor)))
+            System.out.println("  SUCCESS: Slot '" + slot + "' added and saved.");
+    }
+
+    private static void addRecurringSlots() {
+        System.out.println("\n  --- ADD RECURRING SLOTS ------------------------");
+        System.out.println("  e.g. days MON-FRI, 08:00 to 12:00, every 15 min, until 2025-09-30");
+        AvailabilityTemplate template;
+        try {
+            System.out.print("  Days (MON-FRI or MON,WED,FRI)      : "); Set<DayOfWeek> days = parseDays(input());
+            System.out.print("  Start time (HH:mm)                 : "); LocalTime start = LocalTime.parse(input());
+            System.out.print("  End time   (HH:mm, exclusive)      : "); LocalTime end   = LocalTime.parse(input());
+            System.out.print("  Every N minutes (blank = 30)       : "); String step = input();
+            System.out.print("  From date (YYYY-MM-DD, blank = today) : "); String from = input();
+            System.out.print("  Until date (YYYY-MM-DD)            : "); LocalDate until = LocalDate.parse(input());
+            template = new AvailabilityTemplate(days, start, end, step.isEmpty() ? 30 : Integer.parseInt(step),
+                                                from.isEmpty() ? LocalDate.now() : LocalDate.parse(from), until);
+        } catch (DateTimeParseException e) {
+            System.out.println("  ERROR: Invalid date or time.");
+            return;
+        } catch (NumberFormatException e) {
+            System.out.println("  ERROR: Step must be a whole number of minutes.");
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println("  ERROR: " + e.getMessage());
+            return;
+        }
+
+        CompletableFuture<Integer> ack = doctorService.addSlots(currentDoctor, template, appointmentService.getBookedSlots(
+                currentDoctor.getId(), template.getFirstDay(), template.getLastDay()));
+        if (saved(ack))
+            System.out.println("  SUCCESS: Recurring availability saved (" + ack.join() + " slot(s)).");
     }
 
     private static void removeDoctorSlot() {
-        showDoctorSlots();
-        List<String> slots = currentDoctor.getAvailableSlots();
-        if (slots.isEmpty()) return;
-        System.out.print("\n  Select slot number to remove : ");
-        int idx = readInt() - 1;
-        if (idx < 0 || idx >= slots.size()) { System.out.println("  ERROR: Invalid selection."); return; }
-        String removed = slots.get(idx);
+        List<Slot> slots = showDoctorSlots();
+        System.out.print("\n  Slot number, or a slot (YYYY-MM-DD HH:mm) further ahead : ");
+        String choice = input();
+        Slot removed;
+        if (choice.contains(" ")) {
+            if (!DateValidator.isValidFormat(choice)) return;
+            removed = Slot.parse(choice);
+            if (!currentDoctor.isSlotAvailable(removed)) { System.out.println("  ERROR: Slot is not open."); return; }
+        } else {
+            int idx;
+            try { idx = Integer.parseInt(choice) - 1; } catch (NumberFormatException e) { idx = -1; }
+            if (idx < 0 || idx >= slots.size()) { System.out.println("  ERROR: Invalid selection."); return; }
+            removed = slots.get(idx);
+        }
         currentDoctor.removeSlot(removed);
-        doctorService.saveDoctors();
-        System.out.println("  SUCCESS: Slot '" + removed + "' removed and saved.");
+        if (saved(doctorService.saveDoctor(currentDoctor)))
+            System.out.println("  SUCCESS: Slot '" + removed + "' removed and saved.");
+    }
+
+    private static void showDoctorCalendar() {
+        System.out.println("\n  --- DAY / WEEK VIEW ----------------------------");
+        System.out.print("  Start date (YYYY-MM-DD, blank = today) : ");
+        String date = input();
+        LocalDate first;
+        try {
+            first = date.isEmpty() ? LocalDate.now() : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            System.out.println("  ERROR: Invalid date '" + date + "'. Use YYYY-MM-DD.");
+            return;
+        }
+        System.out.print("  D = day, W = week (default D)         : ");
+        int days = input().equalsIgnoreCase("w") ? 7 : 1;
+        appointmentService.showDoctorCalendar(currentDoctor, first, days);
     }
 
     // ── Utilities ─────────────────────────────────────────────────────────────
 
+    // "MON-FRI", "SAT,SUN" or a mix of both; three-letter or full day names
+    private static Set<DayOfWeek> parseDays(String text) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : text.toUpperCase(Locale.ROOT).split(",")) {
+            String[] range = part.trim().split("-");
+            if (range.length > 2 || range[0].isEmpty()) throw new IllegalArgumentException("Invalid days '" + text + "'");
+            DayOfWeek first = dayOf(range[0]), last = range.length == 2 ? dayOf(range[1]) : first;
+            for (DayOfWeek d = first; ; d = d.plus(1)) {
+                days.add(d);
+                if (d == last) break;
+            }
+        }
+        return days;
+    }
+
+    private static DayOfWeek dayOf(String name) {
+        String n = name.trim();
+        for (DayOfWeek d : DayOfWeek.values())
+            if (n.length() >= 3 && d.name().startsWith(n)) return d;
+        throw new IllegalArgumentException("Unknown day '" + name.trim() + "'");
+    }
+
+    // Shows the first page, then one more per Enter until the pages run out or the user stops
+    private static void showPaged(UnaryOperator<String> showPage) {
+        String cursor = showPage.apply(null);
+        while (cursor != null) {
+            System.out.print("\n  Press Enter for more, or Q to stop : ");
+            if (input().equalsIgnoreCase("q")) return;
+            cursor = showPage.apply(cursor);
+        }
+    }
+
+    // Prints why a service call was refused; returns its value, or null if it failed
+    private static <T> T report(Result<T> result) {
+        if (!result.isOk()) System.out.println("\n  ERROR: " + result.message());
+        return result.orElse(null);
+    }
+
+    // Waits for a save; a failed one is reported, and the change stays queued for the next write
+    private static boolean saved(CompletableFuture<?> ack) {
+        try {
+            ack.join();
+            return true;
+        } catch (CompletionException e) {
+            report(Result.fail(ErrorCode.NOT_SAVED));
+            return false;
+        }
+    }
+
     private static String input() { return scanner.nextLine().trim(); }
 
     private static int readInt() {
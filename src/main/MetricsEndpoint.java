@@ -0,0 +1,51 @@
+package main;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import util.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves {@link Metrics#prometheus()} at {@code /metrics}. The API server
+ * mounts {@link #handler()} next to its endpoints; the console app can run
+ * {@link #start(int)} on its own, bound to loopback only so the numbers are
+ * not exposed beyond the machine.
+ */
+public final class MetricsEndpoint {
+
+    static final String PATH = "/metrics";
+
+    private final HttpServer server;
+
+    private MetricsEndpoint(HttpServer server) {
+        this.server = server;
+    }
+
+    /** Starts a single-threaded server on 127.0.0.1:{@code port}; port 0 picks a free one. */
+    public static MetricsEndpoint start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, handler());
+        server.start();
+        System.out.println("  INFO: Metrics at http://127.0.0.1:" + server.getAddress().getPort() + PATH);
+        return new MetricsEndpoint(server);
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    public void stop() { server.stop(0); }
+
+    static HttpHandler handler() {
+        return exchange -> {
+            boolean get = "GET".equals(exchange.getRequestMethod());
+            byte[] body = (get ? Metrics.prometheus() : "Method not allowed\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(get ? 200 : 405, body.length);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(body); }
+        };
+    }
+}
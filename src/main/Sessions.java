@@ -0,0 +1,77 @@
+package main;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Login tokens for the API. A token lapses after {@code idleMillis} without
+ * use; lapsed tokens are dropped when next presented and by a sweep that runs
+ * at most once per idle period, on login, so the map only holds sessions that
+ * are still live or recently were.
+ */
+final class Sessions<T> {
+
+    private static final class Session<T> {
+        final T user;
+        volatile long lastUsed;
+
+        Session(T user, long now) {
+            this.user     = user;
+            this.lastUsed = now;
+        }
+    }
+
+    private final Map<String, Session<T>> byToken = new ConcurrentHashMap<>();
+    private final long idleMillis;
+    private final LongSupplier clock;
+    private volatile long lastSweep;
+
+    Sessions(long idleMillis) {
+        this(idleMillis, System::currentTimeMillis);
+    }
+
+    Sessions(long idleMillis, LongSupplier clock) {
+        this.idleMillis = idleMillis;
+        this.clock      = clock;
+        this.lastSweep  = clock.getAsLong();
+    }
+
+    /** Starts a session for {@code user}; returns its token. */
+    String open(T user) {
+        long now = clock.getAsLong();
+        if (now - lastSweep >= idleMillis) sweep(now);
+        String token = UUID.randomUUID().toString();
+        byToken.put(token, new Session<>(user, now));
+        return token;
+    }
+
+    /** The user behind {@code token}, or null if it is unknown or has lapsed. Use renews it. */
+    T get(String token) {
+        if (token == null || token.isEmpty()) return null;
+        Session<T> s = byToken.get(token);
+        if (s == null) return null;
+        long now = clock.getAsLong();
+        if (now - s.lastUsed >= idleMillis) {
+            byToken.remove(token, s);
+            return null;
+        }
+        s.lastUsed = now;
+        return s.user;
+    }
+
+    /** Ends the session; false if there was none. */
+    boolean close(String token) {
+        return token != null && byToken.remove(token) != null;
+    }
+
+    int size() { return byToken.size(); }
+
+    private void sweep(long now) {
+        lastSweep = now;
+        for (Iterator<Session<T>> it = byToken.values().iterator(); it.hasNext(); )
+            if (now - it.next().lastUsed >= idleMillis) it.remove();
+    }
+}
@@ -9,12 +9,18 @@ public class Appointment {
     private String patientName;
     private int doctorId;
     private String doctorName;
-    private String slot;
+    private Slot slot;
     private String reason;
-    private Status status;
+    private volatile Status status;
 
+    /** @throws IllegalArgumentException if {@code slot} is not "yyyy-MM-dd HH:mm" */
     public Appointment(int id, int patientId, String patientName,
                        int doctorId, String doctorName, String slot, String reason) {
+        this(id, patientId, patientName, doctorId, doctorName, Slot.parse(slot), reason);
+    }
+
+    public Appointment(int id, int patientId, String patientName,
+                       int doctorId, String doctorName, Slot slot, String reason) {
         this.id          = id;
         this.patientId   = patientId;
         this.patientName = patientName;
@@ -25,13 +31,13 @@ public class Appointment {
         this.status      = Status.SCHEDULED;
     }
 
-    public void cancel() {
+    public synchronized void cancel() {
         if (this.status != Status.SCHEDULED)
             throw new IllegalStateException("Only SCHEDULED appointments can be cancelled.");
         this.status = Status.CANCELLED;
     }
 
-    public void complete() {
+    public synchronized void complete() {
         if (this.status != Status.SCHEDULED)
             throw new IllegalStateException("Only SCHEDULED appointments can be completed.");
         this.status = Status.COMPLETED;
@@ -42,7 +48,8 @@ public class Appointment {
     public String getPatientName()  { return patientName; }
     public int getDoctorId()        { return doctorId; }
     public String getDoctorName()   { return doctorName; }
-    public String getSlot()         { return slot; }
+    public String getSlot()         { return slot.toString(); }
+    public Slot getSlotTime()       { return slot; }
     public String getReason()       { return reason; }
     public Status getStatus()       { return status; }
     public void setStatus(Status s) { this.status = s; }
@@ -0,0 +1,192 @@
+package model;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * A recurring block of availability, e.g. "Mon-Fri 08:00-12:00 every 15 min
+ * from 2099-07-01 until 2099-09-30". Slots start at {@code start} and every
+ * {@code stepMinutes} after it while they begin before {@code end}; both
+ * dates are inclusive.
+ *
+ * Expansion works on epoch-days and epoch-minutes directly, so a quarter of
+ * 15-minute slots costs one loop over primitives rather than a date-time
+ * object per slot. {@link #covers(long)} and {@link #nextFrom(long)} answer
+ * without expanding at all, which is how a Doctor keeps templates as rules.
+ *
+ * Text form, as stored in doctors.txt (see {@link #parse(String)}):
+ *   MON,TUE,WED,THU,FRI 08:00-12:00/15 2099-07-01..2099-09-30
+ */
+public final class AvailabilityTemplate {
+
+    /** Upper bound on one expansion, so a typo in the dates cannot flood a doctor's slot set. */
+    public static final int MAX_SLOTS = 200_000;
+
+    private final Set<DayOfWeek> days;
+    private final LocalTime start;
+    private final LocalTime end;
+    private final int stepMinutes;
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+
+    /** @throws IllegalArgumentException if the template is empty or would expand past {@link #MAX_SLOTS} */
+    public AvailabilityTemplate(Set<DayOfWeek> days, LocalTime start, LocalTime end,
+                                int stepMinutes, LocalDate firstDay, LocalDate lastDay) {
+        if (days.isEmpty())             throw new IllegalArgumentException("No days selected");
+        if (!start.isBefore(end))       throw new IllegalArgumentException("Start time must be before end time");
+        if (stepMinutes <= 0)           throw new IllegalArgumentException("Step must be positive");
+        if (lastDay.isBefore(firstDay)) throw new IllegalArgumentException("Last day is before first day");
+        this.days        = Collections.unmodifiableSet(EnumSet.copyOf(days));
+        this.start       = start;
+        this.end         = end;
+        this.stepMinutes = stepMinutes;
+        this.firstDay    = firstDay;
+        this.lastDay     = lastDay;
+        if (size() > MAX_SLOTS)
+            throw new IllegalArgumentException("Template expands to more than " + MAX_SLOTS + " slots");
+    }
+
+    public Set<DayOfWeek> getDays()  { return days; }
+    public LocalTime getStart()      { return start; }
+    public LocalTime getEnd()        { return end; }
+    public int getStepMinutes()      { return stepMinutes; }
+    public LocalDate getFirstDay()   { return firstDay; }
+    public LocalDate getLastDay()    { return lastDay; }
+
+    // ── Expansion ─────────────────────────────────────────────────────────────
+
+    /** Every slot of the template, earliest first. */
+    public List<Slot> expand() {
+        List<Slot> slots = new ArrayList<>((int) size());
+        forEachMinute(Long.MIN_VALUE, Long.MAX_VALUE, m -> slots.add(Slot.ofEpochMinute(m)));
+        return slots;
+    }
+
+    /** Feeds each slot's epoch-minute in {@code [fromMinute, toMinute)} to {@code sink}, ascending. */
+    public void forEachMinute(long fromMinute, long toMinute, LongConsumer sink) {
+        int startOfDay = minuteOfDay(start), endOfDay = minuteOfDay(end);
+        long firstEpochDay = Math.max(firstDay.toEpochDay(), Math.floorDiv(fromMinute, Slot.MINUTES_PER_DAY));
+        long lastEpochDay  = Math.min(lastDay.toEpochDay(),
+                toMinute == Long.MAX_VALUE ? Long.MAX_VALUE : Math.floorDiv(toMinute - 1, Slot.MINUTES_PER_DAY));
+        for (long day = firstEpochDay; day <= lastEpochDay; day++) {
+            if (!days.contains(dayOfWeek(day))) continue;
+            long base = day * Slot.MINUTES_PER_DAY;
+            for (int m = startOfDay; m < endOfDay; m += stepMinutes) {
+                long minute = base + m;
+                if (minute >= fromMinute && minute < toMinute) sink.accept(minute);
+            }
+        }
+    }
+
+    /** True if {@code epochMinute} is one of this template's slots. */
+    public boolean covers(long epochMinute) {
+        long day = Math.floorDiv(epochMinute, Slot.MINUTES_PER_DAY);
+        if (day < firstDay.toEpochDay() || day > lastDay.toEpochDay() || !days.contains(dayOfWeek(day))) return false;
+        int m = (int) (epochMinute - day * Slot.MINUTES_PER_DAY), startOfDay = minuteOfDay(start);
+        return m >= startOfDay && m < minuteOfDay(end) && (m - startOfDay) % stepMinutes == 0;
+    }
+
+    /** The first slot at or after {@code epochMinute}, or {@link Long#MAX_VALUE} if there is none. */
+    public long nextFrom(long epochMinute) {
+        int startOfDay = minuteOfDay(start), endOfDay = minuteOfDay(end);
+        long day = Math.floorDiv(epochMinute, Slot.MINUTES_PER_DAY);
+        int m = (int) (epochMinute - day * Slot.MINUTES_PER_DAY);
+        if (day < firstDay.toEpochDay()) { day = firstDay.toEpochDay(); m = 0; }
+        // At most one partial day, then at most a week of whole days to the next match
+        for (long last = lastDay.toEpochDay(); day <= last; day++, m = 0) {
+            if (!days.contains(dayOfWeek(day))) continue;
+            int first = m <= startOfDay ? startOfDay
+                      : startOfDay + (m - startOfDay + stepMinutes - 1) / stepMinutes * stepMinutes;
+            if (first < endOfDay) return day * Slot.MINUTES_PER_DAY + first;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /** Number of slots {@link #expand()} yields, counted without building them. */
+    public long size() {
+        int startOfDay = minuteOfDay(start), endOfDay = minuteOfDay(end);
+        long perDay = (endOfDay - startOfDay + stepMinutes - 1) / stepMinutes;
+        long matchingDays = 0;
+        for (long day = firstDay.toEpochDay(), last = lastDay.toEpochDay(); day <= last; day++) {
+            // Whole weeks contribute days.size() each; only the remainder is walked
+            if (last - day >= 7) {
+                long weeks = (last - day + 1) / 7;
+                matchingDays += weeks * days.size();
+                day += weeks * 7 - 1;
+            } else if (days.contains(dayOfWeek(day))) {
+                matchingDays++;
+            }
+        }
+        return matchingDays * perDay;
+    }
+
+    private static int minuteOfDay(LocalTime t) { return t.getHour() * 60 + t.getMinute(); }
+
+    // 1970-01-01 (epoch day 0) was a Thursday
+    private static DayOfWeek dayOfWeek(long epochDay) {
+        return DayOfWeek.of(Math.floorMod(epochDay + 3, 7) + 1);
+    }
+
+    // ── Text form ─────────────────────────────────────────────────────────────
+
+    /**
+     * Parses the form written by {@link #toString()}.
+     * @throws IllegalArgumentException if {@code text} is malformed or describes an invalid template
+     */
+    public static AvailabilityTemplate parse(String text) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length != 3) throw new IllegalArgumentException("Invalid availability rule '" + text + "'");
+        try {
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            for (String d : parts[0].split(",")) days.add(dayOfWeek(d));
+
+            int slash = parts[1].indexOf('/'), dash = parts[1].indexOf('-');
+            int dots  = parts[2].indexOf("..");
+            if (slash < 0 || dash < 0 || dash > slash || dots < 0)
+                throw new IllegalArgumentException("Invalid availability rule '" + text + "'");
+            return new AvailabilityTemplate(days,
+                    LocalTime.parse(parts[1].substring(0, dash)), LocalTime.parse(parts[1].substring(dash + 1, slash)),
+                    Integer.parseInt(parts[1].substring(slash + 1)),
+                    LocalDate.parse(parts[2].substring(0, dots)), LocalDate.parse(parts[2].substring(dots + 2)));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid availability rule '" + text + "'", e);
+        }
+    }
+
+    private static DayOfWeek dayOfWeek(String abbreviation) {
+        for (DayOfWeek d : DayOfWeek.values())
+            if (d.name().substring(0, 3).equalsIgnoreCase(abbreviation)) return d;
+        throw new IllegalArgumentException("Unknown day '" + abbreviation + "'");
+    }
+
+    /** e.g. "MON,WED,FRI 08:00-12:00/15 2099-07-01..2099-09-30" */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (DayOfWeek d : days) sb.append(sb.length() == 0 ? "" : ",").append(d.name(), 0, 3);
+        return sb + " " + start + "-" + end + "/" + stepMinutes + " " + firstDay + ".." + lastDay;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AvailabilityTemplate)) return false;
+        AvailabilityTemplate t = (AvailabilityTemplate) o;
+        return stepMinutes == t.stepMinutes && days.equals(t.days) && start.equals(t.start)
+                && end.equals(t.end) && firstDay.equals(t.firstDay) && lastDay.equals(t.lastDay);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(days, start, end, stepMinutes, firstDay, lastDay);
+    }
+}
@@ -1,8 +1,30 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * A doctor and their availability. Availability is kept compact:
+ *
+ *   rules       recurring templates, never expanded in memory or on disk
+ *   exceptions  rule slots that are booked or removed — sparse
+ *   one-off     slots added individually that no rule covers
+ *
+ * A slot is open if it is a one-off slot, or a rule slot that is not an
+ * exception. Reads compute this lazily for the window asked for, so the cost
+ * of a day's listing does not grow with how far ahead the rules reach.
+ */
 public class Doctor {
 
     private int id;
@@ -11,7 +33,17 @@ public class Doctor {
     private String contactNumber;
     private String username;
     private String password;
-    private List<String> availableSlots;
+    // Sorted and deduplicated, O(log n) add/remove/contains.
+    // Concurrent so reads never block; changes to the open set take this
+    // doctor's monitor, so a claim can never interleave with a rule being added.
+    private final NavigableSet<Slot> oneOffSlots = new ConcurrentSkipListSet<>();
+    // Epoch-minutes, so probing a rule slot never creates a Slot for it
+    private final NavigableSet<Long> exceptions  = new ConcurrentSkipListSet<>();
+    private final List<AvailabilityTemplate> rules = new CopyOnWriteArrayList<>();
+    // One-off slots claimed since load, guarded by this doctor's monitor. A rule
+    // added later must keep them closed, and the caller's booked list misses a
+    // booking that has claimed its slot but is not recorded yet.
+    private final Set<Slot> claimedOneOffs = new HashSet<>();
 
     public Doctor(int id, String name, String specialization,
                   String contactNumber, String username, String password) {
@@ -21,15 +53,184 @@ public class Doctor {
         this.contactNumber  = contactNumber;
         this.username       = username;
         this.password       = password;
-        this.availableSlots = new ArrayList<>();
     }
 
-    public void addAvailableSlot(String slot) {
-        if (!availableSlots.contains(slot)) availableSlots.add(slot);
+    // A rule slot reopens by dropping its exception; anything else is a one-off
+    public synchronized void addAvailableSlot(Slot slot) {
+        claimedOneOffs.remove(slot);
+        if (coveredByRule(slot.epochMinute())) exceptions.remove(slot.epochMinute());
+        else oneOffSlots.add(slot);
     }
 
-    public void removeSlot(String slot)         { availableSlots.remove(slot); }
-    public boolean isSlotAvailable(String slot) { return availableSlots.contains(slot); }
+    public synchronized void removeSlot(Slot slot) {
+        oneOffSlots.remove(slot);
+        if (coveredByRule(slot.epochMinute())) exceptions.add(slot.epochMinute());
+    }
+
+    public boolean isSlotAvailable(Slot slot) {
+        return oneOffSlots.contains(slot)
+            || (coveredByRule(slot.epochMinute()) && !exceptions.contains(slot.epochMinute()));
+    }
+
+    /**
+     * Atomically takes {@code slot} out of the open set. Exactly one caller
+     * wins when several race for the same slot.
+     */
+    public synchronized boolean claimSlot(Slot slot) {
+        if (oneOffSlots.remove(slot)) {
+            claimedOneOffs.add(slot);
+            return true;
+        }
+        return coveredByRule(slot.epochMinute()) && exceptions.add(slot.epochMinute());
+    }
+
+    /** Adds many slots at once; returns how many were not already open. */
+    public int addAvailableSlots(Collection<Slot> slots) {
+        int added = 0;
+        for (Slot s : slots) {
+            if (isSlotAvailable(s)) continue;
+            addAvailableSlot(s);
+            added++;
+        }
+        return added;
+    }
+
+    // ── Rules ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Adds a recurring rule. One-off slots it now covers are folded into it,
+     * so the two never overlap.
+     */
+    public void addRule(AvailabilityTemplate rule) {
+        addRule(rule, List.of());
+    }
+
+    /**
+     * Adds a recurring rule over times some of which are already booked. A
+     * booked one-off slot has left the open set without a trace, so without
+     * {@code booked} the rule would open it again; each one it covers becomes
+     * an exception before the rule is visible, as does each one-off slot
+     * claimed since load.
+     */
+    public synchronized void addRule(AvailabilityTemplate rule, Collection<Slot> booked) {
+        claimedOneOffs.removeIf(Slot::isPast);
+        for (Slot s : booked)         if (rule.covers(s.epochMinute())) exceptions.add(s.epochMinute());
+        for (Slot s : claimedOneOffs) if (rule.covers(s.epochMinute())) exceptions.add(s.epochMinute());
+        rules.add(rule);
+        NavigableSet<Slot> span = oneOffSlots.subSet(
+                Slot.ofEpochMinute(rule.getFirstDay().toEpochDay() * Slot.MINUTES_PER_DAY), true,
+                Slot.ofEpochMinute((rule.getLastDay().toEpochDay() + 1) * Slot.MINUTES_PER_DAY), false);
+        for (Slot s : span) {
+            if (!rule.covers(s.epochMinute())) continue;
+            oneOffSlots.remove(s);
+            exceptions.remove(s.epochMinute());     // open as a one-off, so open under the rule too
+        }
+    }
+
+    public List<AvailabilityTemplate> getRules() { return Collections.unmodifiableList(rules); }
+
+    /** Booked or removed rule slots as epoch-minutes, earliest first. */
+    public NavigableSet<Long> getExceptionMinutes() { return Collections.unmodifiableNavigableSet(exceptions); }
+
+    /** Restores a saved exception as-is, without the rule lookup a removal does. */
+    public void addException(Slot slot) { exceptions.add(slot.epochMinute()); }
+
+    public void addExceptionMinute(long epochMinute) { exceptions.add(epochMinute); }
+
+    private boolean coveredByRule(long epochMinute) {
+        for (AvailabilityTemplate r : rules) if (r.covers(epochMinute)) return true;
+        return false;
+    }
+
+    // ── Windowed reads ────────────────────────────────────────────────────────
+
+    /**
+     * Lazily walks the open slots in {@code [from, to)}, earliest first; a null
+     * bound is open. Nothing past the last slot read is computed.
+     */
+    public Iterator<Slot> availableSlots(Slot from, Slot to) {
+        return new OpenSlots(from, to);
+    }
+
+    /** First open slot strictly after {@code slot}. */
+    public Optional<Slot> nextAvailableSlotAfter(Slot slot) {
+        Iterator<Slot> it = availableSlots(Slot.ofEpochMinute(slot.epochMinute() + 1), null);
+        return it.hasNext() ? Optional.of(it.next()) : Optional.empty();
+    }
+
+    /** Up to {@code limit} open slots from {@code from} on, earliest first. */
+    public List<Slot> nextAvailableSlots(Slot from, int limit) {
+        List<Slot> result = new ArrayList<>();
+        for (Iterator<Slot> it = availableSlots(from, null); it.hasNext() && result.size() < limit; )
+            result.add(it.next());
+        return result;
+    }
+
+    /** The open slots in {@code [from, to)}, earliest first. */
+    public NavigableSet<Slot> getAvailableSlotsBetween(Slot from, Slot to) {
+        NavigableSet<Slot> result = new TreeSet<>();
+        availableSlots(from, to).forEachRemaining(result::add);
+        return Collections.unmodifiableNavigableSet(result);
+    }
+
+    // ── Whole-set reads — every rule expanded; prefer the windowed forms ──────
+
+    /** All open slots, earliest first. */
+    public NavigableSet<Slot> getOpenSlots() {
+        return getAvailableSlotsBetween(null, null);
+    }
+
+    public int getAvailableSlotCount() {
+        int n = 0;
+        for (Iterator<Slot> it = availableSlots(null, null); it.hasNext(); it.next()) n++;
+        return n;
+    }
+
+    /** Snapshot of the open slots, earliest first. */
+    public List<String> getAvailableSlots() {
+        List<String> result = new ArrayList<>();
+        availableSlots(null, null).forEachRemaining(s -> result.add(s.toString()));
+        return result;
+    }
+
+    // ── Compact forms for serialisation ───────────────────────────────────────
+
+    /** One-off slots as epoch-minutes, ascending. */
+    public long[] getOneOffSlotMinutes() {
+        return oneOffSlots.stream().mapToLong(Slot::epochMinute).toArray();
+    }
+
+    public void addOneOffSlotMinute(long epochMinute) { oneOffSlots.add(Slot.ofEpochMinute(epochMinute)); }
+
+    /** One-off slots only, as saved in the slots field of doctors.txt. */
+    public List<String> getOneOffSlots() {
+        List<String> result = new ArrayList<>(oneOffSlots.size());
+        for (Slot s : oneOffSlots) result.add(s.toString());
+        return result;
+    }
+
+    // String forms for callers at the edge (console input, data files)
+
+    /** @throws IllegalArgumentException if {@code slot} is not "yyyy-MM-dd HH:mm" */
+    public void addAvailableSlot(String slot)     { addAvailableSlot(Slot.parse(slot)); }
+
+    public void removeSlot(String slot) {
+        Slot s = parseOrNull(slot);
+        if (s != null) removeSlot(s);
+    }
+
+    public boolean isSlotAvailable(String slot) {
+        Slot s = parseOrNull(slot);
+        return s != null && isSlotAvailable(s);
+    }
+
+    private static Slot parseOrNull(String slot) {
+        try {
+            return Slot.parse(slot);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
     public int getId()                      { return id; }
     public String getName()                 { return name; }
@@ -40,11 +241,54 @@ public class Doctor {
     public void setContactNumber(String c)  { this.contactNumber = c; }
     public String getUsername()             { return username; }
     public String getPassword()             { return password; }
-    public List<String> getAvailableSlots() { return availableSlots; }
 
     @Override
     public String toString() {
         return String.format("  [ID: %d] Dr. %-20s | %-22s | Contact: %s",
                 id, name, specialization, contactNumber);
     }
+
+    // Merges the one-off slots with each rule's next slot, skipping exceptions
+    private final class OpenSlots implements Iterator<Slot> {
+        private final long toMinute;
+        private final Iterator<Slot> oneOff;
+        private final List<AvailabilityTemplate> ruleSnapshot = new ArrayList<>(rules);
+        private Slot oneOffHead;
+        private long ruleHead;
+
+        OpenSlots(Slot from, Slot to) {
+            long fromMinute = from == null ? Long.MIN_VALUE : from.epochMinute();
+            this.toMinute = to == null ? Long.MAX_VALUE : to.epochMinute();
+            NavigableSet<Slot> window = oneOffSlots;
+            if (from != null) window = window.tailSet(from, true);
+            if (to != null)   window = window.headSet(to, false);
+            this.oneOff     = window.iterator();
+            this.oneOffHead = oneOff.hasNext() ? oneOff.next() : null;
+            this.ruleHead   = nextRuleSlot(fromMinute);
+        }
+
+        // Earliest rule slot at or after the minute that is not an exception
+        private long nextRuleSlot(long minute) {
+            while (true) {
+                long next = Long.MAX_VALUE;
+                for (AvailabilityTemplate r : ruleSnapshot) next = Math.min(next, r.nextFrom(minute));
+                if (next >= toMinute) return Long.MAX_VALUE;
+                if (!exceptions.contains(next)) return next;
+                minute = next + 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() { return oneOffHead != null || ruleHead != Long.MAX_VALUE; }
+
+        @Override
+        public Slot next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long fromOneOff = oneOffHead == null ? Long.MAX_VALUE : oneOffHead.epochMinute();
+            long minute = Math.min(fromOneOff, ruleHead);
+            if (fromOneOff == minute) oneOffHead = oneOff.hasNext() ? oneOff.next() : null;
+            if (ruleHead == minute)   ruleHead = nextRuleSlot(minute + 1);
+            return Slot.ofEpochMinute(minute);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Patient {
@@ -21,7 +22,7 @@ public class Patient {
         this.contactNumber  = contactNumber;
         this.username       = username;
         this.password       = password;
-        this.appointmentIds = new ArrayList<>();
+        this.appointmentIds = Collections.synchronizedList(new ArrayList<>());
     }
 
     public void addAppointmentId(int id)    { appointmentIds.add(id); }
@@ -0,0 +1,181 @@
+package model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An appointment time slot, parsed once from "yyyy-MM-dd HH:mm" and then
+ * handled as a primitive epoch-minute. Slots are wall-clock times, so no time
+ * zone is applied. Instances are interned: equal slots in use are the same
+ * object, and the display string is built once per distinct slot. The table
+ * holds them weakly, so slots only touched in passing — the clock, query
+ * bounds, rule slots walked lazily — drop out once nothing refers to them.
+ */
+public final class Slot implements Comparable<Slot> {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** Latest year accepted, so every parsed slot's epoch-minute fits in an int. */
+    public static final int MAX_YEAR = 5999;
+
+    private static final ConcurrentHashMap<Long, Interned> INTERNED = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Slot> CLEARED = new ReferenceQueue<>();
+
+    // Remembers its key so the entry can be removed once the slot is collected
+    private static final class Interned extends WeakReference<Slot> {
+        final long epochMinute;
+
+        Interned(Slot slot) {
+            super(slot, CLEARED);
+            this.epochMinute = slot.epochMinute;
+        }
+    }
+
+    // Cached clock tick — refreshed at most once per wall-clock minute
+    private static volatile long nowMinute;
+    private static volatile long nowValidUntilMillis;
+
+    private final long   epochMinute;
+    private final String text;
+
+    private Slot(long epochMinute) {
+        this.epochMinute = epochMinute;
+        this.text        = format(epochMinute);
+    }
+
+    // ── Factories ─────────────────────────────────────────────────────────────
+
+    /** @throws IllegalArgumentException if {@code slot} is not a valid "yyyy-MM-dd HH:mm" */
+    public static Slot parse(String slot) {
+        return ofEpochMinute(toEpochMinute(slot));
+    }
+
+    public static Slot ofEpochMinute(long epochMinute) {
+        Interned ref = INTERNED.get(epochMinute);
+        Slot s = ref == null ? null : ref.get();
+        if (s != null) return s;
+        expungeCleared();
+        Slot[] live = new Slot[1];
+        INTERNED.compute(epochMinute, (k, old) -> {
+            live[0] = old == null ? null : old.get();
+            if (live[0] != null) return old;
+            live[0] = new Slot(k);
+            return new Interned(live[0]);
+        });
+        return live[0];
+    }
+
+    // Entries whose slot was collected; an entry already replaced is left alone
+    private static void expungeCleared() {
+        for (Reference<? extends Slot> r; (r = CLEARED.poll()) != null; ) {
+            Interned cleared = (Interned) r;
+            INTERNED.remove(cleared.epochMinute, cleared);
+        }
+    }
+
+    /** Entries in the intern table, including any not yet expunged. */
+    static int internedCount() { return INTERNED.size(); }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    public long epochMinute() { return epochMinute; }
+    public long epochDay()    { return Math.floorDiv(epochMinute, MINUTES_PER_DAY); }
+
+    public boolean isBefore(Slot other) { return epochMinute < other.epochMinute; }
+
+    /** Primitive comparison against the cached clock — no LocalDateTime.now() per call. */
+    public boolean isPast() { return epochMinute < currentMinute(); }
+
+    public static long currentMinute() {
+        long millis = System.currentTimeMillis();
+        if (millis >= nowValidUntilMillis) {
+            LocalDateTime now = LocalDateTime.now();
+            nowMinute = now.toLocalDate().toEpochDay() * MINUTES_PER_DAY
+                      + now.getHour() * 60L + now.getMinute();
+            // Valid until the next wall-clock minute starts
+            long intoMinute = now.getSecond() * 1000L + now.getNano() / 1_000_000;
+            nowValidUntilMillis = millis - intoMinute + 60_000;
+        }
+        return nowMinute;
+    }
+
+    public static Slot now() { return ofEpochMinute(currentMinute()); }
+
+    @Override public int compareTo(Slot o)  { return Long.compare(epochMinute, o.epochMinute); }
+    @Override public boolean equals(Object o) { return o instanceof Slot s && s.epochMinute == epochMinute; }
+    @Override public int hashCode()         { return Long.hashCode(epochMinute); }
+    @Override public String toString()      { return text; }
+
+    // ── Codec ─────────────────────────────────────────────────────────────────
+
+    /** @throws IllegalArgumentException if {@code slot} is not a valid "yyyy-MM-dd HH:mm" */
+    public static long toEpochMinute(String slot) {
+        if (slot == null) throw new IllegalArgumentException("Invalid slot: null");
+        // Non-Latin-1 characters become '?', which the digit checks reject
+        byte[] b = slot.getBytes(StandardCharsets.ISO_8859_1);
+        return toEpochMinute(b, 0, b.length);
+    }
+
+    /** Same as {@link #toEpochMinute(String)} over ASCII bytes, without allocating. */
+    public static long toEpochMinute(byte[] b, int from, int to) {
+        if (to - from != 16 || b[from + 4] != '-' || b[from + 7] != '-'
+                || b[from + 10] != ' ' || b[from + 13] != ':')
+            throw invalid(b, from, to);
+        int year   = digits(b, from, 0, 4, to);
+        int month  = digits(b, from, 5, 7, to);
+        int day    = digits(b, from, 8, 10, to);
+        int hour   = digits(b, from, 11, 13, to);
+        int minute = digits(b, from, 14, 16, to);
+        if (hour > 23 || minute > 59 || year > MAX_YEAR) throw invalid(b, from, to);
+        try {
+            long epochDay = LocalDate.of(year, month, day).toEpochDay();
+            return epochDay * MINUTES_PER_DAY + hour * 60L + minute;
+        } catch (DateTimeException e) {
+            throw invalid(b, from, to);
+        }
+    }
+
+    public static String format(long epochMinute) {
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+        int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+        StringBuilder sb = new StringBuilder(16);
+        pad(sb, date.getYear(), 4).append('-');
+        pad(sb, date.getMonthValue(), 2).append('-');
+        pad(sb, date.getDayOfMonth(), 2).append(' ');
+        pad(sb, minuteOfDay / 60, 2).append(':');
+        pad(sb, minuteOfDay % 60, 2);
+        return sb.toString();
+    }
+
+    public LocalDateTime toLocalDateTime() {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static int digits(byte[] b, int base, int from, int to, int end) {
+        int value = 0;
+        for (int i = base + from; i < base + to; i++) {
+            int c = b[i];
+            if (c < '0' || c > '9') throw invalid(b, base, end);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(byte[] b, int from, int to) {
+        return new IllegalArgumentException(
+                "Invalid slot: " + new String(b, from, to - from, StandardCharsets.ISO_8859_1));
+    }
+
+    private static StringBuilder pad(StringBuilder sb, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) sb.append('0');
+        return sb.append(digits);
+    }
+}
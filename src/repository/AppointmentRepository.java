@@ -0,0 +1,48 @@
+package repository;
+
+import model.Appointment;
+
+import java.util.List;
+
+/**
+ * Appointment storage. Besides whole-set load and save it records single
+ * changes as they happen, because a booking must be durable before it is
+ * confirmed and rewriting every appointment per booking does not scale.
+ *
+ * File backends append changes to a journal and fold it into a snapshot
+ * when {@link #saveAll} is called; a database backend writes rows in place
+ * and has nothing pending.
+ */
+public interface AppointmentRepository extends Repository<Appointment>, AutoCloseable {
+
+    /** Stored appointments, including every change recorded since the last {@link #saveAll}. */
+    @Override
+    List<Appointment> loadAll();
+
+    /**
+     * Records new appointments as one unit: after a crash either all of them
+     * load or none do. False if they could not be made durable, in which case
+     * none of them is stored and the booking must not be confirmed.
+     */
+    boolean insert(List<Appointment> created);
+
+    /** Records a status change already applied to {@code appointment}; false if it could not be made durable. */
+    boolean updateStatus(Appointment appointment);
+
+    /**
+     * Changes recorded since the last {@link #saveAll}. The appointment store
+     * compacts, by saving the whole set, once this grows; 0 when the backend
+     * updates in place.
+     */
+    int pendingChanges();
+
+    /**
+     * Highest appointment id ever stored, for backends whose {@link #loadAll}
+     * may leave old records on disk; 0 when everything is loaded.
+     */
+    default int highestId() { return 0; }
+
+    /** Releases what this repository holds; the engine's shared resources stay open. */
+    @Override
+    void close();
+}
@@ -0,0 +1,91 @@
+package repository;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import util.AppointmentJournal;
+import util.BinarySnapshot;
+import util.FileManager;
+import util.RecordJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link BinarySnapshot} files. Changes go to journals of their own, so
+ * switching between this and the text backend never replays one's journal
+ * over the other's snapshot. Convert existing text data first with
+ * {@code util.SnapshotConverter}.
+ */
+public final class BinaryStorage implements StorageEngine {
+
+    public static final String NAME = "binary";
+
+    private final JournaledRecords<Doctor> doctors;
+    private final JournaledRecords<Patient> patients;
+    private final AppointmentRepository appointments;
+
+    public BinaryStorage() {
+        this(FileManager.DATA_DIR);
+    }
+
+    /** Storage in {@code dir}, which must end with a separator. */
+    public BinaryStorage(String dir) {
+        this.doctors  = new JournaledRecords<>(repository("doctors", dir + "doctors.bin",
+                BinarySnapshot::loadDoctors, BinarySnapshot::saveDoctors),
+                RecordJournal.doctors(dir + "doctors.bin.journal"));
+        this.patients = new JournaledRecords<>(repository("patients", dir + "patients.bin",
+                BinarySnapshot::loadPatients, BinarySnapshot::savePatients),
+                RecordJournal.patients(dir + "patients.bin.journal"));
+        Repository<Appointment> snapshot = repository("appointments", dir + "appointments.bin",
+                BinarySnapshot::loadAppointments, BinarySnapshot::saveAppointments);
+        this.appointments = new JournaledAppointments(snapshot::loadAll, snapshot::saveAll,
+                new AppointmentJournal(dir + "appointments.bin.journal"));
+    }
+
+    @Override public String name()                        { return NAME; }
+    @Override public Repository<Doctor> doctors()         { return doctors; }
+    @Override public Repository<Patient> patients()       { return patients; }
+    @Override public AppointmentRepository appointments() { return appointments; }
+
+    @Override
+    public void close() {
+        doctors.close();
+        patients.close();
+        appointments.close();
+    }
+
+    // ── Adapting BinarySnapshot's checked exceptions ─────────────────────────
+
+    private interface Load<T> { List<T> load(String path) throws IOException; }
+    private interface Save<T> { void save(List<T> items, String path) throws IOException; }
+
+    // Same contract as FileManager: a missing file is empty, failures are warned about
+    private static <T> Repository<T> repository(String what, String path, Load<T> load, Save<T> save) {
+        return new Repository<>() {
+            @Override
+            public List<T> loadAll() {
+                if (!new File(path).exists()) return new ArrayList<>();
+                try {
+                    return load.load(path);
+                } catch (IOException e) {
+                    System.out.println("  WARNING: Could not load " + what + " -- " + e.getMessage());
+                    return new ArrayList<>();
+                }
+            }
+
+            @Override
+            public boolean saveAll(List<T> items) {
+                try {
+                    save.save(items, path);
+                    return true;
+                } catch (IOException e) {
+                    System.out.println("  WARNING: Could not save " + what + " -- " + e.getMessage());
+                    return false;
+                }
+            }
+        };
+    }
+}
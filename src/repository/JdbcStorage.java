@@ -0,0 +1,430 @@
+package repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import model.Appointment;
+import model.AvailabilityTemplate;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import util.FileManager;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tables in a JDBC database — an embedded H2 file in the data directory by
+ * default — reached through a small HikariCP pool. Whole-set saves are one
+ * transaction of batched PreparedStatements; changed doctors and patients,
+ * bookings and status changes are row writes, so nothing is ever left for
+ * compaction.
+ *
+ * SCHEMA:
+ *   doctors       id, name, specialization, contact, username, password
+ *   doctor_slots  doctor_id, slot_minute, kind  ('S' one-off slot, 'X' rule exception)
+ *   doctor_rules  doctor_id, rule               (AvailabilityTemplate text)
+ *   patients      id, name, age, contact, username, password
+ *   appointments  id, patient_id, patient_name, doctor_id, doctor_name,
+ *                 slot (epoch-minute), reason, status
+ *
+ * As in the text files, expired rules and past exceptions are not written.
+ */
+public final class JdbcStorage implements StorageEngine {
+
+    public static final String NAME         = "jdbc";
+    public static final String URL_PROPERTY = "jdbc.url";
+
+    private static final int POOL_SIZE  = 4;
+    private static final int BATCH_SIZE = 1_000;   // rows per executeBatch()
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS doctors (id INT PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+            + " specialization VARCHAR(255) NOT NULL, contact VARCHAR(64), username VARCHAR(255) NOT NULL,"
+            + " password VARCHAR(255) NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS doctor_slots (doctor_id INT NOT NULL, slot_minute BIGINT NOT NULL,"
+            + " kind CHAR(1) NOT NULL, PRIMARY KEY (doctor_id, kind, slot_minute))",
+        "CREATE TABLE IF NOT EXISTS doctor_rules (doctor_id INT NOT NULL, rule VARCHAR(255) NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS patients (id INT PRIMARY KEY, name VARCHAR(255) NOT NULL, age INT NOT NULL,"
+            + " contact VARCHAR(64), username VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS appointments (id INT PRIMARY KEY, patient_id INT NOT NULL,"
+            + " patient_name VARCHAR(255) NOT NULL, doctor_id INT NOT NULL, doctor_name VARCHAR(255) NOT NULL,"
+            + " slot BIGINT NOT NULL, reason VARCHAR(2000), status VARCHAR(16) NOT NULL)"
+    };
+
+    private static final String INSERT_APPOINTMENT =
+            "INSERT INTO appointments (id, patient_id, patient_name, doctor_id, doctor_name, slot, reason, status)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final HikariDataSource pool;
+    private final Repository<Doctor> doctors = new Doctors();
+    private final Repository<Patient> patients = new Patients();
+    private final AppointmentRepository appointments = new Appointments();
+
+    /** Opens a pool on {@code url} and creates any missing tables. */
+    public JdbcStorage(String url) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setPoolName("das-storage");
+        this.pool = new HikariDataSource(config);
+        try (Connection c = pool.getConnection(); Statement st = c.createStatement()) {
+            for (String ddl : SCHEMA) st.execute(ddl);
+        } catch (SQLException e) {
+            pool.close();
+            throw new IllegalStateException("Could not open storage at " + url + " -- " + e.getMessage(), e);
+        }
+    }
+
+    /** An H2 database file named "das" in the data directory. */
+    public static String defaultUrl() {
+        return "jdbc:h2:" + Path.of(FileManager.DATA_DIR, "das").toAbsolutePath();
+    }
+
+    @Override public String name()                        { return NAME; }
+    @Override public Repository<Doctor> doctors()         { return doctors; }
+    @Override public Repository<Patient> patients()       { return patients; }
+    @Override public AppointmentRepository appointments() { return appointments; }
+
+    @Override
+    public void close() { pool.close(); }
+
+    // ── Doctors ───────────────────────────────────────────────────────────────
+
+    private final class Doctors implements Repository<Doctor> {
+
+        @Override
+        public List<Doctor> loadAll() {
+            return read("doctors", c -> {
+                List<Doctor> list = new ArrayList<>();
+                Map<Integer, Doctor> byId = new HashMap<>();
+                try (Statement st = c.createStatement()) {
+                    try (ResultSet rs = st.executeQuery("SELECT id, name, specialization, contact, username, password"
+                                                        + " FROM doctors ORDER BY id")) {
+                        while (rs.next()) {
+                            Doctor d = new Doctor(rs.getInt(1), rs.getString(2), rs.getString(3),
+                                                  rs.getString(4), rs.getString(5), rs.getString(6));
+                            list.add(d);
+                            byId.put(d.getId(), d);
+                        }
+                    }
+                    // Same order as the text loader: one-off slots, then the rules that may fold them, then exceptions
+                    try (ResultSet rs = st.executeQuery("SELECT doctor_id, slot_minute FROM doctor_slots WHERE kind = 'S'")) {
+                        while (rs.next()) {
+                            Doctor d = byId.get(rs.getInt(1));
+                            if (d != null) d.addOneOffSlotMinute(rs.getLong(2));
+                        }
+                    }
+                    try (ResultSet rs = st.executeQuery("SELECT doctor_id, rule FROM doctor_rules")) {
+                        while (rs.next()) {
+                            Doctor d = byId.get(rs.getInt(1));
+                            if (d == null) continue;
+                            try {
+                                d.addRule(AvailabilityTemplate.parse(rs.getString(2)));
+                            } catch (IllegalArgumentException e) {
+                                System.out.println("  WARNING: Skipping invalid rule '" + rs.getString(2)
+                                        + "' for doctor #" + d.getId());
+                            }
+                        }
+                    }
+                    try (ResultSet rs = st.executeQuery("SELECT doctor_id, slot_minute FROM doctor_slots WHERE kind = 'X'")) {
+                        while (rs.next()) {
+                            Doctor d = byId.get(rs.getInt(1));
+                            if (d != null) d.addExceptionMinute(rs.getLong(2));
+                        }
+                    }
+                }
+                return list;
+            });
+        }
+
+        @Override
+        public boolean saveAll(List<Doctor> items) {
+            return write("doctors", c -> {
+                deleteAll(c, "doctor_slots", "doctor_rules", "doctors");
+                insertRows(c, items);
+            });
+        }
+
+        // A changed doctor's rows are replaced; the other doctors' rows are not touched
+        @Override
+        public boolean saveChanged(List<Doctor> changed, Supplier<List<Doctor>> all) {
+            return write("doctors", c -> {
+                deleteRows(c, changed, Doctor::getId, "doctor_slots.doctor_id", "doctor_rules.doctor_id", "doctors.id");
+                insertRows(c, changed);
+            });
+        }
+
+        private void insertRows(Connection c, List<Doctor> items) throws SQLException {
+            LocalDate today = LocalDate.now();
+            long now = Slot.currentMinute();
+            try (PreparedStatement doc = c.prepareStatement(
+                         "INSERT INTO doctors (id, name, specialization, contact, username, password)"
+                         + " VALUES (?, ?, ?, ?, ?, ?)");
+                 PreparedStatement slot = c.prepareStatement(
+                         "INSERT INTO doctor_slots (doctor_id, slot_minute, kind) VALUES (?, ?, ?)");
+                 PreparedStatement rule = c.prepareStatement(
+                         "INSERT INTO doctor_rules (doctor_id, rule) VALUES (?, ?)")) {
+                Batch docs = new Batch(doc), slots = new Batch(slot), rules = new Batch(rule);
+                for (Doctor d : items) {
+                    doc.setInt(1, d.getId());
+                    doc.setString(2, d.getName());
+                    doc.setString(3, d.getSpecialization());
+                    doc.setString(4, d.getContactNumber());
+                    doc.setString(5, d.getUsername());
+                    doc.setString(6, d.getPassword());
+                    docs.add();
+                    for (long m : d.getOneOffSlotMinutes()) {
+                        slot.setInt(1, d.getId());
+                        slot.setLong(2, m);
+                        slot.setString(3, "S");
+                        slots.add();
+                    }
+                    for (long x : d.getExceptionMinutes().tailSet(now, true)) {
+                        slot.setInt(1, d.getId());
+                        slot.setLong(2, x);
+                        slot.setString(3, "X");
+                        slots.add();
+                    }
+                    for (AvailabilityTemplate r : d.getRules()) {
+                        if (r.getLastDay().isBefore(today)) continue;
+                        rule.setInt(1, d.getId());
+                        rule.setString(2, r.toString());
+                        rules.add();
+                    }
+                }
+                docs.flush();
+                slots.flush();
+                rules.flush();
+            }
+        }
+    }
+
+    // ── Patients ──────────────────────────────────────────────────────────────
+
+    private final class Patients implements Repository<Patient> {
+
+        @Override
+        public List<Patient> loadAll() {
+            return read("patients", c -> {
+                List<Patient> list = new ArrayList<>();
+                try (Statement st = c.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT id, name, age, contact, username, password"
+                                                    + " FROM patients ORDER BY id")) {
+                    while (rs.next())
+                        list.add(new Patient(rs.getInt(1), rs.getString(2), rs.getInt(3),
+                                             rs.getString(4), rs.getString(5), rs.getString(6)));
+                }
+                return list;
+            });
+        }
+
+        @Override
+        public boolean saveAll(List<Patient> items) {
+            return write("patients", c -> {
+                deleteAll(c, "patients");
+                insertRows(c, items);
+            });
+        }
+
+        @Override
+        public boolean saveChanged(List<Patient> changed, Supplier<List<Patient>> all) {
+            return write("patients", c -> {
+                deleteRows(c, changed, Patient::getId, "patients.id");
+                insertRows(c, changed);
+            });
+        }
+
+        private void insertRows(Connection c, List<Patient> items) throws SQLException {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO patients (id, name, age, contact, username, password) VALUES (?, ?, ?, ?, ?, ?)")) {
+                Batch batch = new Batch(ps);
+                for (Patient p : items) {
+                    ps.setInt(1, p.getId());
+                    ps.setString(2, p.getName());
+                    ps.setInt(3, p.getAge());
+                    ps.setString(4, p.getContactNumber());
+                    ps.setString(5, p.getUsername());
+                    ps.setString(6, p.getPassword());
+                    batch.add();
+                }
+                batch.flush();
+            }
+        }
+    }
+
+    // ── Appointments ──────────────────────────────────────────────────────────
+
+    private final class Appointments implements AppointmentRepository {
+
+        @Override
+        public List<Appointment> loadAll() {
+            return read("appointments", c -> {
+                List<Appointment> list = new ArrayList<>();
+                try (Statement st = c.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT id, patient_id, patient_name, doctor_id, doctor_name,"
+                                                    + " slot, reason, status FROM appointments ORDER BY id")) {
+                    while (rs.next()) {
+                        Appointment a = new Appointment(rs.getInt(1), rs.getInt(2), rs.getString(3),
+                                rs.getInt(4), rs.getString(5), Slot.ofEpochMinute(rs.getLong(6)), rs.getString(7));
+                        String status = rs.getString(8);
+                        try {
+                            a.setStatus(Appointment.Status.valueOf(status));
+                        } catch (IllegalArgumentException | NullPointerException e) {
+                            System.out.println("  WARNING: Skipping appointment #" + a.getId()
+                                               + " with invalid status '" + status + "'");
+                            continue;
+                        }
+                        list.add(a);
+                    }
+                }
+                return list;
+            });
+        }
+
+        @Override
+        public boolean saveAll(List<Appointment> items) {
+            return write("appointments", c -> {
+                deleteAll(c, "appointments");
+                insertRows(c, items);
+            });
+        }
+
+        @Override
+        public boolean insert(List<Appointment> created) {
+            return write("appointments", c -> insertRows(c, created));
+        }
+
+        @Override
+        public boolean updateStatus(Appointment appointment) {
+            return write("appointments", c -> {
+                try (PreparedStatement ps = c.prepareStatement("UPDATE appointments SET status = ? WHERE id = ?")) {
+                    ps.setString(1, appointment.getStatus().name());
+                    ps.setInt(2, appointment.getId());
+                    if (ps.executeUpdate() == 0)
+                        throw new SQLException("appointment #" + appointment.getId() + " is not stored");
+                }
+            });
+        }
+
+        @Override
+        public int pendingChanges() { return 0; }
+
+        // The pool belongs to the engine, which doctors and patients still need
+        @Override
+        public void close() { }
+
+        private void insertRows(Connection c, List<Appointment> rows) throws SQLException {
+            try (PreparedStatement ps = c.prepareStatement(INSERT_APPOINTMENT)) {
+                Batch batch = new Batch(ps);
+                for (Appointment a : rows) {
+                    ps.setInt(1, a.getId());
+                    ps.setInt(2, a.getPatientId());
+                    ps.setString(3, a.getPatientName());
+                    ps.setInt(4, a.getDoctorId());
+                    ps.setString(5, a.getDoctorName());
+                    ps.setLong(6, a.getSlotTime().epochMinute());
+                    ps.setString(7, a.getReason());
+                    ps.setString(8, a.getStatus().name());
+                    batch.add();
+                }
+                batch.flush();
+            }
+        }
+    }
+
+    // ── Plumbing ──────────────────────────────────────────────────────────────
+
+    private interface Query<T> { T run(Connection c) throws SQLException; }
+    private interface Update   { void run(Connection c) throws SQLException; }
+
+    // Failures are warned about and read as empty, like a missing data file
+    private <T> List<T> read(String what, Query<List<T>> query) {
+        try (Connection c = pool.getConnection()) {
+            return query.run(c);
+        } catch (SQLException e) {
+            System.out.println("  WARNING: Could not load " + what + " -- " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // One transaction; on any failure it is rolled back so the stored rows stay as they were
+    private boolean write(String what, Update update) {
+        try (Connection c = pool.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                update.run(c);
+                c.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                rollback(c, e);
+                System.out.println("  WARNING: Could not save " + what + " -- " + e);
+                return false;
+            }
+        } catch (SQLException e) {
+            System.out.println("  WARNING: Could not save " + what + " -- " + e.getMessage());
+            return false;
+        }
+    }
+
+    // A rollback that fails too is kept on the original failure instead of replacing it
+    private static void rollback(Connection c, Exception cause) {
+        try {
+            c.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void deleteAll(Connection c, String... tables) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            for (String t : tables) st.executeUpdate("DELETE FROM " + t);
+        }
+    }
+
+    // Deletes the rows of each item from every "table.column" given, one batch per table
+    private static <T> void deleteRows(Connection c, List<T> items, ToIntFunction<T> id,
+                                       String... columns) throws SQLException {
+        for (String column : columns) {
+            int dot = column.indexOf('.');
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM " + column.substring(0, dot)
+                    + " WHERE " + column.substring(dot + 1) + " = ?")) {
+                Batch batch = new Batch(ps);
+                for (T item : items) {
+                    ps.setInt(1, id.applyAsInt(item));
+                    batch.add();
+                }
+                batch.flush();
+            }
+        }
+    }
+
+    // addBatch() with an executeBatch() every BATCH_SIZE rows, so large saves stay bounded in memory
+    private static final class Batch {
+        private final PreparedStatement ps;
+        private int pending;
+
+        Batch(PreparedStatement ps) { this.ps = ps; }
+
+        void add() throws SQLException {
+            ps.addBatch();
+            if (++pending == BATCH_SIZE) flush();
+        }
+
+        void flush() throws SQLException {
+            if (pending == 0) return;
+            ps.executeBatch();
+            pending = 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package repository;
+
+import model.Appointment;
+import util.AppointmentJournal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Snapshot plus journal, the scheme both file backends use: changes are
+ * appended and fsynced, loads replay the journal over the last snapshot, and
+ * {@link #saveAll} writes a fresh snapshot and empties the journal.
+ */
+final class JournaledAppointments implements AppointmentRepository {
+
+    private final Supplier<List<Appointment>> loadSnapshot;
+    private final Predicate<List<Appointment>> saveSnapshot;
+    private final AppointmentJournal journal;
+
+    JournaledAppointments(Supplier<List<Appointment>> loadSnapshot,
+                          Predicate<List<Appointment>> saveSnapshot, AppointmentJournal journal) {
+        this.loadSnapshot = loadSnapshot;
+        this.saveSnapshot = saveSnapshot;
+        this.journal      = journal;
+    }
+
+    @Override
+    public List<Appointment> loadAll() {
+        Map<Integer, Appointment> loaded = new LinkedHashMap<>();
+        for (Appointment a : loadSnapshot.get()) loaded.put(a.getId(), a);
+        journal.replay(loaded);
+        return new ArrayList<>(loaded.values());
+    }
+
+    @Override
+    public boolean saveAll(List<Appointment> items) {
+        // Keep the journal if the snapshot write failed — it is still the only copy
+        if (!saveSnapshot.test(items)) return false;
+        journal.reset();
+        return true;
+    }
+
+    @Override
+    public boolean insert(List<Appointment> created) {
+        return created.size() == 1 ? journal.appendCreated(created.get(0)) : journal.appendCreated(created);
+    }
+
+    @Override
+    public boolean updateStatus(Appointment appointment) { return journal.appendStatus(appointment); }
+
+    @Override
+    public int pendingChanges() { return journal.size(); }
+
+    @Override
+    public void close() { journal.close(); }
+}
@@ -0,0 +1,47 @@
+package repository;
+
+import util.RecordJournal;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A snapshot file plus a {@link RecordJournal}: changed records are appended
+ * and fsynced, loads lay the journal over the snapshot, and once the journal
+ * holds {@link #COMPACT_THRESHOLD} records the next save folds it into a fresh
+ * snapshot. Both file backends store doctors and patients this way.
+ */
+final class JournaledRecords<T> implements Repository<T> {
+
+    static final int COMPACT_THRESHOLD = 1_000;
+
+    private final Repository<T> snapshot;
+    private final RecordJournal<T> journal;
+
+    JournaledRecords(Repository<T> snapshot, RecordJournal<T> journal) {
+        this.snapshot = snapshot;
+        this.journal  = journal;
+    }
+
+    @Override
+    public List<T> loadAll() {
+        return journal.replay(snapshot.loadAll());
+    }
+
+    @Override
+    public boolean saveAll(List<T> items) {
+        // Keep the journal if the snapshot write failed — it is still the only copy
+        if (!snapshot.saveAll(items)) return false;
+        journal.reset();
+        return true;
+    }
+
+    @Override
+    public boolean saveChanged(List<T> changed, Supplier<List<T>> all) {
+        if (!journal.append(changed)) return false;
+        if (journal.size() >= COMPACT_THRESHOLD) saveAll(all.get());
+        return true;
+    }
+
+    void close() { journal.close(); }
+}
@@ -0,0 +1,32 @@
+package repository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Whole-collection storage for one kind of record. The services keep every
+ * record in memory, so a backend only has to load, replace, and — to keep
+ * the cost of a single edit independent of the collection's size — store
+ * just the records that changed.
+ */
+public interface Repository<T> {
+
+    /** Every stored record; empty if nothing has been saved yet. */
+    List<T> loadAll();
+
+    /**
+     * Replaces the stored records with {@code items}. Returns false if the
+     * write failed, in which case the previous contents are left intact.
+     */
+    boolean saveAll(List<T> items);
+
+    /**
+     * Stores the current state of {@code changed}, records that are new or
+     * were modified since they were last saved. {@code all} supplies the full
+     * list when the backend needs it (to compact, or because it can only
+     * replace); by default this is a {@link #saveAll}.
+     */
+    default boolean saveChanged(List<T> changed, Supplier<List<T>> all) {
+        return saveAll(all.get());
+    }
+}
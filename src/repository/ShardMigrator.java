@@ -0,0 +1,65 @@
+package repository;
+
+import model.Appointment;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies the single-file appointments (data/appointments.txt plus its
+ * journal) into the sharded layout under data/appointments/. The old files
+ * are left in place; start with {@code -Dstorage=sharded} afterwards.
+ *
+ *   java -cp out repository.ShardMigrator
+ */
+public class ShardMigrator {
+
+    public static void main(String[] args) {
+        String[] existing = new File(ShardedStorage.DIR).list();
+        if (existing != null && existing.length > 0) {
+            System.out.println("  ERROR: " + ShardedStorage.DIR + " already holds sharded data.");
+            return;
+        }
+        System.out.println("  Migrating appointments to " + ShardedStorage.DIR + " ...");
+        long start = System.nanoTime();
+        TextStorage text = new TextStorage();
+        try {
+            int copied = migrate(text.appointments(), ShardedStorage.DIR);
+            if (copied < 0) return;
+            System.out.println("  SUCCESS: " + copied + " appointment(s) migrated in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } finally {
+            text.close();
+        }
+    }
+
+    /**
+     * Writes everything {@code source} loads into a sharded layout in
+     * {@code dir} and reads it back to check nothing was lost. Returns the
+     * number copied, or -1 if the copy failed or does not match.
+     */
+    static int migrate(AppointmentRepository source, String dir) {
+        List<Appointment> all = source.loadAll();
+        ShardedAppointments target = new ShardedAppointments(dir, 0);
+        try {
+            if (!target.saveAll(all)) {
+                System.out.println("  ERROR: Could not write every partition; the old files are unchanged.");
+                return -1;
+            }
+            Set<Integer> ids = new HashSet<>();
+            for (Appointment a : all) ids.add(a.getId());
+            List<Appointment> copied = target.loadAll();
+            for (Appointment a : copied) ids.remove(a.getId());
+            if (copied.size() != all.size() || !ids.isEmpty()) {
+                System.out.println("  ERROR: Read back " + copied.size() + " of " + all.size()
+                        + " appointment(s); the old files are unchanged.");
+                return -1;
+            }
+            return all.size();
+        } finally {
+            target.close();
+        }
+    }
+}
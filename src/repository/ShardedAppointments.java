@@ -0,0 +1,266 @@
+package repository;
+
+import model.Appointment;
+import util.AppointmentJournal;
+import util.FileManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appointments partitioned by doctor and by the month of their slot:
+ *
+ *   dir/<doctorId>/<yyyy-MM>.txt   one doctor's month, in FileManager's format
+ *   dir/<doctorId>/journal         that doctor's changes since its months were last written
+ *   dir/journal                    batches that span doctors, so they stay all-or-nothing
+ *   dir/last-id                    highest id written, since old months may stay on disk
+ *
+ * Bookings for different doctors append to different journals and never wait
+ * on each other's fsync, and compaction rewrites only the months of doctors
+ * that changed. With a window of {@code months}, only the current month, the
+ * ones before it inside the window and everything later are loaded — except
+ * for a doctor whose journal still holds changes, who is loaded in full so
+ * replay never misses the appointment a change refers to.
+ */
+final class ShardedAppointments implements AppointmentRepository {
+
+    private static final String JOURNAL = "journal";
+    private static final String LAST_ID = "last-id";
+    private static final String SUFFIX  = ".txt";
+
+    private final String dir;
+    private final int months;                       // 0 loads every month
+    private final AppointmentJournal shared;
+    private final Map<Integer, AppointmentJournal> journals = new ConcurrentHashMap<>();
+    // Doctors with journal records that are not in their month files yet
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private volatile int lastId;
+    // Set by loadAll: from then on a doctor without journalled changes has
+    // exactly the loaded records in its files
+    private volatile boolean loaded;
+
+    /** {@code dir} must end with a separator. */
+    ShardedAppointments(String dir, int months) {
+        this.dir    = dir;
+        this.months = months;
+        new File(dir).mkdirs();
+        this.shared = new AppointmentJournal(dir + JOURNAL);
+    }
+
+    // ── Loading ───────────────────────────────────────────────────────────────
+
+    @Override
+    public List<Appointment> loadAll() {
+        YearMonth oldest = months > 0 ? YearMonth.now().minusMonths(months - 1) : null;
+        List<String> paths = new ArrayList<>();
+        List<Integer> journalled = new ArrayList<>();
+        for (int doctorId : doctorIds()) {
+            boolean pending = hasJournal(doctorId);
+            if (pending) journalled.add(doctorId);
+            for (YearMonth month : monthsOf(doctorId))
+                if (pending || oldest == null || !month.isBefore(oldest)) paths.add(partition(doctorId, month));
+        }
+        // Independent files, so they are read in parallel; the list keeps their order
+        Map<Integer, Appointment> loaded = new LinkedHashMap<>();
+        for (List<Appointment> part : paths.parallelStream().map(FileManager::loadAppointments).toList())
+            for (Appointment a : part) loaded.put(a.getId(), a);
+
+        // Cross-doctor batches first: a doctor's journal may change their status later
+        Map<Integer, Appointment> batches = new HashMap<>();
+        shared.replay(batches);
+        for (Appointment a : batches.values()) dirty.add(a.getDoctorId());
+        loaded.putAll(batches);
+        for (int doctorId : journalled) {
+            journal(doctorId).replay(loaded);
+            dirty.add(doctorId);
+        }
+
+        int max = readLastId();
+        for (int id : loaded.keySet()) max = Math.max(max, id);
+        lastId = max;
+        this.loaded = true;
+        return new ArrayList<>(loaded.values());
+    }
+
+    /**
+     * One doctor's appointments with slots in {@code from}..{@code to}, read
+     * from just those months' files — as of the last compaction, so use it
+     * for months that are not loaded.
+     */
+    List<Appointment> loadDoctor(int doctorId, YearMonth from, YearMonth to) {
+        List<Appointment> found = new ArrayList<>();
+        for (YearMonth month : monthsOf(doctorId))
+            if (!month.isBefore(from) && !month.isAfter(to))
+                found.addAll(FileManager.loadAppointments(partition(doctorId, month)));
+        return found;
+    }
+
+    @Override
+    public int highestId() { return lastId; }
+
+    // ── Recording changes ─────────────────────────────────────────────────────
+
+    @Override
+    public boolean insert(List<Appointment> created) {
+        if (created.isEmpty()) return true;
+        int doctorId = created.get(0).getDoctorId();
+        boolean oneDoctor = created.stream().allMatch(a -> a.getDoctorId() == doctorId);
+        AppointmentJournal journal = oneDoctor ? journal(doctorId) : shared;
+        for (Appointment a : created) dirty.add(a.getDoctorId());
+        return created.size() == 1 ? journal.appendCreated(created.get(0)) : journal.appendCreated(created);
+    }
+
+    @Override
+    public boolean updateStatus(Appointment appointment) {
+        dirty.add(appointment.getDoctorId());
+        return journal(appointment.getDoctorId()).appendStatus(appointment);
+    }
+
+    @Override
+    public int pendingChanges() {
+        int pending = shared.size();
+        for (AppointmentJournal j : journals.values()) pending += j.size();
+        return pending;
+    }
+
+    // ── Compaction ────────────────────────────────────────────────────────────
+
+    /**
+     * After {@link #loadAll}, compacts: writes the months of every changed
+     * doctor and any month not on disk yet, since a doctor with no journalled
+     * changes already has exactly these records in its files. Before it, the
+     * whole layout is replaced. Like the journals, this relies on no change
+     * being recorded while it runs.
+     */
+    @Override
+    public boolean saveAll(List<Appointment> items) {
+        boolean replace = !loaded;
+        Map<String, List<Appointment>> partitions = new HashMap<>();
+        int max = lastId;
+        for (Appointment a : items) {
+            max = Math.max(max, a.getId());
+            partitions.computeIfAbsent(partition(a.getDoctorId(), YearMonth.from(a.getSlotTime().toLocalDateTime())),
+                    p -> new ArrayList<>()).add(a);
+        }
+        if (!replace)
+            partitions.entrySet().removeIf(e -> !dirty.contains(e.getValue().get(0).getDoctorId())
+                                                && new File(e.getKey()).exists());
+        for (String path : partitions.keySet()) new File(path).getParentFile().mkdirs();
+
+        // Independent files, so they are written in parallel
+        long failed = partitions.entrySet().parallelStream()
+                .filter(e -> !FileManager.saveAppointments(e.getValue(), e.getKey()))
+                .count();
+        // Keep the journals if any month failed — they are still the only copy
+        if (failed > 0 || !writeLastId(max)) return false;
+        lastId = max;
+
+        // The shared journal goes first: replayed without the doctors' journals it
+        // would put back the status its bookings had when they were made
+        shared.reset();
+        for (int doctorId : replace ? doctorIds() : dirty.stream().mapToInt(Integer::intValue).toArray())
+            if (journals.containsKey(doctorId) || hasJournal(doctorId)) journal(doctorId).reset();
+        dirty.clear();
+        if (replace) deleteOtherMonths(partitions.keySet());
+        return true;
+    }
+
+    // Months left from before a replace that the new records do not cover
+    private void deleteOtherMonths(Set<String> written) {
+        for (int doctorId : doctorIds())
+            for (YearMonth month : monthsOf(doctorId)) {
+                String path = partition(doctorId, month);
+                if (!written.contains(path)) new File(path).delete();
+            }
+    }
+
+    @Override
+    public void close() {
+        shared.close();
+        for (AppointmentJournal j : journals.values()) j.close();
+    }
+
+    // ── Layout ────────────────────────────────────────────────────────────────
+
+    private String doctorDir(int doctorId) {
+        return dir + doctorId + File.separator;
+    }
+
+    private String partition(int doctorId, YearMonth month) {
+        return doctorDir(doctorId) + month + SUFFIX;
+    }
+
+    private boolean hasJournal(int doctorId) {
+        return new File(doctorDir(doctorId) + JOURNAL).length() > 0;
+    }
+
+    private AppointmentJournal journal(int doctorId) {
+        return journals.computeIfAbsent(doctorId, id -> {
+            new File(doctorDir(id)).mkdirs();
+            return new AppointmentJournal(doctorDir(id) + JOURNAL);
+        });
+    }
+
+    // Directories whose name is not a doctor id are not ours and are skipped
+    private int[] doctorIds() {
+        String[] names = new File(dir).list();
+        if (names == null) return new int[0];
+        return Arrays.stream(names)
+                .filter(n -> !n.isEmpty() && n.chars().allMatch(Character::isDigit))
+                .filter(n -> new File(dir + n).isDirectory())
+                .mapToInt(Integer::parseInt)
+                .sorted()
+                .toArray();
+    }
+
+    private List<YearMonth> monthsOf(int doctorId) {
+        String[] names = new File(doctorDir(doctorId)).list();
+        List<YearMonth> found = new ArrayList<>();
+        if (names == null) return found;
+        for (String name : names) {
+            if (!name.endsWith(SUFFIX)) continue;
+            try {
+                found.add(YearMonth.parse(name.substring(0, name.length() - SUFFIX.length())));
+            } catch (DateTimeParseException e) {
+                // Not a partition
+            }
+        }
+        found.sort(null);
+        return found;
+    }
+
+    private int readLastId() {
+        try {
+            return Integer.parseInt(Files.readString(Path.of(dir + LAST_ID), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private boolean writeLastId(int id) {
+        Path target = Path.of(dir + LAST_ID);
+        Path tmp    = Path.of(dir + LAST_ID + ".tmp");
+        try {
+            Files.writeString(tmp, id + "\n", StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.out.println("  WARNING: Could not save " + target + " -- " + e.getMessage());
+            return false;
+        }
+    }
+}
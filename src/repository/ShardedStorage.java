@@ -0,0 +1,55 @@
+package repository;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import util.FileManager;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Appointments partitioned by doctor and month under data/appointments/ (see
+ * {@link ShardedAppointments}); doctors and patients stay in the text files.
+ * Move existing appointments over with {@link ShardMigrator}.
+ *
+ *   java -Dstorage=sharded -Dsharded.months=12 -cp out main.Main
+ */
+public final class ShardedStorage implements StorageEngine {
+
+    public static final String NAME            = "sharded";
+    public static final String MONTHS_PROPERTY = "sharded.months";
+    public static final String DIR             = FileManager.DATA_DIR + "appointments/";
+
+    private final TextStorage text = new TextStorage();
+    private final ShardedAppointments appointments;
+
+    /** Loads the months set by {@code -Dsharded.months}, every month if unset. */
+    public ShardedStorage() {
+        this(DIR, Integer.getInteger(MONTHS_PROPERTY, 0));
+    }
+
+    /**
+     * Appointments in {@code dir}, which must end with a separator. Months
+     * before the last {@code months} are left on disk; 0 loads them all.
+     */
+    public ShardedStorage(String dir, int months) {
+        this.appointments = new ShardedAppointments(dir, months);
+    }
+
+    @Override public String name()                        { return NAME; }
+    @Override public Repository<Doctor> doctors()         { return text.doctors(); }
+    @Override public Repository<Patient> patients()       { return text.patients(); }
+    @Override public AppointmentRepository appointments() { return appointments; }
+
+    /** One doctor's appointments in {@code from}..{@code to}, read from just those months. */
+    public List<Appointment> history(int doctorId, YearMonth from, YearMonth to) {
+        return appointments.loadDoctor(doctorId, from, to);
+    }
+
+    @Override
+    public void close() {
+        appointments.close();
+        text.close();
+    }
+}
@@ -0,0 +1,52 @@
+package repository;
+
+import model.Doctor;
+import model.Patient;
+
+import java.util.Locale;
+
+/**
+ * One storage backend: a repository per record type plus whatever they share
+ * (a connection pool, a data directory). Chosen once at startup:
+ *
+ *   text    pipe-delimited files plus an appointment journal (default)
+ *   binary  BinarySnapshot files plus an appointment journal
+ *   jdbc    tables in an embedded H2 database, through a small HikariCP pool
+ *   sharded text files, with appointments split by doctor and month
+ *
+ *   java -Dstorage=binary -cp out main.Main
+ *   java -Dstorage=jdbc -Djdbc.url=jdbc:h2:./data/das -cp ... main.Main
+ */
+public interface StorageEngine extends AutoCloseable {
+
+    String SYSTEM_PROPERTY = "storage";
+
+    /** The name it is selected by, e.g. "text". */
+    String name();
+
+    Repository<Doctor> doctors();
+
+    Repository<Patient> patients();
+
+    AppointmentRepository appointments();
+
+    @Override
+    void close();
+
+    /** @throws IllegalArgumentException for an unknown backend name */
+    static StorageEngine open(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case TextStorage.NAME    -> new TextStorage();
+            case BinaryStorage.NAME  -> new BinaryStorage();
+            case JdbcStorage.NAME    -> new JdbcStorage(System.getProperty(JdbcStorage.URL_PROPERTY, JdbcStorage.defaultUrl()));
+            case ShardedStorage.NAME -> new ShardedStorage();
+            default -> throw new IllegalArgumentException(
+                    "Unknown storage '" + name + "'. Use text, binary, jdbc or sharded.");
+        };
+    }
+
+    /** The backend named by {@code -Dstorage}, text if unset. */
+    static StorageEngine fromSystemProperty() {
+        return open(System.getProperty(SYSTEM_PROPERTY, TextStorage.NAME));
+    }
+}
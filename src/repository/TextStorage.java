@@ -0,0 +1,43 @@
+package repository;
+
+import model.Doctor;
+import model.Patient;
+import util.AppointmentJournal;
+import util.FileManager;
+import util.RecordJournal;
+
+import java.util.List;
+
+/**
+ * The pipe-delimited files in the data directory; see {@link FileManager}.
+ * Each file has a journal of changes since it was last rewritten.
+ */
+public final class TextStorage implements StorageEngine {
+
+    public static final String NAME = "text";
+
+    private final JournaledRecords<Doctor> doctors = new JournaledRecords<>(new Repository<>() {
+        @Override public List<Doctor> loadAll()             { return FileManager.loadDoctors(); }
+        @Override public boolean saveAll(List<Doctor> list) { return FileManager.saveDoctors(list); }
+    }, RecordJournal.doctors());
+
+    private final JournaledRecords<Patient> patients = new JournaledRecords<>(new Repository<>() {
+        @Override public List<Patient> loadAll()             { return FileManager.loadPatients(); }
+        @Override public boolean saveAll(List<Patient> list) { return FileManager.savePatients(list); }
+    }, RecordJournal.patients());
+
+    private final AppointmentRepository appointments = new JournaledAppointments(
+            FileManager::loadAppointments, FileManager::saveAppointments, new AppointmentJournal());
+
+    @Override public String name()                        { return NAME; }
+    @Override public Repository<Doctor> doctors()         { return doctors; }
+    @Override public Repository<Patient> patients()       { return patients; }
+    @Override public AppointmentRepository appointments() { return appointments; }
+
+    @Override
+    public void close() {
+        doctors.close();
+        patients.close();
+        appointments.close();
+    }
+}
@@ -3,65 +3,342 @@ package service;
 import model.Appointment;
 import model.Doctor;
 import model.Patient;
-import util.FileManager;
+import model.Slot;
+import repository.AppointmentRepository;
+import repository.TextStorage;
+import util.LatencyHistogram;
+import util.Metrics;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Thread-safe appointment store. Reads are lock-free; writers only share the
+ * repository's change log (the journal, for file storage). Compaction takes
+ * the write side of {@code snapshotLock} so no change can slip in between
+ * writing the snapshot and emptying the log.
+ */
 public class AppointmentManager {
 
-    private final List<Appointment> appointments;
-    private int nextId = 1;
+    // Pending changes tolerated before the compactor folds them into the snapshot
+    private static final int  COMPACT_THRESHOLD     = 500;
+    private static final long COMPACT_INTERVAL_SECS = 30;
+    private static final int  PATIENT_LOCK_STRIPES  = 64;   // power of two
 
+    private static final LatencyHistogram PATIENT_LOOKUP = lookup("patient");
+    private static final LatencyHistogram DOCTOR_LOOKUP  = lookup("doctor_calendar");
+    private static final LatencyHistogram PAGE_LOOKUP    = lookup("query_page");
+
+    private static LatencyHistogram lookup(String index) {
+        return Metrics.histogram("das_lookup_seconds", "Index lookups and queries", "index", index);
+    }
+
+    // Ordered by id, which is also the snapshot order
+    private final ConcurrentSkipListMap<Integer, Appointment> byId = new ConcurrentSkipListMap<>();
+
+    // ── Secondary indexes — kept in step with byId by index()/reindexStatus()
+    // Per patient / per doctor, ordered by AppointmentQuery.key (slot, then id)
+    private final Map<Integer, ConcurrentNavigableMap<Long, Appointment>> byPatient = new ConcurrentHashMap<>();
+    private final Map<Integer, ConcurrentNavigableMap<Long, Appointment>> byDoctor  = new ConcurrentHashMap<>();
+    private final Map<Long, Appointment> scheduledSlot = new ConcurrentHashMap<>();
+    private final DoctorCalendar calendar = new DoctorCalendar();
+
+    private final Lock[] patientLocks = new Lock[PATIENT_LOCK_STRIPES];
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final AppointmentRepository repository;
+    private final ScheduledExecutorService compactor;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    /** The store over the text files in the data directory. */
     public AppointmentManager() {
-        this.appointments = FileManager.loadAppointments();
-        for (Appointment a : appointments)
-            if (a.getId() >= nextId) nextId = a.getId() + 1;
-        if (!appointments.isEmpty())
-            System.out.println("  INFO: Loaded " + appointments.size() + " appointment(s) from file.");
+        this(new TextStorage().appointments());
+    }
+
+    public AppointmentManager(AppointmentRepository repository) {
+        this(repository.loadAll(), repository);
+    }
+
+    /**
+     * Builds the store over appointments already loaded from {@code repository}
+     * (snapshot plus journal tail), which then records every change.
+     */
+    public AppointmentManager(List<Appointment> loaded, AppointmentRepository repository) {
+        this.repository = repository;
+        // Ids of appointments the repository left on disk must not be reused
+        int maxId = repository.highestId();
+        for (Appointment a : loaded) {
+            index(a);
+            maxId = Math.max(maxId, a.getId());
+        }
+        nextId.set(maxId + 1);
+        for (int i = 0; i < patientLocks.length; i++) patientLocks[i] = new ReentrantLock();
+        if (!byId.isEmpty())
+            System.out.println("  INFO: Loaded " + byId.size() + " appointment(s) from file.");
+
+        if (repository.pendingChanges() >= COMPACT_THRESHOLD) compact();
+        this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "appointment-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded,
+                COMPACT_INTERVAL_SECS, COMPACT_INTERVAL_SECS, TimeUnit.SECONDS);
+    }
+
+    public Appointment createAppointment(Patient patient, Doctor doctor,
+                                         String slot, String reason) {
+        return createAppointment(patient, doctor, Slot.parse(slot), reason);
     }
 
+    /** The new appointment, or null if the repository could not make it durable. */
     public Appointment createAppointment(Patient patient, Doctor doctor,
-                                          String slot, String reason) {
+                                         Slot slot, String reason) {
         Appointment appt = new Appointment(
-                nextId++,
+                nextId.getAndIncrement(),
                 patient.getId(), patient.getName(),
                 doctor.getId(),  doctor.getName(),
                 slot, reason
         );
-        appointments.add(appt);
-        FileManager.saveAppointments(appointments);
+        snapshotLock.readLock().lock();
+        try {
+            // Indexed only once durable, so a failed write leaves nothing behind
+            if (!repository.insert(List.of(appt))) return null;
+            index(appt);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
         return appt;
     }
 
-    public void persistCancellation() {
-        FileManager.saveAppointments(appointments);
+    /**
+     * Creates every appointment of a batch whose slots are already claimed,
+     * and journals them as one unit with a single fsync. Null if that write
+     * failed, in which case none of them exists.
+     */
+    public List<Appointment> createAppointments(List<BookingRequest> requests) {
+        List<Appointment> created = new ArrayList<>(requests.size());
+        for (BookingRequest r : requests) {
+            created.add(new Appointment(
+                    nextId.getAndIncrement(),
+                    r.patient().getId(), r.patient().getName(),
+                    r.doctor().getId(),  r.doctor().getName(),
+                    r.slot(), r.reason()));
+        }
+        snapshotLock.readLock().lock();
+        try {
+            if (!repository.insert(created)) return null;
+            for (Appointment a : created) index(a);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        return created;
     }
 
+    /**
+     * Records a status transition (cancel or complete) already applied to
+     * {@code appt}. False if it could not be made durable; the indexes are
+     * then untouched and the caller puts the old status back.
+     */
+    public boolean persistStatusChange(Appointment appt) {
+        snapshotLock.readLock().lock();
+        try {
+            if (!repository.updateStatus(appt)) return false;
+            reindexStatus(appt);
+            return true;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /** Completes a SCHEDULED appointment; false, with the appointment still SCHEDULED, if that could not be saved. */
+    public boolean complete(Appointment appt) {
+        appt.complete();
+        if (persistStatusChange(appt)) return true;
+        appt.setStatus(Appointment.Status.SCHEDULED);
+        return false;
+    }
+
+    /**
+     * Lock guarding the check-then-act of a patient's conflict check and booking.
+     * Striped, so patients only contend when they hash to the same stripe.
+     */
+    public Lock patientLock(int patientId) {
+        return patientLocks[patientId & (PATIENT_LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * The distinct stripes covering {@code patientIds}, in stripe order. Taking
+     * them in this order from every caller is what keeps batches deadlock-free.
+     */
+    public List<Lock> patientLocks(Collection<Integer> patientIds) {
+        BitSet stripes = new BitSet(PATIENT_LOCK_STRIPES);
+        for (int id : patientIds) stripes.set(id & (PATIENT_LOCK_STRIPES - 1));
+        List<Lock> locks = new ArrayList<>(stripes.cardinality());
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) locks.add(patientLocks[i]);
+        return locks;
+    }
+
+    // ── Indexing ──────────────────────────────────────────────────────────────
+
+    private void index(Appointment a) {
+        byId.put(a.getId(), a);
+        long key = AppointmentQuery.key(a);
+        byPatient.computeIfAbsent(a.getPatientId(), k -> new ConcurrentSkipListMap<>()).put(key, a);
+        byDoctor.computeIfAbsent(a.getDoctorId(), k -> new ConcurrentSkipListMap<>()).put(key, a);
+        reindexStatus(a);
+    }
+
+    // Only SCHEDULED appointments can conflict or fill a calendar, so these track just those
+    private void reindexStatus(Appointment a) {
+        Long key = slotKey(a.getPatientId(), a.getSlotTime());
+        if (a.getStatus() == Appointment.Status.SCHEDULED) {
+            scheduledSlot.put(key, a);
+            calendar.add(a);
+        } else {
+            scheduledSlot.remove(key, a);
+            calendar.remove(a);
+        }
+    }
+
+    // Patient id in the high half, slot epoch-minute in the low half
+    private static Long slotKey(int patientId, Slot slot) {
+        return ((long) patientId << 32) | (slot.epochMinute() & 0xFFFFFFFFL);
+    }
+
+    // ── Compaction ────────────────────────────────────────────────────────────
+
+    /** Folds pending changes into a fresh snapshot; the repository empties its log only if that succeeds. */
+    public void compact() {
+        snapshotLock.writeLock().lock();
+        try {
+            if (repository.pendingChanges() > 0) repository.saveAll(new ArrayList<>(byId.values()));
+            calendar.prune();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (repository.pendingChanges() >= COMPACT_THRESHOLD) compact();
+    }
+
+    public void close() {
+        compactor.shutdownNow();
+        if (repository.pendingChanges() > 0) compact();
+        repository.close();
+    }
+
+    // ── Lookup ────────────────────────────────────────────────────────────────
+
     public Optional<Appointment> findById(int id) {
-        return appointments.stream().filter(a -> a.getId() == id).findFirst();
+        return Optional.ofNullable(byId.get(id));
     }
 
+    /** Every appointment of the patient, ordered by slot. */
     public List<Appointment> getByPatient(int patientId) {
-        List<Appointment> result = new ArrayList<>();
-        for (Appointment a : appointments)
-            if (a.getPatientId() == patientId) result.add(a);
+        long start = System.nanoTime();
+        NavigableMap<Long, Appointment> index = byPatient.get(patientId);
+        List<Appointment> result = index == null ? new ArrayList<>() : new ArrayList<>(index.values());
+        PATIENT_LOOKUP.recordSince(start);
         return result;
     }
 
+    /** The doctor's SCHEDULED appointments, ordered by slot. */
     public List<Appointment> getByDoctor(int doctorId) {
-        List<Appointment> result = new ArrayList<>();
-        for (Appointment a : appointments)
-            if (a.getDoctorId() == doctorId && a.getStatus() == Appointment.Status.SCHEDULED)
-                result.add(a);
+        return getByDoctorBetween(doctorId, null, null);
+    }
+
+    /** The doctor's SCHEDULED appointments with a slot in {@code [from, to)}, ordered by slot. */
+    public List<Appointment> getByDoctorBetween(int doctorId, Slot from, Slot to) {
+        long start = System.nanoTime();
+        List<Appointment> result = calendar.between(doctorId, from, to);
+        DOCTOR_LOOKUP.recordSince(start);
         return result;
     }
 
+    /** The doctor's SCHEDULED appointments over {@code days} days starting at {@code first}. */
+    public List<Appointment> getByDoctorForDays(int doctorId, LocalDate first, int days) {
+        long start = first.toEpochDay() * Slot.MINUTES_PER_DAY;
+        return getByDoctorBetween(doctorId, Slot.ofEpochMinute(start),
+                                  Slot.ofEpochMinute(start + (long) days * Slot.MINUTES_PER_DAY));
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /**
+     * Lazily evaluated, slot-ordered results of {@code query}, after its offset
+     * and up to its limit. Backed by a live view of the index — nothing is
+     * copied, and rows past the limit are never visited.
+     */
+    public Stream<Appointment> stream(AppointmentQuery query) {
+        return matching(query).limit(query.limit);
+    }
+
+    /** One page of {@code query}, with the cursor for the next page if there is one. */
+    public AppointmentQuery.Page page(AppointmentQuery query) {
+        long start = System.nanoTime();
+        // Read one row past the limit to learn whether another page exists
+        List<Appointment> rows = matching(query).limit(query.limit + 1L).collect(Collectors.toList());
+        PAGE_LOOKUP.recordSince(start);
+        if (rows.size() <= query.limit) return new AppointmentQuery.Page(rows, null);
+        rows.remove(rows.size() - 1);
+        Appointment last = rows.get(rows.size() - 1);
+        return new AppointmentQuery.Page(rows, AppointmentQuery.encodeCursor(AppointmentQuery.key(last)));
+    }
+
+    private Stream<Appointment> matching(AppointmentQuery q) {
+        ConcurrentNavigableMap<Long, Appointment> view =
+                (q.owner == AppointmentQuery.Owner.PATIENT ? byPatient : byDoctor).get(q.ownerId);
+        if (view == null) return Stream.empty();
+
+        // Slot bounds as keys: id 0 is the lowest key within a slot
+        long lo = q.from == null ? Long.MIN_VALUE : AppointmentQuery.key(q.from.epochMinute(), 0);
+        long hi = q.to   == null ? Long.MAX_VALUE : AppointmentQuery.key(q.to.epochMinute(), 0);
+        boolean resume = q.afterKey != Long.MIN_VALUE && q.afterKey >= lo;
+        if (resume ? q.afterKey >= hi : lo >= hi) return Stream.empty();
+
+        if (resume)              view = view.tailMap(q.afterKey, false);
+        else if (q.from != null) view = view.tailMap(lo, true);
+        if (q.to != null)        view = view.headMap(hi, false);
+
+        Stream<Appointment> rows = view.values().stream();
+        if (!q.statuses.isEmpty()) rows = rows.filter(q::matches);
+        return rows.skip(q.offset);
+    }
+
+    /** Whether the doctor already has a SCHEDULED appointment at {@code slot}. */
+    public boolean doctorHasAppointment(int doctorId, Slot slot) {
+        return calendar.has(doctorId, slot);
+    }
+
     public boolean patientHasConflict(int patientId, String slot) {
-        return appointments.stream()
-                .anyMatch(a -> a.getPatientId() == patientId
-                            && a.getStatus()    == Appointment.Status.SCHEDULED
-                            && a.getSlot().equals(slot));
+        return patientHasConflict(patientId, Slot.parse(slot));
+    }
+
+    public boolean patientHasConflict(int patientId, Slot slot) {
+        // Status is re-checked in case the appointment was transitioned without
+        // going through persistStatusChange()
+        Appointment a = scheduledSlot.get(slotKey(patientId, slot));
+        return a != null && a.getStatus() == Appointment.Status.SCHEDULED;
     }
 }
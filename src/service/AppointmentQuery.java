@@ -0,0 +1,140 @@
+package service;
+
+import model.Appointment;
+import model.Slot;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable history query over one patient's or one doctor's appointments.
+ * Results come back ordered by slot (then id) and are evaluated lazily by
+ * {@link AppointmentManager#stream(AppointmentQuery)}, so only the rows that
+ * are actually read are touched.
+ *
+ * Paging is either offset based ({@link #offset(int)}) or keyset based: each
+ * {@link Page} carries an opaque cursor, and {@link #after(String)} resumes
+ * just past it. Keyset paging stays cheap however deep the history is, and
+ * is not disturbed by bookings made between pages.
+ *
+ *   manager.page(AppointmentQuery.forPatient(7).withStatus(SCHEDULED).limit(10))
+ */
+public final class AppointmentQuery {
+
+    public enum Owner { PATIENT, DOCTOR }
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    final Owner owner;
+    final int   ownerId;
+    final Set<Appointment.Status> statuses;   // empty = any status
+    final Slot  from;                         // inclusive, null = unbounded
+    final Slot  to;                           // exclusive, null = unbounded
+    final long  afterKey;                     // keyset cursor, Long.MIN_VALUE = from the start
+    final int   offset;
+    final int   limit;
+
+    private AppointmentQuery(Owner owner, int ownerId, Set<Appointment.Status> statuses,
+                             Slot from, Slot to, long afterKey, int offset, int limit) {
+        this.owner    = owner;
+        this.ownerId  = ownerId;
+        this.statuses = statuses;
+        this.from     = from;
+        this.to       = to;
+        this.afterKey = afterKey;
+        this.offset   = offset;
+        this.limit    = limit;
+    }
+
+    public static AppointmentQuery forPatient(int patientId) {
+        return new AppointmentQuery(Owner.PATIENT, patientId, Collections.emptySet(),
+                null, null, Long.MIN_VALUE, 0, DEFAULT_LIMIT);
+    }
+
+    public static AppointmentQuery forDoctor(int doctorId) {
+        return new AppointmentQuery(Owner.DOCTOR, doctorId, Collections.emptySet(),
+                null, null, Long.MIN_VALUE, 0, DEFAULT_LIMIT);
+    }
+
+    // ── Refinements (each returns a new query) ────────────────────────────────
+
+    public AppointmentQuery withStatus(Appointment.Status first, Appointment.Status... rest) {
+        Set<Appointment.Status> s = Collections.unmodifiableSet(EnumSet.of(first, rest));
+        return new AppointmentQuery(owner, ownerId, s, from, to, afterKey, offset, limit);
+    }
+
+    /** Slots in {@code [from, to)}; either bound may be null. */
+    public AppointmentQuery between(Slot from, Slot to) {
+        return new AppointmentQuery(owner, ownerId, statuses, from, to, afterKey, offset, limit);
+    }
+
+    /**
+     * Resumes after a cursor returned by {@link Page#nextCursor()}.
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public AppointmentQuery after(String cursor) {
+        long key = cursor == null || cursor.isEmpty() ? Long.MIN_VALUE : decodeCursor(cursor);
+        return new AppointmentQuery(owner, ownerId, statuses, from, to, key, offset, limit);
+    }
+
+    public AppointmentQuery offset(int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        return new AppointmentQuery(owner, ownerId, statuses, from, to, afterKey, offset, limit);
+    }
+
+    public AppointmentQuery limit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
+        return new AppointmentQuery(owner, ownerId, statuses, from, to, afterKey, offset, limit);
+    }
+
+    boolean matches(Appointment a) {
+        return statuses.isEmpty() || statuses.contains(a.getStatus());
+    }
+
+    // ── Ordering key / cursor ─────────────────────────────────────────────────
+
+    /**
+     * Slot in the high half, id in the low half — sorts by slot, then id.
+     * Parsed slots' epoch-minutes fit in the high half (see Slot.MAX_YEAR).
+     */
+    static long key(Appointment a) {
+        return key(a.getSlotTime().epochMinute(), a.getId());
+    }
+
+    static long key(long epochMinute, int id) {
+        return (epochMinute << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    static String encodeCursor(long key) {
+        return Long.toString(key, 36);
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor, 36);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // ── Page ──────────────────────────────────────────────────────────────────
+
+    public static final class Page {
+        private final List<Appointment> items;
+        private final String nextCursor;
+
+        Page(List<Appointment> items, String nextCursor) {
+            this.items      = Collections.unmodifiableList(items);
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Appointment> items() { return items; }
+
+        /** Cursor for the following page, or null if this is the last one. */
+        public String nextCursor() { return nextCursor; }
+
+        public boolean hasMore() { return nextCursor != null; }
+    }
+}
@@ -3,95 +3,316 @@ package service;
 import model.Appointment;
 import model.Doctor;
 import model.Patient;
-import util.DateValidator;
+import model.Slot;
+import util.LatencyHistogram;
+import util.Metrics;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class AppointmentService {
 
+    // ── Metrics ───────────────────────────────────────────────────────────────
+
+    private static final LatencyHistogram BOOK_LATENCY =
+            Metrics.histogram("das_book_seconds", "Time to book, including rejected attempts", "kind", "single");
+    private static final LatencyHistogram BATCH_LATENCY =
+            Metrics.histogram("das_book_seconds", "Time to book, including rejected attempts", "kind", "batch");
+    private static final LatencyHistogram CANCEL_LATENCY =
+            Metrics.histogram("das_cancel_seconds", "Time to cancel an appointment");
+    private static final LongAdder BOOKED    = Metrics.counter("das_bookings_total", "Appointments booked");
+    private static final LongAdder CANCELLED = Metrics.counter("das_cancellations_total", "Appointments cancelled");
+    private static final Map<ErrorCode, LongAdder> REJECTED = new EnumMap<>(ErrorCode.class);
+    static {
+        for (ErrorCode e : List.of(ErrorCode.INVALID_SLOT, ErrorCode.SLOT_IN_PAST, ErrorCode.SLOT_UNAVAILABLE,
+                                   ErrorCode.PATIENT_CONFLICT, ErrorCode.DUPLICATE_SLOT, ErrorCode.EMPTY_BATCH))
+            REJECTED.put(e, Metrics.counter("das_booking_rejections_total", "Bookings refused, by reason",
+                                            "reason", e.name().toLowerCase(Locale.ROOT)));
+    }
+
+    // Counts the refusal; the message is only formatted if a caller shows it
+    private static <T> Result<T> reject(ErrorCode error, Object... args) {
+        REJECTED.get(error).increment();
+        return Result.fail(error, args);
+    }
+
     private final AppointmentManager manager;
 
     public AppointmentService(AppointmentManager manager) {
         this.manager = manager;
     }
 
-    public Appointment book(Patient patient, Doctor doctor, String slot, String reason) {
+    public Result<Appointment> book(Patient patient, Doctor doctor, String slot, String reason) {
+        // Parse once; everything below works on the interned Slot
+        Slot parsed;
+        try {
+            parsed = Slot.parse(slot);
+        } catch (IllegalArgumentException e) {
+            return reject(ErrorCode.INVALID_SLOT, slot);
+        }
+        return book(patient, doctor, parsed, reason);
+    }
+
+    public Result<Appointment> book(Patient patient, Doctor doctor, Slot slot, String reason) {
+        long start = System.nanoTime();
+        try {
+            return tryBook(patient, doctor, slot, reason);
+        } finally {
+            BOOK_LATENCY.recordSince(start);
+        }
+    }
+
+    private Result<Appointment> tryBook(Patient patient, Doctor doctor, Slot slot, String reason) {
 
         // 1. Validate slot is not in the past
-        if (!DateValidator.isValid(slot)) {
-            return null;
+        if (slot.isPast()) return reject(ErrorCode.SLOT_IN_PAST, slot);
+
+        // 2. Doctor must have this slot open (cheap pre-check, re-checked by the claim)
+        //    and not already be booked at it, whatever their availability says
+        if (!doctor.isSlotAvailable(slot) || manager.doctorHasAppointment(doctor.getId(), slot))
+            return reject(ErrorCode.SLOT_UNAVAILABLE, doctor.getName(), slot);
+
+        // Conflict check and booking must be atomic per patient; the slot itself
+        // is claimed under its doctor's lock, so different doctors never block
+        Appointment appt;
+        Lock lock = manager.patientLock(patient.getId());
+        lock.lock();
+        try {
+            // 3. Patient must not already have appointment at same time
+            if (manager.patientHasConflict(patient.getId(), slot))
+                return reject(ErrorCode.PATIENT_CONFLICT, patient.getName(), slot);
+
+            // 4. Claim the slot — fails if another booking won the race
+            if (!doctor.claimSlot(slot)) return reject(ErrorCode.SLOT_UNAVAILABLE, doctor.getName(), slot);
+
+            // 5. All checks passed — create appointment, giving the slot back if it could not be saved
+            appt = manager.createAppointment(patient, doctor, slot, reason);
+            if (appt == null) {
+                doctor.addAvailableSlot(slot);
+                return Result.fail(ErrorCode.NOT_SAVED);
+            }
+            patient.addAppointmentId(appt.getId());
+        } finally {
+            lock.unlock();
         }
+        BOOKED.increment();
+        return Result.ok(appt);
+    }
 
-        // 2. Doctor must have this slot open
-        if (!doctor.isSlotAvailable(slot)) {
-            System.out.println("\n  ERROR: Dr. " + doctor.getName() + " is not available at " + slot);
-            return null;
+    /**
+     * Books a series or group as one unit: every request is validated, the
+     * patients' lock stripes are taken in stripe order, every slot is claimed,
+     * and the appointments are journaled together with one fsync. If any
+     * request fails, slots already claimed are released and nothing is booked.
+     *
+     * Callers save doctors once afterwards, as after {@link #book}.
+     * On success the appointments are in request order.
+     */
+    public Result<List<Appointment>> bookAll(List<BookingRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            return tryBookAll(requests);
+        } finally {
+            BATCH_LATENCY.recordSince(start);
         }
+    }
 
-        // 3. Patient must not already have appointment at same time
-        if (manager.patientHasConflict(patient.getId(), slot)) {
-            System.out.println("\n  ERROR: You already have an appointment at " + slot);
-            return null;
+    private Result<List<Appointment>> tryBookAll(List<BookingRequest> requests) {
+        if (requests.isEmpty()) return reject(ErrorCode.EMPTY_BATCH);
+
+        // 1. Validate each request and the batch against itself
+        Set<Long> doctorSlots = new HashSet<>(), patientSlots = new HashSet<>();
+        for (BookingRequest r : requests) {
+            if (r.slot().isPast()) return reject(ErrorCode.SLOT_IN_PAST, r.slot());
+            if (!r.doctor().isSlotAvailable(r.slot()) || manager.doctorHasAppointment(r.doctor().getId(), r.slot()))
+                return reject(ErrorCode.SLOT_UNAVAILABLE, r.doctor().getName(), r.slot());
+            if (!doctorSlots.add(pair(r.doctor().getId(), r.slot()))
+                    || !patientSlots.add(pair(r.patient().getId(), r.slot())))
+                return reject(ErrorCode.DUPLICATE_SLOT, r.slot());
         }
 
-        // 4. All checks passed — create appointment
-        Appointment appt = manager.createAppointment(patient, doctor, slot, reason);
-        doctor.removeSlot(slot);
-        patient.addAppointmentId(appt.getId());
-        System.out.println("\n  SUCCESS: Appointment booked!");
-        System.out.println(appt);
-        return appt;
+        // Claims in (doctor, slot) order so concurrent batches contend predictably
+        List<BookingRequest> claimOrder = new ArrayList<>(requests);
+        claimOrder.sort(Comparator.comparingInt((BookingRequest r) -> r.doctor().getId())
+                                  .thenComparing(BookingRequest::slot));
+        Set<Integer> patientIds = new HashSet<>();
+        for (BookingRequest r : requests) patientIds.add(r.patient().getId());
+
+        List<Appointment> booked;
+        List<Lock> locks = manager.patientLocks(patientIds);
+        for (Lock l : locks) l.lock();
+        try {
+            // 2. No patient may already be booked at any of the times
+            for (BookingRequest r : requests) {
+                if (manager.patientHasConflict(r.patient().getId(), r.slot()))
+                    return reject(ErrorCode.PATIENT_CONFLICT, r.patient().getName(), r.slot());
+            }
+
+            // 3. Claim every slot, giving them all back if one is lost to a race
+            List<BookingRequest> claimed = new ArrayList<>(claimOrder.size());
+            for (BookingRequest r : claimOrder) {
+                if (!r.doctor().claimSlot(r.slot())) {
+                    for (BookingRequest c : claimed) c.doctor().addAvailableSlot(c.slot());
+                    return reject(ErrorCode.SLOT_UNAVAILABLE, r.doctor().getName(), r.slot());
+                }
+                claimed.add(r);
+            }
+
+            // 4. Create and journal them together
+            booked = manager.createAppointments(requests);
+            if (booked == null) {
+                for (BookingRequest c : claimed) c.doctor().addAvailableSlot(c.slot());
+                return Result.fail(ErrorCode.NOT_SAVED);
+            }
+            for (int i = 0; i < booked.size(); i++) requests.get(i).patient().addAppointmentId(booked.get(i).getId());
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) locks.get(i).unlock();
+        }
+        BOOKED.add(booked.size());
+        return Result.ok(booked);
     }
 
-    public boolean cancel(int appointmentId, Patient patient, DoctorService doctorService) {
-        Optional<Appointment> opt = manager.findById(appointmentId);
-        if (opt.isEmpty()) {
-            System.out.println("\n  ERROR: Appointment #" + appointmentId + " not found.");
-            return false;
+    private static long pair(int id, Slot slot) {
+        return ((long) id << 32) | (slot.epochMinute() & 0xFFFFFFFFL);
+    }
+
+    /** Cancels the patient's own appointment and reopens its slot; returns the cancelled appointment. */
+    public Result<Appointment> cancel(int appointmentId, Patient patient, DoctorService doctorService) {
+        long start = System.nanoTime();
+        try {
+            return tryCancel(appointmentId, patient, doctorService);
+        } finally {
+            CANCEL_LATENCY.recordSince(start);
         }
+    }
+
+    private Result<Appointment> tryCancel(int appointmentId, Patient patient, DoctorService doctorService) {
+        Optional<Appointment> opt = manager.findById(appointmentId);
+        if (opt.isEmpty()) return Result.fail(ErrorCode.NOT_FOUND, appointmentId);
         Appointment appt = opt.get();
-        if (appt.getPatientId() != patient.getId()) {
-            System.out.println("\n  ERROR: You can only cancel your own appointments.");
-            return false;
-        }
+        if (appt.getPatientId() != patient.getId()) return Result.fail(ErrorCode.NOT_OWNER);
         try {
             appt.cancel();
-            doctorService.findById(appt.getDoctorId())
-                    .ifPresent(d -> d.addAvailableSlot(appt.getSlot()));
-            patient.removeAppointmentId(appointmentId);
-            manager.persistCancellation();
-            System.out.println("\n  SUCCESS: Appointment #" + appointmentId + " cancelled. Slot restored.");
-            return true;
         } catch (IllegalStateException e) {
-            System.out.println("\n  ERROR: " + e.getMessage());
-            return false;
+            return Result.fail(ErrorCode.NOT_SCHEDULED);
+        }
+        // Saved before the slot reopens, so nobody can book it while the cancel may still fail
+        if (!manager.persistStatusChange(appt)) {
+            appt.setStatus(Appointment.Status.SCHEDULED);
+            return Result.fail(ErrorCode.NOT_SAVED);
         }
+        doctorService.findById(appt.getDoctorId()).ifPresent(d -> {
+            d.addAvailableSlot(appt.getSlotTime());
+            doctorService.saveDoctor(d);
+        });
+        patient.removeAppointmentId(appointmentId);
+        CANCELLED.increment();
+        return Result.ok(appt);
     }
 
+    // ── Display (one page at a time) ──────────────────────────────────────────
+
+    public static final int PAGE_SIZE = 10;
+
     public void showPatientHistory(Patient patient) {
-        List<Appointment> history = manager.getByPatient(patient.getId());
-        System.out.println("\n  +======================================================+");
-        System.out.printf ("  | APPOINTMENT HISTORY -- %-30s|%n", patient.getName());
-        System.out.println("  +======================================================+");
-        if (history.isEmpty()) { System.out.println("  No appointments found."); return; }
-        for (Appointment a : history) System.out.println("\n" + a);
+        showPatientHistory(patient, null);
+    }
+
+    /**
+     * Prints one page of the patient's history, oldest slot first.
+     * Returns the cursor for the next page, or null when there is no more.
+     */
+    public String showPatientHistory(Patient patient, String cursor) {
+        AppointmentQuery.Page page = manager.page(
+                AppointmentQuery.forPatient(patient.getId()).after(cursor).limit(PAGE_SIZE));
+        if (cursor == null) {
+            System.out.println("\n  +======================================================+");
+            System.out.printf ("  | APPOINTMENT HISTORY -- %-30s|%n", patient.getName());
+            System.out.println("  +======================================================+");
+            if (page.items().isEmpty()) { System.out.println("  No appointments found."); return null; }
+        }
+        for (Appointment a : page.items()) System.out.println("\n" + a);
+        return page.nextCursor();
     }
 
     public void showDoctorSchedule(Doctor doctor) {
-        List<Appointment> schedule = manager.getByDoctor(doctor.getId());
+        showDoctorSchedule(doctor, null);
+    }
+
+    /** Prints one page of the doctor's scheduled appointments; returns the next cursor or null. */
+    public String showDoctorSchedule(Doctor doctor, String cursor) {
+        AppointmentQuery.Page page = manager.page(AppointmentQuery.forDoctor(doctor.getId())
+                .withStatus(Appointment.Status.SCHEDULED).after(cursor).limit(PAGE_SIZE));
+        if (cursor == null) {
+            System.out.println("\n  +======================================================+");
+            System.out.printf ("  | SCHEDULE -- Dr. %-37s|%n", doctor.getName());
+            System.out.println("  +======================================================+");
+            if (page.items().isEmpty()) { System.out.println("  No upcoming appointments."); return null; }
+        }
+        for (Appointment a : page.items()) System.out.println("\n" + a);
+        return page.nextCursor();
+    }
+
+    /** Prints the doctor's scheduled appointments for {@code days} days from {@code first}, grouped by day. */
+    public void showDoctorCalendar(Doctor doctor, LocalDate first, int days) {
+        List<Appointment> appts = manager.getByDoctorForDays(doctor.getId(), first, days);
         System.out.println("\n  +======================================================+");
-        System.out.printf ("  | SCHEDULE -- Dr. %-37s|%n", doctor.getName());
+        System.out.printf ("  | CALENDAR -- Dr. %-37s|%n", doctor.getName());
+        System.out.printf ("  | %-53s|%n", days == 1 ? first : first + " to " + first.plusDays(days - 1));
         System.out.println("  +======================================================+");
-        if (schedule.isEmpty()) { System.out.println("  No upcoming appointments."); return; }
-        for (Appointment a : schedule) System.out.println("\n" + a);
+        if (appts.isEmpty()) { System.out.println("  No appointments in this period."); return; }
+        long day = Long.MIN_VALUE;
+        for (Appointment a : appts) {
+            if (a.getSlotTime().epochDay() != day) {
+                day = a.getSlotTime().epochDay();
+                System.out.println("\n  -- " + LocalDate.ofEpochDay(day) + " --");
+            }
+            System.out.printf("  %s  #%-5d %-24s %s%n", a.getSlot().substring(11), a.getId(),
+                              a.getPatientName(), a.getReason());
+        }
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    public AppointmentQuery.Page page(AppointmentQuery query) {
+        return manager.page(query);
+    }
+
+    public Stream<Appointment> stream(AppointmentQuery query) {
+        return manager.stream(query);
+    }
+
+    public List<Appointment> getHistoryForPatient(int patientId) {
+        return manager.getByPatient(patientId);
+    }
+
+    public List<Appointment> getScheduleForDoctor(int doctorId) {
+        return manager.getByDoctor(doctorId);
+    }
+
+    /** Slots of the doctor's SCHEDULED appointments from {@code first} to {@code last}, inclusive. */
+    public List<Slot> getBookedSlots(int doctorId, LocalDate first, LocalDate last) {
+        List<Slot> booked = new ArrayList<>();
+        for (Appointment a : manager.getByDoctorForDays(doctorId, first, (int) (last.toEpochDay() - first.toEpochDay() + 1)))
+            booked.add(a.getSlotTime());
+        return booked;
     }
 
     public List<Appointment> getScheduledForPatient(int patientId) {
-        List<Appointment> result = new ArrayList<>();
-        for (Appointment a : manager.getByPatient(patientId))
-            if (a.getStatus() == Appointment.Status.SCHEDULED) result.add(a);
-        return result;
+        return manager.stream(AppointmentQuery.forPatient(patientId)
+                        .withStatus(Appointment.Status.SCHEDULED).limit(Integer.MAX_VALUE))
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,31 @@
+package service;
+
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+
+/** One booking within a batch passed to {@link AppointmentService#bookAll(java.util.List)}. */
+public final class BookingRequest {
+
+    private final Patient patient;
+    private final Doctor  doctor;
+    private final Slot    slot;
+    private final String  reason;
+
+    public BookingRequest(Patient patient, Doctor doctor, Slot slot, String reason) {
+        this.patient = patient;
+        this.doctor  = doctor;
+        this.slot    = slot;
+        this.reason  = reason;
+    }
+
+    public Patient patient() { return patient; }
+    public Doctor doctor()   { return doctor; }
+    public Slot slot()       { return slot; }
+    public String reason()   { return reason; }
+
+    @Override
+    public String toString() {
+        return slot + " with Dr. " + doctor.getName() + " for " + patient.getName();
+    }
+}
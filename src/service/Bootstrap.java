@@ -0,0 +1,103 @@
+package service;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import repository.StorageEngine;
+import repository.TextStorage;
+import util.Metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Startup stage. The three stores are independent, so they are read and
+ * parsed concurrently (each large text file is itself parsed in parallel
+ * chunks by FileManager); the services are then built over the loaded lists
+ * and keep writing to the same storage engine.
+ *
+ * Phase timings are kept so cold-start cost can be tracked as data grows:
+ *   doctors, patients, appointments   load + parse of each store (overlapping)
+ *   load                              wall time until all three are parsed
+ *   services                          journal replay, indexing and seeding
+ *   total                             the whole stage
+ */
+public class Bootstrap {
+
+    private final AppointmentManager manager;
+    private final DoctorService      doctorService;
+    private final PatientService     patientService;
+    private final Map<String, Long>  timings = new LinkedHashMap<>();   // phase -> ms
+
+    private Bootstrap(PersistenceScheduler persistence, StorageEngine storage) {
+        long start = System.nanoTime();
+
+        CompletableFuture<List<Doctor>>      doctors      = timed("doctors",      storage.doctors()::loadAll);
+        CompletableFuture<List<Patient>>     patients     = timed("patients",     storage.patients()::loadAll);
+        CompletableFuture<List<Appointment>> appointments = timed("appointments", storage.appointments()::loadAll);
+        try {
+            CompletableFuture.allOf(doctors, patients, appointments).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+        long loaded = System.nanoTime();
+        record("load", start, loaded);
+
+        this.manager        = new AppointmentManager(appointments.join(), storage.appointments());
+        this.doctorService  = new DoctorService(doctors.join(), persistence, storage.doctors());
+        this.patientService = new PatientService(patients.join(), persistence, storage.patients());
+        long end = System.nanoTime();
+        record("services", loaded, end);
+        record("total", start, end);
+    }
+
+    /** Loads all data from the text files and builds the services. */
+    public static Bootstrap load(PersistenceScheduler persistence) {
+        return load(persistence, new TextStorage());
+    }
+
+    /** Loads all data from {@code storage} and builds the services; prints one line of phase timings. */
+    public static Bootstrap load(PersistenceScheduler persistence, StorageEngine storage) {
+        Bootstrap boot = new Bootstrap(persistence, storage);
+        System.out.println("  INFO: Startup (" + storage.name() + " storage) " + boot.describeTimings());
+        return boot;
+    }
+
+    public AppointmentManager manager()        { return manager; }
+    public DoctorService      doctorService()  { return doctorService; }
+    public PatientService     patientService() { return patientService; }
+
+    /** Phase name to elapsed milliseconds, in the order the phases finished. */
+    public synchronized Map<String, Long> timings() { return new LinkedHashMap<>(timings); }
+
+    public synchronized String describeTimings() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> e : timings.entrySet()) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(e.getKey()).append(' ').append(e.getValue()).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private <T> CompletableFuture<T> timed(String phase, Supplier<T> load) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            T result = load.get();
+            record(phase, start, System.nanoTime());
+            return result;
+        });
+    }
+
+    private synchronized void record(String phase, long startNanos, long endNanos) {
+        long millis = (endNanos - startNanos) / 1_000_000;
+        timings.put(phase, millis);
+        Metrics.gauge("das_startup_seconds", "Startup phase durations", () -> millis / 1e3, "phase", phase);
+    }
+}
@@ -0,0 +1,92 @@
+package service;
+
+import model.Appointment;
+import model.Slot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * SCHEDULED appointments per doctor, bucketed by epoch day and ordered by
+ * slot within each day. A range read walks only the days it covers and
+ * trims the two edge days, so a day or week view costs time in proportion
+ * to what it returns, not to the doctor's whole history.
+ *
+ * Maintained by AppointmentManager under the read side of its snapshot
+ * lock; buckets emptied by cancellations are dropped in {@link #prune()},
+ * which runs under the write side.
+ */
+final class DoctorCalendar {
+
+    // doctor id -> epoch day -> AppointmentQuery.key -> appointment
+    private final Map<Integer, ConcurrentSkipListMap<Long, ConcurrentSkipListMap<Long, Appointment>>> byDoctor =
+            new ConcurrentHashMap<>();
+
+    void add(Appointment a) {
+        byDoctor.computeIfAbsent(a.getDoctorId(), k -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(a.getSlotTime().epochDay(), k -> new ConcurrentSkipListMap<>())
+                .put(AppointmentQuery.key(a), a);
+    }
+
+    void remove(Appointment a) {
+        NavigableMap<Long, ConcurrentSkipListMap<Long, Appointment>> days = byDoctor.get(a.getDoctorId());
+        if (days == null) return;
+        NavigableMap<Long, Appointment> day = days.get(a.getSlotTime().epochDay());
+        if (day != null) day.remove(AppointmentQuery.key(a), a);
+    }
+
+    /** Scheduled appointments with a slot in {@code [from, to)}, in slot order; null bounds are open. */
+    List<Appointment> between(int doctorId, Slot from, Slot to) {
+        List<Appointment> result = new ArrayList<>();
+        NavigableMap<Long, ConcurrentSkipListMap<Long, Appointment>> days = byDoctor.get(doctorId);
+        if (days == null || (from != null && to != null && !from.isBefore(to))) return result;
+
+        // Day of the last minute inside the range, without interning a slot for it
+        long lastDay = to == null ? 0 : Math.floorDiv(to.epochMinute() - 1, Slot.MINUTES_PER_DAY);
+        if (from != null && to != null)
+            days = days.subMap(from.epochDay(), true, lastDay, true);
+        else if (from != null) days = days.tailMap(from.epochDay(), true);
+        else if (to != null)   days = days.headMap(lastDay, true);
+
+        // Only the first and last day can hold slots outside the range
+        Long first = days.isEmpty() ? null : days.firstKey(), last = first == null ? null : days.lastKey();
+        for (Map.Entry<Long, ConcurrentSkipListMap<Long, Appointment>> e : days.entrySet()) {
+            NavigableMap<Long, Appointment> day = e.getValue();
+            if (from != null && e.getKey().equals(first))
+                day = day.tailMap(AppointmentQuery.key(from.epochMinute(), 0), true);
+            if (to != null && e.getKey().equals(last))
+                day = day.headMap(AppointmentQuery.key(to.epochMinute(), 0), false);
+            addScheduled(day.values(), result);
+        }
+        return result;
+    }
+
+    /** Whether the doctor has a SCHEDULED appointment at {@code slot}. */
+    boolean has(int doctorId, Slot slot) {
+        NavigableMap<Long, ConcurrentSkipListMap<Long, Appointment>> days = byDoctor.get(doctorId);
+        NavigableMap<Long, Appointment> day = days == null ? null : days.get(slot.epochDay());
+        if (day == null) return false;
+        for (Appointment a : day.subMap(AppointmentQuery.key(slot.epochMinute(), 0), true,
+                                        AppointmentQuery.key(slot.epochMinute() + 1, 0), false).values())
+            if (a.getStatus() == Appointment.Status.SCHEDULED) return true;
+        return false;
+    }
+
+    // Status is re-checked in case an appointment was transitioned without
+    // going through AppointmentManager.persistStatusChange()
+    private static void addScheduled(Collection<Appointment> day, List<Appointment> into) {
+        for (Appointment a : day)
+            if (a.getStatus() == Appointment.Status.SCHEDULED) into.add(a);
+    }
+
+    /** Drops empty day buckets. Callers must exclude concurrent add(). */
+    void prune() {
+        for (ConcurrentSkipListMap<Long, ConcurrentSkipListMap<Long, Appointment>> days : byDoctor.values())
+            days.values().removeIf(Map::isEmpty);
+    }
+}
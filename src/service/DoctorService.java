@@ -1,23 +1,83 @@
 package service;
 
+import model.AvailabilityTemplate;
 import model.Doctor;
-import util.FileManager;
+import model.Slot;
+import repository.Repository;
+import repository.TextStorage;
+import util.LatencyHistogram;
+import util.Metrics;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DoctorService {
 
+    static final String PERSISTENCE_TARGET = "doctors";
+    // Upcoming slots shown per doctor in the directory listing
+    static final int LISTED_SLOTS = 10;
+
+    private static final LatencyHistogram LOGIN_LATENCY =
+            Metrics.histogram("das_login_seconds", "Time to check credentials", "role", "doctor");
+    private static final LongAdder LOGIN_FAILURES =
+            Metrics.counter("das_login_failures_total", "Rejected logins", "role", "doctor");
+    private static final LatencyHistogram SEARCH_LATENCY =
+            Metrics.histogram("das_lookup_seconds", "Index lookups and queries", "index", "open_slots");
+
     private final List<Doctor> doctors;
+    private final PersistenceScheduler persistence;
+    // Concurrent so login/findById stay lock-free; the list is guarded by "this"
+    private final Map<String, Doctor>  byUsername = new ConcurrentHashMap<>();
+    private final Map<Integer, Doctor> byId       = new ConcurrentHashMap<>();
+    // Specialization (case-insensitive) -> its doctors; specialization is fixed at registration
+    private final Map<String, List<Doctor>> bySpecialization = new ConcurrentHashMap<>();
+    // Doctors changed since the last write; the writer drains it
+    private final Set<Doctor> changed = ConcurrentHashMap.newKeySet();
     private int nextId = 1;
 
     public DoctorService() {
-        this.doctors = FileManager.loadDoctors();
+        this(PersistenceScheduler.writeThrough());
+    }
+
+    public DoctorService(PersistenceScheduler persistence) {
+        this(new TextStorage().doctors(), persistence);
+    }
+
+    public DoctorService(Repository<Doctor> repository, PersistenceScheduler persistence) {
+        this(repository.loadAll(), persistence, repository);
+    }
+
+    /** Builds the service over an already-loaded doctor list. */
+    public DoctorService(List<Doctor> doctors) {
+        this(doctors, PersistenceScheduler.writeThrough());
+    }
+
+    public DoctorService(List<Doctor> doctors, PersistenceScheduler persistence) {
+        this(doctors, persistence, new TextStorage().doctors());
+    }
+
+    /** Builds the service over doctors already loaded from {@code repository}, which receives every save. */
+    public DoctorService(List<Doctor> doctors, PersistenceScheduler persistence, Repository<Doctor> repository) {
+        this.doctors     = doctors;
+        this.persistence = persistence;
+        persistence.register(PERSISTENCE_TARGET, () -> writeChanged(repository));
 
         // Set nextId based on loaded doctors to avoid ID collisions
-        for (Doctor d : doctors)
+        for (Doctor d : doctors) {
+            index(d);
             if (d.getId() >= nextId) nextId = d.getId() + 1;
+        }
 
         // Only pre-load sample doctors if no doctors exist in file yet
         if (doctors.isEmpty()) {
@@ -50,63 +110,208 @@ public class DoctorService {
         doctors.add(d1);
         doctors.add(d2);
         doctors.add(d3);
+        index(d1);
+        index(d2);
+        index(d3);
 
-        FileManager.saveDoctors(doctors);
+        saveDoctor(d1);
+        saveDoctor(d2);
+        saveDoctor(d3);
         System.out.println("  INFO: Default doctors loaded and saved to file.");
     }
 
     // ── Register ─────────────────────────────────────────────────────────────
 
-    public Doctor register(String name, String specialization,
+    public Result<Doctor> register(String name, String specialization,
                             String contact, String username, String password) {
+        String missing = PatientService.firstBlank("Name", name, "Specialization", specialization,
+                                                   "Username", username, "Password", password);
+        if (missing != null) return Result.fail(ErrorCode.REQUIRED_FIELD, missing);
+        Doctor d;
+        synchronized (this) {
+            // Check for duplicate username
+            if (byUsername.containsKey(PatientService.usernameKey(username)))
+                return Result.fail(ErrorCode.USERNAME_TAKEN, username);
 
-        // Check for duplicate username
-        boolean taken = doctors.stream()
-                .anyMatch(d -> d.getUsername().equalsIgnoreCase(username));
-        if (taken) {
-            System.out.println("\n  ERROR: Username '" + username + "' is already taken.");
-            return null;
+            d = new Doctor(nextId++, name, specialization, contact, username, password);
+            doctors.add(d);
+            index(d);
         }
-
-        Doctor d = new Doctor(nextId++, name, specialization, contact, username, password);
-        doctors.add(d);
-        FileManager.saveDoctors(doctors);
-        System.out.println("\n  SUCCESS: Doctor registered! Welcome, Dr. " + name + ".");
-        return d;
+        saveDoctor(d);
+        return Result.ok(d);
     }
 
     // ── Login ─────────────────────────────────────────────────────────────────
 
-    public Optional<Doctor> login(String username, String password) {
-        Optional<Doctor> found = doctors.stream()
-                .filter(d -> d.getUsername().equalsIgnoreCase(username)
-                          && d.getPassword().equals(password))
-                .findFirst();
-        if (found.isPresent()) {
-            System.out.println("\n  SUCCESS: Welcome, Dr. " + found.get().getName() + "!");
-            return found;
-        }
-        System.out.println("\n  ERROR: Invalid doctor credentials.");
-        return Optional.empty();
+    public Result<Doctor> login(String username, String password) {
+        long start = System.nanoTime();
+        Doctor found = byUsername.get(PatientService.usernameKey(username));
+        boolean ok = found != null && found.getPassword().equals(password);
+        LOGIN_LATENCY.recordSince(start);
+        if (ok) return Result.ok(found);
+        LOGIN_FAILURES.increment();
+        return Result.fail(ErrorCode.INVALID_CREDENTIALS);
     }
 
     // ── Save (called after slot changes) ──────────────────────────────────────
 
-    public void saveDoctors() {
-        FileManager.saveDoctors(doctors);
+    /**
+     * Marks {@code doctor} changed. Only changed doctors are written, coalesced
+     * with other changes; join the returned future to wait until it is on disk.
+     */
+    public CompletableFuture<Void> saveDoctor(Doctor doctor) {
+        changed.add(doctor);
+        return persistence.markDirty(PERSISTENCE_TARGET);
+    }
+
+    // A doctor changed again while being written is re-added and goes out next time
+    private boolean writeChanged(Repository<Doctor> repository) {
+        List<Doctor> batch = new ArrayList<>();
+        for (Iterator<Doctor> it = changed.iterator(); it.hasNext(); ) {
+            batch.add(it.next());
+            it.remove();
+        }
+        if (batch.isEmpty()) return true;
+        boolean saved = false;
+        try {
+            saved = repository.saveChanged(batch, this::getAllDoctors);
+        } finally {
+            // Not saved, or the repository threw: keep them for the retry
+            if (!saved) changed.addAll(batch);
+        }
+        return saved;
+    }
+
+    /**
+     * Adds {@code template} to the doctor's availability as a rule — stored as
+     * one line of text, never expanded — and marks the file dirty once.
+     * {@code booked} are the doctor's scheduled slots in the rule's days, which
+     * stay closed. Completes with the number of slots the rule describes once
+     * it is on disk.
+     */
+    public CompletableFuture<Integer> addSlots(Doctor doctor, AvailabilityTemplate template,
+                                               Collection<Slot> booked) {
+        doctor.addRule(template, booked);
+        return saveDoctor(doctor).thenApply(v -> (int) template.size());
     }
 
     // ── Lookup ────────────────────────────────────────────────────────────────
 
     public Optional<Doctor> findById(int id) {
-        return doctors.stream().filter(d -> d.getId() == id).findFirst();
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    private void index(Doctor d) {
+        byUsername.putIfAbsent(PatientService.usernameKey(d.getUsername()), d);
+        if (byId.putIfAbsent(d.getId(), d) == null)
+            bySpecialization.computeIfAbsent(specializationKey(d.getSpecialization()),
+                                             k -> new CopyOnWriteArrayList<>()).add(d);
+    }
+
+    static String specializationKey(String specialization) {
+        return specialization == null ? "" : specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Distinct specializations, as first registered, sorted. */
+    public List<String> getSpecializations() {
+        List<String> names = new ArrayList<>();
+        for (List<Doctor> ds : bySpecialization.values())
+            if (!ds.isEmpty()) names.add(ds.get(0).getSpecialization());
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+
+    // ── Slot search ───────────────────────────────────────────────────────────
+
+    /**
+     * The first {@code limit} open slots in {@code [from, to)} among doctors of
+     * one specialization, earliest first (ties by doctor id). Past slots are
+     * never returned; a null bound is open.
+     *
+     * Each doctor's slots come from a lazy, sorted iterator, so this is a k-way
+     * merge: a priority queue holds one head per doctor and the earliest is
+     * taken until {@code limit} are found. Doctors of other specializations are
+     * not visited, and no doctor's rules are expanded past what is read.
+     */
+    public List<OpenSlot> findAvailableSlots(String specialization, Slot from, Slot to, int limit) {
+        long start = System.nanoTime();
+        try {
+            return mergeOpenSlots(specialization, from, to, limit);
+        } finally {
+            SEARCH_LATENCY.recordSince(start);
+        }
+    }
+
+    private List<OpenSlot> mergeOpenSlots(String specialization, Slot from, Slot to, int limit) {
+        List<OpenSlot> result = new ArrayList<>();
+        List<Doctor> candidates = bySpecialization.get(specializationKey(specialization));
+        if (candidates == null || limit <= 0) return result;
+
+        Slot now = Slot.now();
+        Slot lo = from == null || from.isBefore(now) ? now : from;
+        if (to != null && !lo.isBefore(to)) return result;
+
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, candidates.size()));
+        for (Doctor d : candidates) {
+            Iterator<Slot> it = d.availableSlots(lo, to);
+            if (it.hasNext()) heads.add(new Cursor(d, it.next(), it));
+        }
+
+        while (result.size() < limit && !heads.isEmpty()) {
+            Cursor c = heads.poll();
+            result.add(new OpenSlot(c.doctor, c.head));
+            if (c.rest.hasNext()) {
+                c.head = c.rest.next();
+                heads.add(c);
+            }
+        }
+        return result;
+    }
+
+    // One doctor's position in the merge
+    private static final class Cursor implements Comparable<Cursor> {
+        final Doctor doctor;
+        final Iterator<Slot> rest;
+        Slot head;
+
+        Cursor(Doctor doctor, Slot head, Iterator<Slot> rest) {
+            this.doctor = doctor;
+            this.head   = head;
+            this.rest   = rest;
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            int c = head.compareTo(o.head);
+            return c != 0 ? c : Integer.compare(doctor.getId(), o.doctor.getId());
+        }
+    }
+
+    /** A bookable slot and the doctor who offers it. */
+    public static final class OpenSlot {
+        private final Doctor doctor;
+        private final Slot slot;
+
+        OpenSlot(Doctor doctor, Slot slot) {
+            this.doctor = doctor;
+            this.slot   = slot;
+        }
+
+        public Doctor doctor() { return doctor; }
+        public Slot slot()     { return slot; }
+
+        @Override
+        public String toString() {
+            return slot + "  Dr. " + doctor.getName() + " (ID " + doctor.getId() + ")";
+        }
     }
 
-    public List<Doctor> getAllDoctors() { return new ArrayList<>(doctors); }
+    public synchronized List<Doctor> getAllDoctors() { return new ArrayList<>(doctors); }
 
     // ── Display ───────────────────────────────────────────────────────────────
 
     public void displayAllDoctors() {
+        List<Doctor> doctors = getAllDoctors();
         System.out.println("\n  +======================================================+");
         System.out.println("  |               AVAILABLE DOCTORS                      |");
         System.out.println("  +======================================================+");
@@ -116,12 +321,15 @@ public class DoctorService {
         }
         for (Doctor d : doctors) {
             System.out.println("\n" + d);
-            System.out.println("  Available Slots:");
-            if (d.getAvailableSlots().isEmpty()) {
+            System.out.println("  Upcoming Slots:");
+            // One extra slot tells us whether to say there are more
+            List<Slot> upcoming = d.nextAvailableSlots(Slot.now(), LISTED_SLOTS + 1);
+            if (upcoming.isEmpty()) {
                 System.out.println("    -> No slots available.");
             } else {
-                for (String slot : d.getAvailableSlots())
+                for (Slot slot : upcoming.subList(0, Math.min(LISTED_SLOTS, upcoming.size())))
                     System.out.println("    -> " + slot);
+                if (upcoming.size() > LISTED_SLOTS) System.out.println("    -> ... and more");
             }
             System.out.println("  ------------------------------------------------------");
         }
@@ -0,0 +1,40 @@
+package service;
+
+/**
+ * Why a service call was refused. Each code carries its wording as a format
+ * string; a {@link Result} fills it in only when a caller renders it.
+ */
+public enum ErrorCode {
+
+    // Booking
+    INVALID_SLOT("Invalid date format '%s'. Use YYYY-MM-DD HH:mm  (e.g. 2025-07-15 10:00)"),
+    SLOT_IN_PAST("Cannot book a slot in the past (%s)."),
+    SLOT_UNAVAILABLE("Dr. %s is not available at %s"),
+    PATIENT_CONFLICT("%s already has an appointment at %s"),
+    DUPLICATE_SLOT("%s appears twice in the batch."),
+    EMPTY_BATCH("Nothing to book."),
+
+    // Cancellation
+    NOT_FOUND("Appointment #%s not found."),
+    NOT_OWNER("You can only cancel your own appointments."),
+    NOT_SCHEDULED("Only SCHEDULED appointments can be cancelled."),
+
+    // Accounts
+    REQUIRED_FIELD("%s is required."),
+    INVALID_AGE("Age must be between 0 and %s."),
+    USERNAME_TAKEN("Username '%s' is already taken."),
+    INVALID_CREDENTIALS("Invalid username or password."),
+
+    // Storage
+    NOT_SAVED("The change could not be saved. Please try again.");
+
+    private final String format;
+
+    ErrorCode(String format) {
+        this.format = format;
+    }
+
+    String format(Object... args) {
+        return args.length == 0 ? format : String.format(format, args);
+    }
+}
@@ -1,56 +1,150 @@
 package service;
 
 import model.Patient;
-import util.FileManager;
+import repository.Repository;
+import repository.TextStorage;
+import util.LatencyHistogram;
+import util.Metrics;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PatientService {
 
+    static final String PERSISTENCE_TARGET = "patients";
+    static final int    MAX_AGE            = 150;
+
+    private static final LatencyHistogram LOGIN_LATENCY =
+            Metrics.histogram("das_login_seconds", "Time to check credentials", "role", "patient");
+    private static final LongAdder LOGIN_FAILURES =
+            Metrics.counter("das_login_failures_total", "Rejected logins", "role", "patient");
+
     private final List<Patient> patients;
+    private final PersistenceScheduler persistence;
+    // Concurrent so login/findById stay lock-free; register() is the only writer
+    private final Map<String, Patient>  byUsername = new ConcurrentHashMap<>();
+    private final Map<Integer, Patient> byId       = new ConcurrentHashMap<>();
+    // Patients changed since the last write; the writer drains it
+    private final Set<Patient> changed = ConcurrentHashMap.newKeySet();
     private int nextId = 1;
 
     public PatientService() {
-        this.patients = FileManager.loadPatients();
-        for (Patient p : patients)
-            if (p.getId() >= nextId) nextId = p.getId() + 1;
+        this(PersistenceScheduler.writeThrough());
+    }
+
+    public PatientService(PersistenceScheduler persistence) {
+        this(new TextStorage().patients(), persistence);
+    }
+
+    public PatientService(Repository<Patient> repository, PersistenceScheduler persistence) {
+        this(repository.loadAll(), persistence, repository);
         if (!patients.isEmpty())
             System.out.println("  INFO: Loaded " + patients.size() + " patient(s) from file.");
     }
 
-    public Patient register(String name, int age, String contact,
+    /** Builds the service over an already-loaded patient list. */
+    public PatientService(List<Patient> patients) {
+        this(patients, PersistenceScheduler.writeThrough());
+    }
+
+    public PatientService(List<Patient> patients, PersistenceScheduler persistence) {
+        this(patients, persistence, new TextStorage().patients());
+    }
+
+    /** Builds the service over patients already loaded from {@code repository}, which receives every save. */
+    public PatientService(List<Patient> patients, PersistenceScheduler persistence, Repository<Patient> repository) {
+        this.patients    = patients;
+        this.persistence = persistence;
+        persistence.register(PERSISTENCE_TARGET, () -> writeChanged(repository));
+        for (Patient p : patients) {
+            index(p);
+            if (p.getId() >= nextId) nextId = p.getId() + 1;
+        }
+    }
+
+    public Result<Patient> register(String name, int age, String contact,
                              String username, String password) {
-        boolean taken = patients.stream()
-                .anyMatch(p -> p.getUsername().equalsIgnoreCase(username));
-        if (taken) {
-            System.out.println("\n  ERROR: Username '" + username + "' is already taken.");
-            return null;
+        String missing = firstBlank("Name", name, "Username", username, "Password", password);
+        if (missing != null) return Result.fail(ErrorCode.REQUIRED_FIELD, missing);
+        if (age < 0 || age > MAX_AGE) return Result.fail(ErrorCode.INVALID_AGE, MAX_AGE);
+        Patient p;
+        synchronized (this) {
+            if (byUsername.containsKey(usernameKey(username)))
+                return Result.fail(ErrorCode.USERNAME_TAKEN, username);
+            p = new Patient(nextId++, name, age, contact, username, password);
+            patients.add(p);
+            index(p);
         }
-        Patient p = new Patient(nextId++, name, age, contact, username, password);
-        patients.add(p);
-        FileManager.savePatients(patients);
-        System.out.println("\n  SUCCESS: Registration complete! Welcome, " + name + ".");
-        return p;
-    }
-
-    public Patient login(String username, String password) {
-        Optional<Patient> found = patients.stream()
-                .filter(p -> p.getUsername().equalsIgnoreCase(username)
-                          && p.getPassword().equals(password))
-                .findFirst();
-        if (found.isPresent()) {
-            System.out.println("\n  SUCCESS: Welcome back, " + found.get().getName() + "!");
-            return found.get();
+        savePatient(p);
+        return Result.ok(p);
+    }
+
+    /** Label of the first blank value in label/value pairs, or null if none is blank. */
+    static String firstBlank(String... labelsAndValues) {
+        for (int i = 0; i < labelsAndValues.length; i += 2) {
+            String value = labelsAndValues[i + 1];
+            if (value == null || value.isBlank()) return labelsAndValues[i];
         }
-        System.out.println("\n  ERROR: Invalid username or password.");
         return null;
     }
 
+    /** Marks {@code patient} changed; only changed patients are written. */
+    public CompletableFuture<Void> savePatient(Patient patient) {
+        changed.add(patient);
+        return persistence.markDirty(PERSISTENCE_TARGET);
+    }
+
+    // A patient changed again while being written is re-added and goes out next time
+    private boolean writeChanged(Repository<Patient> repository) {
+        List<Patient> batch = new ArrayList<>();
+        for (Iterator<Patient> it = changed.iterator(); it.hasNext(); ) {
+            batch.add(it.next());
+            it.remove();
+        }
+        if (batch.isEmpty()) return true;
+        boolean saved = false;
+        try {
+            saved = repository.saveChanged(batch, this::getAllPatients);
+        } finally {
+            // Not saved, or the repository threw: keep them for the retry
+            if (!saved) changed.addAll(batch);
+        }
+        return saved;
+    }
+
+    public Result<Patient> login(String username, String password) {
+        long start = System.nanoTime();
+        Patient found = byUsername.get(usernameKey(username));
+        boolean ok = found != null && found.getPassword().equals(password);
+        LOGIN_LATENCY.recordSince(start);
+        if (ok) return Result.ok(found);
+        LOGIN_FAILURES.increment();
+        return Result.fail(ErrorCode.INVALID_CREDENTIALS);
+    }
+
     public Optional<Patient> findById(int id) {
-        return patients.stream().filter(p -> p.getId() == id).findFirst();
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    // ── Indexing ──────────────────────────────────────────────────────────────
+
+    private void index(Patient p) {
+        byUsername.putIfAbsent(usernameKey(p.getUsername()), p);
+        byId.putIfAbsent(p.getId(), p);
+    }
+
+    // Usernames are case-insensitive, so the index is keyed on the folded form
+    static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
     }
 
-    public List<Patient> getAllPatients() { return new ArrayList<>(patients); }
+    public synchronized List<Patient> getAllPatients() { return new ArrayList<>(patients); }
 }
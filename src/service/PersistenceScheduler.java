@@ -0,0 +1,156 @@
+package service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Group commit for the full-file saves. Services mark a target dirty instead of
+ * rewriting its file; a background thread writes each dirty target once per
+ * interval, or sooner when {@code batchSize} marks are pending, so a burst of
+ * changes costs one write per file.
+ *
+ * Every mark returns an acknowledgement that completes once a write started
+ * after the mark has finished — callers that need durability join it, the
+ * rest carry on.
+ */
+public class PersistenceScheduler implements AutoCloseable {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 200;
+    public static final int  DEFAULT_BATCH_SIZE      = 64;
+
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;     // null when writing through
+    private final int batchSize;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // ── Metrics ───────────────────────────────────────────────────────────────
+    private final AtomicLong marks  = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public PersistenceScheduler() {
+        this(DEFAULT_INTERVAL_MILLIS, DEFAULT_BATCH_SIZE);
+    }
+
+    /** An interval of zero or less writes on every mark, in the caller's thread. */
+    public PersistenceScheduler(long intervalMillis, int batchSize) {
+        this.batchSize = batchSize;
+        if (intervalMillis <= 0) {
+            this.flusher = null;
+            return;
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "persistence-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushDirty, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /** A scheduler that writes on every mark — the behaviour before group commit. */
+    public static PersistenceScheduler writeThrough() {
+        return new PersistenceScheduler(0, 1);
+    }
+
+    /**
+     * Registers the writer for a target. The writer must save a consistent
+     * copy of the current state and return false if the save failed; a
+     * writer that throws is treated the same way. Either way it must keep
+     * what it did not save, since the target is simply written again later.
+     */
+    public void register(String name, BooleanSupplier writer) {
+        targets.put(name, new Target(name, writer));
+    }
+
+    /** Marks {@code name} dirty; the returned future completes when the change is on disk. */
+    public CompletableFuture<Void> markDirty(String name) {
+        Target target = targets.get(name);
+        if (target == null) throw new IllegalArgumentException("Unknown persistence target: " + name);
+        marks.incrementAndGet();
+        CompletableFuture<Void> ack = target.mark();
+        if (flusher == null) {
+            write(target);
+        } else if (pending.incrementAndGet() >= batchSize) {
+            flusher.execute(this::flushDirty);
+        }
+        return ack;
+    }
+
+    /** Writes every dirty target now, in the caller's thread. */
+    public void flush() {
+        flushDirty();
+    }
+
+    public long marks()  { return marks.get(); }
+    public long writes() { return writes.get(); }
+
+    /** Saves skipped because a later write already covered the change. */
+    public long writesAvoided() { return Math.max(0, marks.get() - writes.get()); }
+
+    @Override
+    public void close() {
+        if (flusher != null) flusher.shutdownNow();
+        flushDirty();
+    }
+
+    // ── Flushing ──────────────────────────────────────────────────────────────
+
+    private void flushDirty() {
+        pending.set(0);
+        for (Target t : targets.values()) write(t);
+    }
+
+    private void write(Target target) {
+        // One writer per target; marks that arrive during the write start a new batch
+        synchronized (target.writeLock) {
+            CompletableFuture<Void> ack = target.take();
+            if (ack == null) return;
+            boolean ok = false;
+            RuntimeException thrown = null;
+            try {
+                ok = target.writer.getAsBoolean();
+            } catch (RuntimeException e) {
+                thrown = e;
+            }
+            writes.incrementAndGet();
+            if (ok) {
+                ack.complete(null);
+            } else {
+                // Failed or threw: stay dirty either way so the next flush retries
+                target.mark();
+                ack.completeExceptionally(thrown != null ? thrown : new IOException("Could not save " + target.name));
+            }
+        }
+    }
+
+    private static final class Target {
+        final String name;
+        final BooleanSupplier writer;
+        final Object writeLock = new Object();
+        private CompletableFuture<Void> ack;       // non-null while dirty
+
+        Target(String name, BooleanSupplier writer) {
+            this.name   = name;
+            this.writer = writer;
+        }
+
+        synchronized CompletableFuture<Void> mark() {
+            if (ack == null) ack = new CompletableFuture<>();
+            return ack;
+        }
+
+        synchronized CompletableFuture<Void> take() {
+            CompletableFuture<Void> taken = ack;
+            ack = null;
+            return taken;
+        }
+    }
+}
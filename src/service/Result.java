@@ -0,0 +1,51 @@
+package service;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Outcome of a service call: a value, or an {@link ErrorCode} plus the raw
+ * values that explain it (a slot, a name). Services return these instead of
+ * printing, so nothing is formatted on the booking path; the console and the
+ * API turn a failure into text with {@link #message()} when they show it.
+ */
+public final class Result<T> {
+
+    private final T value;
+    private final ErrorCode error;
+    private final Object[] args;
+
+    private Result(T value, ErrorCode error, Object[] args) {
+        this.value = value;
+        this.error = error;
+        this.args  = args;
+    }
+
+    public static <T> Result<T> ok(T value) {
+        return new Result<>(value, null, null);
+    }
+
+    public static <T> Result<T> fail(ErrorCode error, Object... args) {
+        return new Result<>(null, error, args);
+    }
+
+    public boolean isOk() { return error == null; }
+
+    /** The value of a successful call. @throws NoSuchElementException if the call failed */
+    public T value() {
+        if (error != null) throw new NoSuchElementException(error.name());
+        return value;
+    }
+
+    public T orElse(T other) { return error == null ? value : other; }
+
+    /** Why the call failed, or null if it succeeded. */
+    public ErrorCode error() { return error; }
+
+    /** The failure as a sentence for display, or null if the call succeeded. */
+    public String message() { return error == null ? null : error.format(args); }
+
+    @Override
+    public String toString() {
+        return error == null ? "Ok[" + value + "]" : error + ": " + message();
+    }
+}
@@ -0,0 +1,48 @@
+package main;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Sessions Tests")
+class SessionsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final Sessions<String> sessions = new Sessions<>(100, now::get);
+
+    @Test
+    @DisplayName("A token lapses after the idle time, and use renews it")
+    void testIdleTimeout() {
+        String token = sessions.open("jabelo");
+        now.addAndGet(99);
+        assertEquals("jabelo", sessions.get(token));
+        now.addAndGet(99);
+        assertEquals("jabelo", sessions.get(token), "Renewed by the last use");
+        now.addAndGet(100);
+        assertNull(sessions.get(token));
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    @DisplayName("Lapsed sessions are swept on login even if never presented again")
+    void testSweepOnOpen() {
+        for (int i = 0; i < 10; i++) sessions.open("patient" + i);
+        now.addAndGet(100);
+        String live = sessions.open("thandi");
+        assertEquals(1, sessions.size());
+        assertEquals("thandi", sessions.get(live));
+    }
+
+    @Test
+    @DisplayName("A closed or unknown token is refused")
+    void testClose() {
+        String token = sessions.open("jabelo");
+        assertTrue(sessions.close(token));
+        assertFalse(sessions.close(token));
+        assertNull(sessions.get(token));
+        assertNull(sessions.get(""));
+        assertNull(sessions.get(null));
+    }
+}
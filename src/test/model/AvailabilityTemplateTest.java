@@ -0,0 +1,77 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AvailabilityTemplate Tests")
+class AvailabilityTemplateTest {
+
+    private static final EnumSet<DayOfWeek> WEEKDAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    @Test
+    @DisplayName("Expands only the selected weekdays, end time exclusive")
+    void testExpand_weekdays() {
+        // 2099-07-03 is a Friday, 2099-07-06 the following Monday
+        AvailabilityTemplate t = new AvailabilityTemplate(WEEKDAYS, LocalTime.of(8, 0), LocalTime.of(9, 0),
+                20, LocalDate.of(2099, 7, 3), LocalDate.of(2099, 7, 6));
+
+        List<String> slots = t.expand().stream().map(Slot::toString).toList();
+
+        assertEquals(List.of("2099-07-03 08:00", "2099-07-03 08:20", "2099-07-03 08:40",
+                             "2099-07-06 08:00", "2099-07-06 08:20", "2099-07-06 08:40"), slots);
+        assertEquals(6, t.size());
+    }
+
+    @Test
+    @DisplayName("Six months of 5-minute slots expand in order and match size()")
+    void testExpand_large() {
+        AvailabilityTemplate t = new AvailabilityTemplate(WEEKDAYS, LocalTime.of(8, 0), LocalTime.of(17, 0),
+                5, LocalDate.of(2099, 7, 1), LocalDate.of(2099, 12, 31));
+
+        List<Slot> slots = t.expand();
+
+        assertEquals(t.size(), slots.size());
+        assertTrue(slots.size() > 10_000);
+        for (int i = 1; i < slots.size(); i++) assertTrue(slots.get(i - 1).isBefore(slots.get(i)));
+    }
+
+    @Test
+    @DisplayName("Empty or oversized templates are rejected")
+    void testInvalid() {
+        LocalDate day = LocalDate.of(2099, 7, 1);
+        assertThrows(IllegalArgumentException.class, () -> new AvailabilityTemplate(
+                EnumSet.noneOf(DayOfWeek.class), LocalTime.of(8, 0), LocalTime.of(9, 0), 15, day, day));
+        assertThrows(IllegalArgumentException.class, () -> new AvailabilityTemplate(
+                WEEKDAYS, LocalTime.of(9, 0), LocalTime.of(8, 0), 15, day, day));
+        assertThrows(IllegalArgumentException.class, () -> new AvailabilityTemplate(
+                WEEKDAYS, LocalTime.of(0, 0), LocalTime.of(23, 59), 1, day, day.plusYears(5)));
+    }
+
+    @Test
+    @DisplayName("covers() and nextFrom() agree with the expansion; text form round-trips")
+    void testLazyLookups() {
+        AvailabilityTemplate t = new AvailabilityTemplate(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY),
+                LocalTime.of(9, 0), LocalTime.of(10, 30), 25, LocalDate.of(2099, 7, 1), LocalDate.of(2099, 7, 20));
+        List<Slot> slots = t.expand();
+
+        long minute = slots.get(0).epochMinute() - 3 * Slot.MINUTES_PER_DAY;
+        for (Slot s : slots) {
+            assertEquals(s.epochMinute(), t.nextFrom(minute));
+            assertTrue(t.covers(s.epochMinute()));
+            assertFalse(t.covers(s.epochMinute() + 1));
+            minute = s.epochMinute() + 1;
+        }
+        assertEquals(Long.MAX_VALUE, t.nextFrom(minute));
+
+        assertEquals("MON,THU 09:00-10:30/25 2099-07-01..2099-07-20", t.toString());
+        assertEquals(t, AvailabilityTemplate.parse(t.toString()));
+        assertThrows(IllegalArgumentException.class, () -> AvailabilityTemplate.parse("MON 09:00/25 2099-07-01"));
+    }
+}
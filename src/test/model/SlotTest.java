@@ -0,0 +1,54 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Slot Tests")
+class SlotTest {
+
+    @Test
+    @DisplayName("Equal slots are the same interned instance")
+    void testParse_interned() {
+        Slot a = Slot.parse("2099-07-01 10:00");
+        Slot b = Slot.ofEpochMinute(a.epochMinute());
+
+        assertSame(a, b);
+        assertEquals("2099-07-01 10:00", b.toString());
+    }
+
+    @Test
+    @DisplayName("Slots nothing refers to any more leave the intern table")
+    void testIntern_releasesUnused() throws InterruptedException {
+        long base = Slot.parse("2199-01-01 00:00").epochMinute();
+        Slot kept = Slot.ofEpochMinute(base);
+        for (int i = 1; i <= 100_000; i++) Slot.ofEpochMinute(base + i);
+
+        // Collection is up to the JVM; give it a few chances, then expunge by interning again
+        for (int attempt = 0; attempt < 10 && Slot.internedCount() > 50_000; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+            Slot.ofEpochMinute(base - 1 - attempt);
+        }
+        assertTrue(Slot.internedCount() < 50_000, "Transient slots must not accumulate");
+        assertSame(kept, Slot.ofEpochMinute(base), "A slot still in use stays interned");
+    }
+
+    @Test
+    @DisplayName("Invalid slot strings are rejected")
+    void testParse_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> Slot.parse("2099-13-01 10:00"));
+        assertThrows(IllegalArgumentException.class, () -> Slot.parse("2099-07-01 24:00"));
+        assertThrows(IllegalArgumentException.class, () -> Slot.parse("01/07/2099 10:00"));
+        assertThrows(IllegalArgumentException.class, () -> Slot.parse("6000-01-01 00:00"));
+        assertTrue(Slot.parse("5999-12-31 23:59").epochMinute() < Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Past and future slots compare against the clock")
+    void testIsPast() {
+        assertTrue(Slot.parse("2000-01-01 00:00").isPast());
+        assertFalse(Slot.parse("2099-01-01 00:00").isPast());
+        assertTrue(Slot.parse("2099-01-01 00:00").isBefore(Slot.parse("2099-01-01 00:15")));
+    }
+}
@@ -0,0 +1,144 @@
+package repository;
+
+import model.Appointment;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardedStorage Tests")
+class ShardedStorageTest {
+
+    @TempDir
+    Path dir;
+
+    private ShardedAppointments open(int months) {
+        return new ShardedAppointments(dir.toString() + "/", months);
+    }
+
+    private static Appointment appointment(int id, int doctorId, String slot) {
+        return new Appointment(id, 1, "Jabelo Pitso", doctorId, "Doctor " + doctorId, slot, "Checkup");
+    }
+
+    @Test
+    @DisplayName("Each doctor's changes go to its own journal and replay on reload")
+    void testJournals_perDoctor() {
+        ShardedAppointments repo = open(0);
+        repo.insert(List.of(appointment(1, 7, "2099-07-01 10:00")));
+        Appointment other = appointment(2, 8, "2099-07-01 10:00");
+        repo.insert(List.of(other));
+        other.cancel();
+        repo.updateStatus(other);
+        repo.close();
+
+        assertTrue(Files.exists(dir.resolve("7/journal")));
+        assertTrue(Files.exists(dir.resolve("8/journal")));
+        ShardedAppointments reopened = open(0);
+        List<Appointment> loaded = reopened.loadAll();
+        assertEquals(2, loaded.size());
+        assertEquals(Appointment.Status.CANCELLED,
+                loaded.stream().filter(a -> a.getId() == 2).findFirst().orElseThrow().getStatus());
+        assertEquals(3, reopened.pendingChanges());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Compaction writes one file per doctor and month and empties the journals")
+    void testSaveAll_partitions() {
+        ShardedAppointments repo = open(0);
+        List<Appointment> all = List.of(appointment(1, 7, "2099-07-01 10:00"),
+                                        appointment(2, 7, "2099-08-01 10:00"),
+                                        appointment(3, 8, "2099-07-15 10:00"));
+        repo.insert(all);                        // spans doctors: the shared journal
+        assertTrue(repo.saveAll(all));
+        assertEquals(0, repo.pendingChanges());
+        repo.close();
+
+        assertTrue(Files.exists(dir.resolve("7/2099-07.txt")));
+        assertTrue(Files.exists(dir.resolve("7/2099-08.txt")));
+        assertTrue(Files.exists(dir.resolve("8/2099-07.txt")));
+        ShardedAppointments reopened = open(0);
+        assertEquals(3, reopened.loadAll().size());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Saving before anything is loaded replaces old months and journals")
+    void testSaveAll_replacesBeforeLoad() {
+        ShardedAppointments repo = open(0);
+        assertTrue(repo.saveAll(List.of(appointment(1, 7, "2099-07-01 10:00"))));
+        repo.insert(List.of(appointment(2, 7, "2099-08-01 10:00")));
+        repo.close();
+
+        ShardedAppointments fresh = open(0);
+        assertTrue(fresh.saveAll(List.of(appointment(3, 8, "2099-09-01 10:00"))));
+        fresh.close();
+
+        assertFalse(Files.exists(dir.resolve("7/2099-07.txt")));
+        ShardedAppointments reopened = open(0);
+        assertEquals(List.of(3), reopened.loadAll().stream().map(Appointment::getId).toList());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Months outside the window stay on disk but their ids are not reused")
+    void testWindow_leavesOldMonths() {
+        ShardedAppointments repo = open(0);
+        List<Appointment> all = List.of(appointment(9, 7, "2020-01-10 10:00"),
+                                        appointment(4, 7, "2099-07-01 10:00"));
+        assertTrue(repo.saveAll(all));
+        repo.close();
+
+        ShardedStorage storage = new ShardedStorage(dir.toString() + "/", 1);
+        List<Appointment> loaded = storage.appointments().loadAll();
+        assertEquals(List.of(4), loaded.stream().map(Appointment::getId).toList());
+        assertEquals(9, storage.appointments().highestId());
+        assertEquals(9, storage.history(7, YearMonth.of(2020, 1), YearMonth.of(2020, 12)).get(0).getId());
+        storage.close();
+    }
+
+    @Test
+    @DisplayName("A doctor with pending journal records is loaded in full")
+    void testWindow_pendingDoctorLoadedInFull() {
+        ShardedAppointments repo = open(0);
+        Appointment old = appointment(1, 7, "2020-01-10 10:00");
+        assertTrue(repo.saveAll(List.of(old)));
+        old.complete();
+        repo.updateStatus(old);
+        repo.close();
+
+        ShardedAppointments windowed = open(1);
+        List<Appointment> loaded = windowed.loadAll();
+        assertEquals(1, loaded.size());
+        assertEquals(Appointment.Status.COMPLETED, loaded.get(0).getStatus());
+        windowed.close();
+    }
+
+    @Test
+    @DisplayName("Migration copies the single-file appointments and checks them")
+    void testMigrate() {
+        List<Appointment> all = List.of(appointment(1, 7, "2099-07-01 10:00"),
+                                        appointment(2, 8, "2099-09-01 10:00"));
+        String target = dir.resolve("migrated").toString() + "/";
+
+        assertEquals(2, ShardMigrator.migrate(new AppointmentRepository() {
+            @Override public List<Appointment> loadAll()                   { return all; }
+            @Override public boolean saveAll(List<Appointment> items)      { return false; }
+            @Override public boolean insert(List<Appointment> created)     { return false; }
+            @Override public boolean updateStatus(Appointment appointment) { return false; }
+            @Override public int pendingChanges()                          { return 0; }
+            @Override public void close()                                  { }
+        }, target));
+
+        assertTrue(Files.exists(Path.of(target, "8", "2099-09.txt")));
+        ShardedAppointments migrated = new ShardedAppointments(target, 0);
+        assertEquals(2, migrated.loadAll().size());
+        assertEquals(2, migrated.highestId());
+        migrated.close();
+    }
+}
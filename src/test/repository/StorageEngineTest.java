@@ -0,0 +1,212 @@
+package repository;
+
+import model.Appointment;
+import model.AvailabilityTemplate;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import service.AppointmentManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StorageEngine Tests")
+class StorageEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private StorageEngine binary() {
+        return new BinaryStorage(dir.toString() + "/");
+    }
+
+    // Private in-memory database per test; kept open until the pool closes
+    private static StorageEngine jdbc() {
+        return new JdbcStorage("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    @DisplayName("Binary backend round-trips all three record types")
+    void testBinary_roundTrip() {
+        try (StorageEngine storage = binary()) {
+            assertRoundTrip(storage);
+        }
+    }
+
+    @Test
+    @DisplayName("A truncated binary snapshot is warned about and loads as empty")
+    void testBinary_truncatedSnapshot() throws IOException {
+        try (StorageEngine storage = binary()) {
+            assertTrue(storage.appointments().saveAll(List.of(appointment(1, "2099-07-01 10:00"))));
+        }
+        Path file = dir.resolve("appointments.bin");
+        byte[] whole = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(whole, whole.length - 3));
+
+        try (StorageEngine storage = binary()) {
+            assertEquals(List.of(), storage.appointments().loadAll());
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC backend round-trips all three record types")
+    void testJdbc_roundTrip() {
+        try (StorageEngine storage = jdbc()) {
+            assertRoundTrip(storage);
+        }
+    }
+
+    @Test
+    @DisplayName("Appointment status changes survive a reload in every backend")
+    void testStatusChange_reloaded() {
+        for (StorageEngine storage : List.of(binary(), jdbc(), new ShardedStorage(dir + "/sharded/", 0))) {
+            try (storage) {
+                AppointmentRepository repo = storage.appointments();
+                Appointment a = appointment(1, "2099-07-01 10:00");
+                repo.insert(List.of(a));
+                a.cancel();
+                repo.updateStatus(a);
+
+                assertEquals(Appointment.Status.CANCELLED, repo.loadAll().get(0).getStatus(), storage.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Changed records saved on their own survive a reload in every backend")
+    void testSaveChanged_reloaded() {
+        for (StorageEngine storage : List.of(binary(), jdbc())) {
+            try (storage) {
+                Doctor kept    = new Doctor(1, "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                Doctor changed = new Doctor(2, "Sarah Johnson", "Cardiologist", "011-555-0101", "sarah", "sarah123");
+                kept.addAvailableSlot("2099-07-01 09:00");
+                List<Doctor> all = List.of(kept, changed);
+                assertTrue(storage.doctors().saveAll(all));
+
+                changed.addAvailableSlot("2099-07-02 09:00");
+                Doctor added = new Doctor(3, "Priya Naidoo", "Dermatologist", "011-555-0303", "priya", "priya123");
+                assertTrue(storage.doctors().saveChanged(List.of(changed, added), () -> all));
+
+                List<Doctor> loaded = storage.doctors().loadAll();
+                assertEquals(List.of(1, 2, 3), loaded.stream().map(Doctor::getId).toList(), storage.name());
+                assertEquals(List.of("2099-07-01 09:00"), loaded.get(0).getAvailableSlots(), storage.name());
+                assertEquals(List.of("2099-07-02 09:00"), loaded.get(1).getAvailableSlots(), storage.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("AppointmentManager over JDBC sees its bookings after a restart")
+    void testManager_overJdbc() {
+        try (StorageEngine storage = jdbc()) {
+            Doctor  doctor  = new Doctor(1, "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+            Patient patient = new Patient(1, "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+
+            AppointmentManager manager = new AppointmentManager(storage.appointments());
+            Appointment appt = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+            manager.close();
+
+            AppointmentManager reloaded = new AppointmentManager(storage.appointments());
+            assertEquals(1, reloaded.getByPatient(patient.getId()).size());
+            assertEquals(appt.getId(), reloaded.getByPatient(patient.getId()).get(0).getId());
+            reloaded.close();
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC reports a failed insert or update instead of confirming it")
+    void testJdbc_failedWriteReported() {
+        try (StorageEngine storage = jdbc()) {
+            AppointmentRepository repo = storage.appointments();
+            assertTrue(repo.insert(List.of(appointment(1, "2099-07-01 10:00"))));
+
+            // Same primary key: the INSERT fails and nothing of the batch is kept
+            assertFalse(repo.insert(List.of(appointment(2, "2099-07-02 10:00"), appointment(1, "2099-07-03 10:00"))));
+            Appointment missing = appointment(9, "2099-07-04 10:00");
+            missing.cancel();
+            assertFalse(repo.updateStatus(missing));
+
+            assertEquals(List.of(1), repo.loadAll().stream().map(Appointment::getId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC reports a write that fails with a runtime exception, and keeps nothing of it")
+    void testJdbc_runtimeFailureReported() {
+        try (StorageEngine storage = jdbc()) {
+            AppointmentRepository repo = storage.appointments();
+            assertFalse(repo.insert(Arrays.asList(appointment(1, "2099-07-01 10:00"), null)));
+            assertEquals(List.of(), repo.loadAll());
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC skips a stored appointment whose status is unknown")
+    void testJdbc_unknownStatusSkipped() throws SQLException {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        try (StorageEngine storage = new JdbcStorage(url)) {
+            AppointmentRepository repo = storage.appointments();
+            assertTrue(repo.insert(List.of(appointment(1, "2099-07-01 10:00"), appointment(2, "2099-07-02 10:00"))));
+            try (Connection c = DriverManager.getConnection(url); Statement st = c.createStatement()) {
+                st.executeUpdate("UPDATE appointments SET status = 'LOST' WHERE id = 1");
+            }
+            assertEquals(List.of(2), repo.loadAll().stream().map(Appointment::getId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown backend names are rejected")
+    void testOpen_unknownName() {
+        assertThrows(IllegalArgumentException.class, () -> StorageEngine.open("bogus"));
+        try (StorageEngine storage = StorageEngine.open(" Text ")) {
+            assertEquals(TextStorage.NAME, storage.name());
+        }
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static void assertRoundTrip(StorageEngine storage) {
+        Doctor d = new Doctor(7, "Sarah Johnson", "Cardiologist", "011-555-0101", "sarah", "sarah123");
+        d.addAvailableSlot("2099-07-01 09:00");
+        d.addRule(new AvailabilityTemplate(EnumSet.of(DayOfWeek.MONDAY), LocalTime.of(9, 0), LocalTime.of(11, 0),
+                60, LocalDate.of(2099, 7, 1), LocalDate.of(2099, 7, 31)));
+        d.addException(Slot.parse("2099-07-06 09:00"));
+        assertTrue(storage.doctors().saveAll(List.of(d)));
+        assertTrue(storage.patients().saveAll(List.of(
+                new Patient(1, "Zoë Ndlovu", 31, "011-000-0001", "zoe", "pw"))));
+        storage.appointments().insert(List.of(appointment(5, "2099-07-01 10:00"), appointment(3, "2099-07-02 10:00")));
+
+        Doctor loaded = storage.doctors().loadAll().get(0);
+        assertEquals("sarah123", loaded.getPassword());
+        assertEquals(d.getAvailableSlots(), loaded.getAvailableSlots());
+        assertEquals(1, loaded.getRules().size());
+        assertFalse(loaded.isSlotAvailable("2099-07-06 09:00"));
+
+        assertEquals("Zoë Ndlovu", storage.patients().loadAll().get(0).getName());
+
+        List<Appointment> appts = storage.appointments().loadAll();
+        assertEquals(2, appts.size());
+        assertEquals("2099-07-02 10:00",
+                appts.stream().filter(a -> a.getId() == 3).findFirst().orElseThrow().getSlot());
+    }
+
+    private static Appointment appointment(int id, String slot) {
+        return new Appointment(id, 1, "Jabelo Pitso", 2, "John Smith", slot, "Checkup");
+    }
+}
@@ -0,0 +1,182 @@
+package service;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AppointmentManager Tests")
+class AppointmentManagerTest {
+
+    private AppointmentManager manager;
+    private Doctor             doctor;
+    private Patient            patient;
+
+    @BeforeEach
+    void setUp() {
+        new File("data/appointments.txt").delete();
+        new File("data/appointments.journal").delete();
+        manager = new AppointmentManager();
+        doctor  = new Doctor(1, "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+        patient = new Patient(1, "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+        new File("data/appointments.txt").delete();
+        new File("data/appointments.journal").delete();
+    }
+
+    @Test
+    @DisplayName("Created appointments are replayed from the journal on restart")
+    void testJournal_replaysCreates() {
+        Appointment appt = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+
+        AppointmentManager reloaded = new AppointmentManager();
+
+        Appointment found = reloaded.findById(appt.getId()).orElse(null);
+        assertNotNull(found, "Appointment should survive a restart");
+        assertEquals("2099-07-01 10:00", found.getSlot());
+        assertEquals(Appointment.Status.SCHEDULED, found.getStatus());
+    }
+
+    @Test
+    @DisplayName("Status changes are replayed on top of the snapshot")
+    void testJournal_replaysStatusAfterCompaction() {
+        Appointment first  = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+        Appointment second = manager.createAppointment(patient, doctor, "2099-07-01 14:00", "Follow-up");
+        manager.compact();
+
+        first.cancel();
+        manager.persistStatusChange(first);
+        manager.complete(second);
+
+        AppointmentManager reloaded = new AppointmentManager();
+
+        assertEquals(Appointment.Status.CANCELLED, reloaded.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(Appointment.Status.COMPLETED, reloaded.findById(second.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("A batch is replayed whole, or not at all if it was torn")
+    void testJournal_batchAllOrNothing() throws IOException {
+        manager.createAppointments(List.of(
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-01 10:00"), "Physio"),
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-08 10:00"), "Physio")));
+        Path journal = Path.of("data/appointments.journal");
+        List<String> lines = Files.readAllLines(journal);
+        assertEquals(3, lines.size(), "Header plus one line per appointment");
+
+        // The reloaded managers are left open: closing would fold the journal into a snapshot
+        assertEquals(2, new AppointmentManager().getByPatient(patient.getId()).size());
+
+        // A crash part-way through the batch loses all of it
+        Files.write(journal, lines.subList(0, 2));
+        assertTrue(new AppointmentManager().getByPatient(patient.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("New ids continue after replayed appointments")
+    void testJournal_nextIdContinues() {
+        Appointment appt = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+
+        AppointmentManager reloaded = new AppointmentManager();
+        Appointment next = reloaded.createAppointment(patient, doctor, "2099-07-01 14:00", "Follow-up");
+
+        assertEquals(appt.getId() + 1, next.getId());
+    }
+
+    @Test
+    @DisplayName("Conflict index follows cancellation")
+    void testConflict_clearedByCancellation() {
+        Appointment appt = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+        assertTrue(manager.patientHasConflict(patient.getId(), "2099-07-01 10:00"));
+
+        appt.cancel();
+        manager.persistStatusChange(appt);
+
+        assertFalse(manager.patientHasConflict(patient.getId(), "2099-07-01 10:00"));
+    }
+
+    @Test
+    @DisplayName("Doctor lookup only returns scheduled appointments")
+    void testGetByDoctor_excludesCompleted() {
+        Appointment done = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+        manager.createAppointment(patient, doctor, "2099-07-01 14:00", "Follow-up");
+        manager.complete(done);
+
+        assertEquals(1, manager.getByDoctor(doctor.getId()).size());
+        assertEquals(2, manager.getByPatient(patient.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Query pages follow slot order across cursors")
+    void testQuery_keysetPaging() {
+        for (String slot : new String[] { "2099-07-03 09:00", "2099-07-01 10:00", "2099-07-02 11:00",
+                                          "2099-07-01 08:00", "2099-07-02 09:30" })
+            manager.createAppointment(patient, doctor, slot, "Checkup");
+
+        AppointmentQuery q = AppointmentQuery.forPatient(patient.getId()).limit(2);
+        AppointmentQuery.Page first = manager.page(q);
+        AppointmentQuery.Page second = manager.page(q.after(first.nextCursor()));
+        AppointmentQuery.Page last = manager.page(q.after(second.nextCursor()));
+
+        assertEquals(List.of("2099-07-01 08:00", "2099-07-01 10:00"), slots(first.items()));
+        assertEquals(List.of("2099-07-02 09:30", "2099-07-02 11:00"), slots(second.items()));
+        assertEquals(List.of("2099-07-03 09:00"), slots(last.items()));
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    @DisplayName("Query filters by status and slot range, with offset")
+    void testQuery_filters() {
+        Appointment done = manager.createAppointment(patient, doctor, "2099-07-01 10:00", "Checkup");
+        manager.createAppointment(patient, doctor, "2099-07-02 10:00", "Follow-up");
+        manager.createAppointment(patient, doctor, "2099-07-03 10:00", "Follow-up");
+        manager.createAppointment(patient, doctor, "2099-07-04 10:00", "Follow-up");
+        manager.complete(done);
+
+        AppointmentQuery q = AppointmentQuery.forDoctor(doctor.getId()).withStatus(Appointment.Status.SCHEDULED);
+        assertEquals(3, manager.stream(q).count());
+        assertEquals(List.of("2099-07-02 10:00", "2099-07-03 10:00"), slots(manager.stream(
+                q.between(Slot.parse("2099-07-01 00:00"), Slot.parse("2099-07-04 10:00"))).toList()));
+        assertEquals(List.of("2099-07-03 10:00"), slots(manager.stream(q.offset(1).limit(1)).toList()));
+        assertThrows(IllegalArgumentException.class, () -> q.after("not a cursor!"));
+    }
+
+    @Test
+    @DisplayName("Calendar range reads return only scheduled slots in range")
+    void testCalendar_range() {
+        manager.createAppointment(patient, doctor, "2099-07-01 08:00", "Checkup");
+        Appointment cancelled = manager.createAppointment(patient, doctor, "2099-07-01 09:00", "Checkup");
+        Appointment done = manager.createAppointment(patient, doctor, "2099-07-02 10:00", "Checkup");
+        manager.createAppointment(patient, doctor, "2099-07-02 17:00", "Checkup");
+        manager.createAppointment(patient, doctor, "2099-07-08 09:00", "Checkup");
+        cancelled.cancel();
+        manager.persistStatusChange(cancelled);
+        manager.complete(done);
+
+        assertEquals(List.of("2099-07-01 08:00", "2099-07-02 17:00"),
+                slots(manager.getByDoctorForDays(doctor.getId(), LocalDate.of(2099, 7, 1), 7)));
+        assertEquals(List.of("2099-07-02 17:00", "2099-07-08 09:00"), slots(manager.getByDoctorBetween(
+                doctor.getId(), Slot.parse("2099-07-01 08:01"), Slot.parse("2099-07-08 09:01"))));
+        assertTrue(manager.getByDoctorForDays(doctor.getId(), LocalDate.of(2099, 7, 3), 1).isEmpty());
+        assertTrue(manager.getByDoctorForDays(99, LocalDate.of(2099, 7, 1), 7).isEmpty());
+    }
+
+    private static List<String> slots(List<Appointment> list) {
+        return list.stream().map(Appointment::getSlot).collect(Collectors.toList());
+    }
+}
@@ -1,11 +1,19 @@
 package service;
 
 import model.Appointment;
+import model.AvailabilityTemplate;
 import model.Doctor;
 import model.Patient;
+import model.Slot;
 import org.junit.jupiter.api.*;
+import repository.AppointmentRepository;
 
 import java.io.File;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,8 +31,11 @@ class AppointmentServiceTest {
     @BeforeEach
     void setUp() {
         new File("data/appointments.txt").delete();
+        new File("data/appointments.journal").delete();
         new File("data/patients.txt").delete();
+        new File("data/patients.journal").delete();
         new File("data/doctors.txt").delete();
+        new File("data/doctors.journal").delete();
 
         manager            = new AppointmentManager();
         doctorService      = new DoctorService();
@@ -32,9 +43,9 @@ class AppointmentServiceTest {
         appointmentService = new AppointmentService(manager);
 
         doctor  = doctorService.register(
-                "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
         patient = patientService.register(
-                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234").value();
 
         doctor.addAvailableSlot("2099-07-01 10:00");
         doctor.addAvailableSlot("2099-07-01 14:00");
@@ -43,15 +54,18 @@ class AppointmentServiceTest {
     @AfterEach
     void tearDown() {
         new File("data/appointments.txt").delete();
+        new File("data/appointments.journal").delete();
         new File("data/patients.txt").delete();
+        new File("data/patients.journal").delete();
         new File("data/doctors.txt").delete();
+        new File("data/doctors.journal").delete();
     }
 
     @Test
     @DisplayName("Book appointment successfully")
     void testBook_success() {
         Appointment appt = appointmentService.book(
-                patient, doctor, "2099-07-01 10:00", "Checkup");
+                patient, doctor, "2099-07-01 10:00", "Checkup").value();
 
         assertNotNull(appt);
         assertEquals(Appointment.Status.SCHEDULED, appt.getStatus());
@@ -72,10 +86,10 @@ class AppointmentServiceTest {
     @Test
     @DisplayName("Booking fails when slot is not available on doctor")
     void testBook_slotNotAvailable() {
-        Appointment appt = appointmentService.book(
+        Result<Appointment> appt = appointmentService.book(
                 patient, doctor, "2099-12-31 09:00", "Checkup");
 
-        assertNull(appt, "Booking with unavailable slot should return null");
+        assertEquals(ErrorCode.SLOT_UNAVAILABLE, appt.error(), "Booking with unavailable slot should be refused");
     }
 
     @Test
@@ -83,52 +97,54 @@ class AppointmentServiceTest {
     void testBook_pastSlotRejected() {
         doctor.addAvailableSlot("2000-01-01 10:00");
 
-        Appointment appt = appointmentService.book(
+        Result<Appointment> appt = appointmentService.book(
                 patient, doctor, "2000-01-01 10:00", "Checkup");
 
-        assertNull(appt, "Past slot should be rejected by DateValidator");
+        assertEquals(ErrorCode.SLOT_IN_PAST, appt.error(), "Past slot should be rejected");
     }
 
     @Test
     @DisplayName("Booking fails when patient already has appointment at same slot")
     void testBook_conflictDetected() {
         Doctor doctor2 = doctorService.register(
-                "Jane Doe", "Dermatologist", "011-000-0505", "jane", "jane123");
+                "Jane Doe", "Dermatologist", "011-000-0505", "jane", "jane123").value();
         doctor2.addAvailableSlot("2099-07-01 10:00");
 
         appointmentService.book(patient, doctor, "2099-07-01 10:00", "Checkup");
 
-        Appointment conflict = appointmentService.book(
+        Result<Appointment> conflict = appointmentService.book(
                 patient, doctor2, "2099-07-01 10:00", "Skin check");
 
-        assertNull(conflict, "Conflicting appointment should return null");
+        assertEquals(ErrorCode.PATIENT_CONFLICT, conflict.error(), "Conflicting appointment should be refused");
+        assertTrue(doctor2.isSlotAvailable("2099-07-01 10:00"), "Refused booking must not claim the slot");
     }
 
     @Test
     @DisplayName("Patient can book two appointments at different times")
     void testBook_differentSlots_success() {
         Doctor doctor2 = doctorService.register(
-                "Jane Doe", "Dermatologist", "011-000-0505", "jane", "jane123");
+                "Jane Doe", "Dermatologist", "011-000-0505", "jane", "jane123").value();
         doctor2.addAvailableSlot("2099-08-01 09:00");
 
-        Appointment appt1 = appointmentService.book(
+        Result<Appointment> appt1 = appointmentService.book(
                 patient, doctor,  "2099-07-01 10:00", "Checkup");
-        Appointment appt2 = appointmentService.book(
+        Result<Appointment> appt2 = appointmentService.book(
                 patient, doctor2, "2099-08-01 09:00", "Skin check");
 
-        assertNotNull(appt1, "First booking should succeed");
-        assertNotNull(appt2, "Second booking at different time should succeed");
+        assertTrue(appt1.isOk(), "First booking should succeed");
+        assertTrue(appt2.isOk(), "Second booking at different time should succeed");
     }
 
     @Test
     @DisplayName("Cancel appointment successfully")
     void testCancel_success() {
         Appointment appt = appointmentService.book(
-                patient, doctor, "2099-07-01 10:00", "Checkup");
+                patient, doctor, "2099-07-01 10:00", "Checkup").value();
 
-        boolean result = appointmentService.cancel(appt.getId(), patient, doctorService);
+        Result<Appointment> result = appointmentService.cancel(appt.getId(), patient, doctorService);
 
-        assertTrue(result);
+        assertTrue(result.isOk());
+        assertSame(appt, result.value());
         assertEquals(Appointment.Status.CANCELLED, appt.getStatus());
     }
 
@@ -149,23 +165,24 @@ class AppointmentServiceTest {
     @Test
     @DisplayName("Cancellation fails for non-existent appointment")
     void testCancel_notFound() {
-        boolean result = appointmentService.cancel(999, patient, doctorService);
+        Result<Appointment> result = appointmentService.cancel(999, patient, doctorService);
 
-        assertFalse(result, "Cancelling non-existent appointment should return false");
+        assertEquals(ErrorCode.NOT_FOUND, result.error(), "Cancelling non-existent appointment should be refused");
+        assertEquals("Appointment #999 not found.", result.message());
     }
 
     @Test
     @DisplayName("Patient cannot cancel another patient's appointment")
     void testCancel_wrongPatient() {
         Patient otherPatient = patientService.register(
-                "Other Person", 30, "011-000-0002", "other", "pass");
+                "Other Person", 30, "011-000-0002", "other", "pass").value();
 
         Appointment appt = appointmentService.book(
-                patient, doctor, "2099-07-01 10:00", "Checkup");
+                patient, doctor, "2099-07-01 10:00", "Checkup").value();
 
-        boolean result = appointmentService.cancel(appt.getId(), otherPatient, doctorService);
+        Result<Appointment> result = appointmentService.cancel(appt.getId(), otherPatient, doctorService);
 
-        assertFalse(result, "Patient should not cancel another patient's appointment");
+        assertEquals(ErrorCode.NOT_OWNER, result.error(), "Patient should not cancel another patient's appointment");
         assertEquals(Appointment.Status.SCHEDULED, appt.getStatus());
     }
 
@@ -173,12 +190,13 @@ class AppointmentServiceTest {
     @DisplayName("Cannot cancel an already cancelled appointment")
     void testCancel_alreadyCancelled() {
         Appointment appt = appointmentService.book(
-                patient, doctor, "2099-07-01 10:00", "Checkup");
+                patient, doctor, "2099-07-01 10:00", "Checkup").value();
 
         appointmentService.cancel(appt.getId(), patient, doctorService);
 
         assertThrows(IllegalStateException.class, appt::cancel,
                 "Cancelling an already cancelled appointment should throw exception");
+        assertEquals(ErrorCode.NOT_SCHEDULED, appointmentService.cancel(appt.getId(), patient, doctorService).error());
     }
 
     @Test
@@ -197,7 +215,7 @@ class AppointmentServiceTest {
     @DisplayName("Cancelled appointments excluded from scheduled list")
     void testGetScheduledForPatient_excludesCancelled() {
         Appointment appt = appointmentService.book(
-                patient, doctor, "2099-07-01 10:00", "Checkup");
+                patient, doctor, "2099-07-01 10:00", "Checkup").value();
 
         appointmentService.cancel(appt.getId(), patient, doctorService);
 
@@ -206,4 +224,118 @@ class AppointmentServiceTest {
 
         assertEquals(0, scheduled.size());
     }
+
+    @Test
+    @DisplayName("A batch books every slot together")
+    void testBookAll_success() {
+        List<Appointment> booked = appointmentService.bookAll(List.of(
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-01 10:00"), "Physio"),
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-01 14:00"), "Physio"))).value();
+
+        assertEquals(2, booked.size());
+        assertTrue(doctor.getAvailableSlots().isEmpty());
+        assertEquals(2, manager.getByPatient(patient.getId()).size());
+    }
+
+    @Test
+    @DisplayName("A batch with one unavailable slot books nothing")
+    void testBookAll_allOrNothing() {
+        Patient other = patientService.register("Thandi Mokoena", 31, "011-000-0002", "thandi", "abcd").value();
+        appointmentService.book(other, doctor, "2099-07-01 14:00", "Checkup");
+
+        Result<List<Appointment>> booked = appointmentService.bookAll(List.of(
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-01 10:00"), "Physio"),
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-01 14:00"), "Physio")));
+
+        assertEquals(ErrorCode.SLOT_UNAVAILABLE, booked.error());
+        assertTrue(doctor.isSlotAvailable("2099-07-01 10:00"), "First slot must not stay claimed");
+        assertTrue(manager.getByPatient(patient.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A batch repeating a slot is rejected")
+    void testBookAll_duplicateRejected() {
+        Slot slot = Slot.parse("2099-07-01 10:00");
+
+        assertEquals(ErrorCode.DUPLICATE_SLOT, appointmentService.bookAll(List.of(
+                new BookingRequest(patient, doctor, slot, "Physio"),
+                new BookingRequest(patient, doctor, slot, "Physio"))).error());
+        assertTrue(doctor.isSlotAvailable(slot));
+    }
+
+    @Test
+    @DisplayName("A rule added over a booked one-off slot does not reopen it")
+    void testAddRule_overBookedSlot() {
+        Patient other = patientService.register("Thandi Mokoena", 31, "011-000-0002", "thandi", "abcd").value();
+        appointmentService.book(patient, doctor, "2099-07-01 10:00", "Checkup").value();
+        AvailabilityTemplate rule = new AvailabilityTemplate(EnumSet.allOf(DayOfWeek.class),
+                LocalTime.of(10, 0), LocalTime.of(11, 0), 30, LocalDate.of(2099, 7, 1), LocalDate.of(2099, 7, 1));
+
+        doctorService.addSlots(doctor, rule,
+                appointmentService.getBookedSlots(doctor.getId(), rule.getFirstDay(), rule.getLastDay())).join();
+
+        assertFalse(doctor.isSlotAvailable("2099-07-01 10:00"));
+        assertEquals(ErrorCode.SLOT_UNAVAILABLE,
+                appointmentService.book(other, doctor, "2099-07-01 10:00", "Checkup").error());
+        assertTrue(appointmentService.book(other, doctor, "2099-07-01 10:30", "Checkup").isOk());
+    }
+
+    @Test
+    @DisplayName("A slot the doctor is already booked at is refused even if it shows as open")
+    void testBook_doctorAlreadyBooked() {
+        Patient other = patientService.register("Thandi Mokoena", 31, "011-000-0002", "thandi", "abcd").value();
+        appointmentService.book(patient, doctor, "2099-07-01 10:00", "Checkup").value();
+        doctor.addAvailableSlot("2099-07-01 10:00");
+
+        assertEquals(ErrorCode.SLOT_UNAVAILABLE,
+                appointmentService.book(other, doctor, "2099-07-01 10:00", "Checkup").error());
+        assertEquals(ErrorCode.SLOT_UNAVAILABLE, appointmentService.bookAll(List.of(
+                new BookingRequest(other, doctor, Slot.parse("2099-07-01 10:00"), "Physio"))).error());
+    }
+
+    @Test
+    @DisplayName("A booking that cannot be saved is refused and leaves nothing behind")
+    void testBook_writeFails() {
+        AppointmentManager failing = new AppointmentManager(new ArrayList<>(), new AppointmentRepository() {
+            @Override public List<Appointment> loadAll()                   { return new ArrayList<>(); }
+            @Override public boolean saveAll(List<Appointment> items)      { return false; }
+            @Override public boolean insert(List<Appointment> created)     { return false; }
+            @Override public boolean updateStatus(Appointment appointment) { return false; }
+            @Override public int pendingChanges()                          { return 0; }
+            @Override public void close()                                  { }
+        });
+        AppointmentService service = new AppointmentService(failing);
+
+        assertEquals(ErrorCode.NOT_SAVED, service.book(patient, doctor, "2099-07-01 10:00", "Checkup").error());
+        assertEquals(ErrorCode.NOT_SAVED, service.bookAll(List.of(
+                new BookingRequest(patient, doctor, Slot.parse("2099-07-01 14:00"), "Physio"))).error());
+
+        assertTrue(doctor.isSlotAvailable("2099-07-01 10:00"), "Slot must be given back");
+        assertTrue(doctor.isSlotAvailable("2099-07-01 14:00"), "Batch slot must be given back");
+        assertTrue(failing.getByPatient(patient.getId()).isEmpty());
+        assertFalse(failing.patientHasConflict(patient.getId(), "2099-07-01 10:00"));
+        assertTrue(patient.getAppointmentIds().isEmpty());
+        failing.close();
+    }
+
+    @Test
+    @DisplayName("A cancellation that cannot be saved keeps the appointment and its slot")
+    void testCancel_writeFails() {
+        Appointment appt = appointmentService.book(patient, doctor, "2099-07-01 10:00", "Checkup").value();
+        AppointmentManager failing = new AppointmentManager(List.of(appt), new AppointmentRepository() {
+            @Override public List<Appointment> loadAll()                   { return List.of(appt); }
+            @Override public boolean saveAll(List<Appointment> items)      { return false; }
+            @Override public boolean insert(List<Appointment> created)     { return false; }
+            @Override public boolean updateStatus(Appointment appointment) { return false; }
+            @Override public int pendingChanges()                          { return 0; }
+            @Override public void close()                                  { }
+        });
+
+        assertEquals(ErrorCode.NOT_SAVED,
+                new AppointmentService(failing).cancel(appt.getId(), patient, doctorService).error());
+        assertEquals(Appointment.Status.SCHEDULED, appt.getStatus());
+        assertFalse(doctor.isSlotAvailable("2099-07-01 10:00"));
+        assertTrue(failing.patientHasConflict(patient.getId(), "2099-07-01 10:00"));
+        failing.close();
+    }
 }
@@ -0,0 +1,146 @@
+package service;
+
+import model.Appointment;
+import model.AvailabilityTemplate;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Concurrent Booking Tests")
+class BookingConcurrencyTest {
+
+    private static final int THREADS  = 16;
+    private static final int DOCTORS  = 4;
+    private static final int SLOTS    = 25;
+    private static final int PATIENTS = 40;
+    private static final int ATTEMPTS = 200;   // per thread
+
+    private AppointmentManager manager;
+    private AppointmentService appointmentService;
+    private PrintStream        console;
+
+    @BeforeEach
+    void setUp() {
+        new File("data/appointments.txt").delete();
+        new File("data/appointments.journal").delete();
+        manager            = new AppointmentManager();
+        appointmentService = new AppointmentService(manager);
+
+        // Every booking prints — keep the stress run quiet and uncontended on stdout
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(console);
+        manager.close();
+        new File("data/appointments.txt").delete();
+        new File("data/appointments.journal").delete();
+    }
+
+    @Test
+    @DisplayName("No slot is ever double-booked and no patient is double-booked")
+    void testConcurrentBooking_noDoubleBooking() throws Exception {
+        List<Doctor> doctors = new ArrayList<>();
+        List<String> slots   = new ArrayList<>();
+        for (int s = 0; s < SLOTS; s++)
+            slots.add(String.format("2099-07-%02d %02d:00", 1 + s / 8, 9 + s % 8));
+        for (int d = 1; d <= DOCTORS; d++) {
+            Doctor doctor = new Doctor(d, "Doctor " + d, "GP", "000", "doc" + d, "pw");
+            slots.forEach(doctor::addAvailableSlot);
+            doctors.add(doctor);
+        }
+        List<Patient> patients = new ArrayList<>();
+        for (int p = 1; p <= PATIENTS; p++)
+            patients.add(new Patient(p, "Patient " + p, 30, "000", "p" + p, "pw"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < ATTEMPTS; i++) {
+                    Patient patient = patients.get(random.nextInt(PATIENTS));
+                    Doctor  doctor  = doctors.get(random.nextInt(DOCTORS));
+                    String  slot    = slots.get(random.nextInt(SLOTS));
+                    if (appointmentService.book(patient, doctor, slot, "Stress").isOk())
+                        booked.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        Set<String> doctorSlots  = new HashSet<>();
+        Set<String> patientSlots = new HashSet<>();
+        int total = 0;
+        for (Doctor doctor : doctors) {
+            for (Appointment a : manager.getByDoctor(doctor.getId())) {
+                total++;
+                assertTrue(doctorSlots.add(a.getDoctorId() + "|" + a.getSlot()),
+                        "Slot double-booked: " + a.getSlot() + " for doctor #" + a.getDoctorId());
+                assertTrue(patientSlots.add(a.getPatientId() + "|" + a.getSlot()),
+                        "Patient #" + a.getPatientId() + " double-booked at " + a.getSlot());
+                assertFalse(doctor.isSlotAvailable(a.getSlot()),
+                        "Booked slot must not remain open");
+            }
+        }
+        assertEquals(booked.get(), total, "Every successful booking should be recorded once");
+
+        int open = 0;
+        for (Doctor doctor : doctors) open += doctor.getAvailableSlotCount();
+        assertEquals(DOCTORS * SLOTS, open + total, "Slots are either open or booked, never lost");
+    }
+
+    @Test
+    @DisplayName("A slot claimed while a covering rule is added stays closed")
+    void testClaimDuringAddRule_staysClosed() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 50; round++) {
+                Doctor doctor = new Doctor(1, "Doctor 1", "GP", "000", "doc1", "pw");
+                List<Slot> slots = new ArrayList<>();
+                for (int h = 8; h < 16; h++) slots.add(Slot.parse(String.format("2099-07-01 %02d:00", h)));
+                slots.forEach(doctor::addAvailableSlot);
+                AvailabilityTemplate rule = new AvailabilityTemplate(EnumSet.allOf(DayOfWeek.class),
+                        LocalTime.of(8, 0), LocalTime.of(16, 0), 60,
+                        LocalDate.of(2099, 7, 1), LocalDate.of(2099, 7, 1));
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> claims = new ArrayList<>();
+                for (Slot slot : slots) claims.add(pool.submit(() -> {
+                    start.await();
+                    return doctor.claimSlot(slot);
+                }));
+                start.countDown();
+                doctor.addRule(rule);
+
+                for (int i = 0; i < slots.size(); i++)
+                    if (claims.get(i).get(10, TimeUnit.SECONDS))
+                        assertFalse(doctor.isSlotAvailable(slots.get(i)), "Claimed " + slots.get(i) + " reopened");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
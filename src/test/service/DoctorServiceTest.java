@@ -1,9 +1,20 @@
 package service;
 
+import model.AvailabilityTemplate;
 import model.Doctor;
+import model.Slot;
 import org.junit.jupiter.api.*;
+import repository.Repository;
 
 import java.io.File;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,19 +26,21 @@ class DoctorServiceTest {
     @BeforeEach
     void setUp() {
         new File("data/doctors.txt").delete();
+        new File("data/doctors.journal").delete();
         doctorService = new DoctorService();
     }
 
     @AfterEach
     void tearDown() {
         new File("data/doctors.txt").delete();
+        new File("data/doctors.journal").delete();
     }
 
     @Test
     @DisplayName("Register doctor successfully")
     void testRegister_success() {
         Doctor d = doctorService.register(
-                "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
 
         assertNotNull(d);
         assertEquals("John Smith", d.getName());
@@ -40,10 +53,10 @@ class DoctorServiceTest {
     void testRegister_duplicateUsername() {
         doctorService.register(
                 "John Smith", "Surgeon", "011-000-0404", "john", "john123");
-        Doctor duplicate = doctorService.register(
+        Result<Doctor> duplicate = doctorService.register(
                 "Jane Doe", "Cardiologist", "011-000-0505", "john", "pass456");
 
-        assertNull(duplicate, "Duplicate username should return null");
+        assertEquals(ErrorCode.USERNAME_TAKEN, duplicate.error(), "Duplicate username should be refused");
     }
 
     @Test
@@ -56,7 +69,7 @@ class DoctorServiceTest {
     @Test
     @DisplayName("Doctor login succeeds with correct credentials")
     void testLogin_success() {
-        Doctor loggedIn = doctorService.login("sarah", "sarah123").orElse(null);
+        Doctor loggedIn = doctorService.login("sarah", "sarah123").value();
 
         assertNotNull(loggedIn);
         assertEquals("Sarah Johnson", loggedIn.getName());
@@ -65,22 +78,22 @@ class DoctorServiceTest {
     @Test
     @DisplayName("Doctor login fails with wrong password")
     void testLogin_wrongPassword() {
-        assertTrue(doctorService.login("sarah", "wrongpassword").isEmpty(),
-                "Wrong password should return empty Optional");
+        assertEquals(ErrorCode.INVALID_CREDENTIALS, doctorService.login("sarah", "wrongpassword").error(),
+                "Wrong password should be refused");
     }
 
     @Test
     @DisplayName("Doctor login fails with unknown username")
     void testLogin_unknownUsername() {
-        assertTrue(doctorService.login("nobody", "1234").isEmpty(),
-                "Unknown username should return empty Optional");
+        assertEquals(ErrorCode.INVALID_CREDENTIALS, doctorService.login("nobody", "1234").error(),
+                "Unknown username should be refused");
     }
 
     @Test
     @DisplayName("Doctor can add an available slot")
     void testAddSlot() {
         Doctor d = doctorService.register(
-                "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
         d.addAvailableSlot("2099-07-01 10:00");
 
         assertTrue(d.getAvailableSlots().contains("2099-07-01 10:00"),
@@ -91,7 +104,7 @@ class DoctorServiceTest {
     @DisplayName("Doctor cannot add duplicate slot")
     void testAddSlot_noDuplicates() {
         Doctor d = doctorService.register(
-                "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
         d.addAvailableSlot("2099-07-01 10:00");
         d.addAvailableSlot("2099-07-01 10:00");
 
@@ -103,7 +116,7 @@ class DoctorServiceTest {
     @DisplayName("Doctor can remove a slot")
     void testRemoveSlot() {
         Doctor d = doctorService.register(
-                "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
         d.addAvailableSlot("2099-07-01 10:00");
         d.removeSlot("2099-07-01 10:00");
 
@@ -111,11 +124,30 @@ class DoctorServiceTest {
                 "Slot should be removed");
     }
 
+    @Test
+    @DisplayName("Available slots are returned earliest first")
+    void testSlots_sorted() {
+        Doctor d = doctorService.register(
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
+        d.addAvailableSlot("2099-07-02 09:00");
+        d.addAvailableSlot("2099-07-01 14:00");
+        d.addAvailableSlot("2099-07-01 10:00");
+
+        assertEquals(List.of("2099-07-01 10:00", "2099-07-01 14:00", "2099-07-02 09:00"),
+                d.getAvailableSlots());
+        assertEquals(Slot.parse("2099-07-01 14:00"),
+                d.nextAvailableSlotAfter(Slot.parse("2099-07-01 10:00")).orElse(null));
+        assertEquals(2, d.getAvailableSlotsBetween(Slot.parse("2099-07-01 00:00"),
+                                                   Slot.parse("2099-07-02 00:00")).size());
+        assertEquals(1, d.getAvailableSlotsBetween(Slot.parse("2099-07-01 00:00"),
+                                                   Slot.parse("2099-07-01 14:00")).size());
+    }
+
     @Test
     @DisplayName("Find doctor by ID returns correct doctor")
     void testFindById_success() {
         Doctor registered = doctorService.register(
-                "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+                "John Smith", "Surgeon", "011-000-0404", "john", "john123").value();
         Doctor found = doctorService.findById(registered.getId()).orElse(null);
 
         assertNotNull(found);
@@ -128,4 +160,124 @@ class DoctorServiceTest {
         assertTrue(doctorService.findById(999).isEmpty(),
                 "Should return empty Optional for unknown ID");
     }
+
+    @Test
+    @DisplayName("Slot search merges one specialization's slots, earliest first")
+    void testFindAvailableSlots_merged() {
+        Doctor a = doctorService.register("Ann Ray", "Neurologist", "011-000-0505", "ann", "pw").value();
+        Doctor b = doctorService.register("Ben Cole", "neurologist ", "011-000-0606", "ben", "pw").value();
+        Doctor other = doctorService.register("Cai Lin", "Surgeon", "011-000-0707", "cai", "pw").value();
+        a.addAvailableSlot("2099-07-01 09:00");
+        a.addAvailableSlot("2099-07-03 09:00");
+        b.addAvailableSlot("2099-07-02 09:00");
+        b.addAvailableSlot("2099-07-01 09:00");
+        b.addAvailableSlot("2099-07-05 09:00");
+        other.addAvailableSlot("2099-07-01 08:00");
+
+        List<DoctorService.OpenSlot> found = doctorService.findAvailableSlots("NEUROLOGIST", null, null, 4);
+
+        assertEquals(List.of("2099-07-01 09:00", "2099-07-01 09:00", "2099-07-02 09:00", "2099-07-03 09:00"),
+                found.stream().map(o -> o.slot().toString()).toList());
+        assertEquals(List.of(a, b, b, a), found.stream().map(DoctorService.OpenSlot::doctor).toList());
+    }
+
+    @Test
+    @DisplayName("Slot search honours the window and skips past slots")
+    void testFindAvailableSlots_window() {
+        Doctor d = doctorService.register("Ann Ray", "Neurologist", "011-000-0505", "ann", "pw").value();
+        d.addAvailableSlot("2020-01-01 09:00");
+        d.addAvailableSlot("2099-07-01 09:00");
+        d.addAvailableSlot("2099-07-02 09:00");
+        d.addAvailableSlot("2099-07-03 09:00");
+
+        assertEquals(List.of(Slot.parse("2099-07-01 09:00")),
+                doctorService.findAvailableSlots("Neurologist", null, null, 1).stream()
+                        .map(DoctorService.OpenSlot::slot).toList());
+        assertEquals(1, doctorService.findAvailableSlots("Neurologist",
+                Slot.parse("2099-07-02 00:00"), Slot.parse("2099-07-03 09:00"), 10).size(), "The end is exclusive");
+        assertEquals(2, doctorService.findAvailableSlots("Neurologist",
+                Slot.parse("2099-07-02 00:00"), Slot.parse("2099-07-03 09:01"), 10).size());
+        assertTrue(doctorService.findAvailableSlots("Dentist", null, null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A recurring template is added with a single save")
+    void testAddSlots_oneFlush() {
+        PersistenceScheduler persistence = new PersistenceScheduler(60_000, 1_000);
+        try {
+            DoctorService service = new DoctorService(new ArrayList<>(), persistence);
+            persistence.flush();
+            long writesBefore = persistence.writes();
+            Doctor d = service.register("Ann Ray", "Neurologist", "011-000-0505", "ann", "pw").value();
+            persistence.flush();
+            AvailabilityTemplate template = new AvailabilityTemplate(EnumSet.allOf(DayOfWeek.class),
+                    LocalTime.of(8, 0), LocalTime.of(12, 0), 15, LocalDate.of(2099, 7, 1), LocalDate.of(2099, 7, 31));
+
+            CompletableFuture<Integer> added = service.addSlots(d, template, List.of());
+            persistence.flush();
+
+            assertEquals(31 * 16, added.join());
+            assertEquals(31 * 16, d.getAvailableSlotCount());
+            assertEquals(writesBefore + 2, persistence.writes(), "One write for register, one for the template");
+        } finally {
+            persistence.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A slot edit saves only the changed doctor")
+    void testSaveDoctor_writesOnlyChanged() {
+        List<Integer> written = new ArrayList<>();
+        Repository<Doctor> repository = new Repository<>() {
+            @Override public List<Doctor> loadAll()             { return new ArrayList<>(); }
+            @Override public boolean saveAll(List<Doctor> list) { throw new AssertionError("full rewrite"); }
+            @Override public boolean saveChanged(List<Doctor> changed, Supplier<List<Doctor>> all) {
+                written.add(changed.size());
+                return true;
+            }
+        };
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 1; i <= 500; i++)
+            doctors.add(new Doctor(i, "Doctor " + i, "Surgeon", "011-000-0000", "doc" + i, "pw"));
+        DoctorService service = new DoctorService(doctors, PersistenceScheduler.writeThrough(), repository);
+
+        Doctor d = service.findById(250).orElseThrow();
+        d.addAvailableSlot("2099-07-01 10:00");
+        service.saveDoctor(d).join();
+        d.removeSlot("2099-07-01 10:00");
+        service.saveDoctor(d).join();
+
+        assertEquals(List.of(1, 1), written);
+    }
+
+    @Test
+    @DisplayName("Doctors whose save threw are written on the next flush")
+    void testSaveDoctor_retriedAfterThrow() {
+        List<Integer> written = new ArrayList<>();
+        Repository<Doctor> repository = new Repository<>() {
+            @Override public List<Doctor> loadAll()             { return new ArrayList<>(); }
+            @Override public boolean saveAll(List<Doctor> list) { return true; }
+            @Override public boolean saveChanged(List<Doctor> changed, Supplier<List<Doctor>> all) {
+                if (written.isEmpty()) { written.add(-1); throw new IllegalStateException("disk gone"); }
+                for (Doctor d : changed) written.add(d.getId());
+                return true;
+            }
+        };
+        PersistenceScheduler persistence = new PersistenceScheduler(60_000, 1_000);
+        try {
+            List<Doctor> doctors = new ArrayList<>(List.of(
+                    new Doctor(7, "John Smith", "Surgeon", "011-000-0404", "john", "john123")));
+            DoctorService service = new DoctorService(doctors, persistence, repository);
+            Doctor d = service.findById(7).orElseThrow();
+
+            CompletableFuture<Void> ack = service.saveDoctor(d);
+            persistence.flush();
+            assertTrue(ack.isCompletedExceptionally());
+
+            persistence.flush();
+            assertEquals(List.of(-1, 7), written, "The doctor must not be lost after the throw");
+        } finally {
+            persistence.close();
+        }
+    }
 }
@@ -15,19 +15,21 @@ class PatientServiceTest {
     @BeforeEach
     void setUp() {
         new File("data/patients.txt").delete();
+        new File("data/patients.journal").delete();
         patientService = new PatientService();
     }
 
     @AfterEach
     void tearDown() {
         new File("data/patients.txt").delete();
+        new File("data/patients.journal").delete();
     }
 
     @Test
     @DisplayName("Register patient successfully")
     void testRegister_success() {
         Patient p = patientService.register(
-                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234").value();
 
         assertNotNull(p);
         assertEquals("Jabelo Pitso", p.getName());
@@ -35,33 +37,47 @@ class PatientServiceTest {
         assertEquals(25,             p.getAge());
     }
 
+    @Test
+    @DisplayName("Registration fails when a required field is blank or the age is out of range")
+    void testRegister_invalidFields() {
+        assertEquals(ErrorCode.REQUIRED_FIELD,
+                patientService.register(" ", 25, "011-000-0001", "jabelo", "1234").error());
+        assertEquals(ErrorCode.REQUIRED_FIELD,
+                patientService.register("Jabelo Pitso", 25, "011-000-0001", "", "1234").error());
+        assertEquals("Password is required.",
+                patientService.register("Jabelo Pitso", 25, "011-000-0001", "jabelo", null).message());
+        assertEquals(ErrorCode.INVALID_AGE,
+                patientService.register("Jabelo Pitso", -1, "011-000-0001", "jabelo", "1234").error());
+        assertTrue(patientService.getAllPatients().isEmpty());
+    }
+
     @Test
     @DisplayName("Registration fails when username is already taken")
     void testRegister_duplicateUsername() {
         patientService.register("Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
-        Patient duplicate = patientService.register(
+        Result<Patient> duplicate = patientService.register(
                 "Other Person", 30, "011-000-0002", "jabelo", "5678");
 
-        assertNull(duplicate, "Duplicate username should return null");
+        assertEquals(ErrorCode.USERNAME_TAKEN, duplicate.error(), "Duplicate username should be refused");
     }
 
     @Test
     @DisplayName("Registration fails for duplicate username with different casing")
     void testRegister_duplicateUsername_caseInsensitive() {
         patientService.register("Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
-        Patient duplicate = patientService.register(
+        Result<Patient> duplicate = patientService.register(
                 "Other Person", 30, "011-000-0002", "JABELO", "5678");
 
-        assertNull(duplicate, "Username check should be case-insensitive");
+        assertEquals(ErrorCode.USERNAME_TAKEN, duplicate.error(), "Username check should be case-insensitive");
     }
 
     @Test
     @DisplayName("Multiple patients can register with different usernames")
     void testRegister_multiplePatients() {
         Patient p1 = patientService.register(
-                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234").value();
         Patient p2 = patientService.register(
-                "John Smith",   30, "011-000-0002", "john",   "5678");
+                "John Smith",   30, "011-000-0002", "john",   "5678").value();
 
         assertNotNull(p1);
         assertNotNull(p2);
@@ -72,7 +88,7 @@ class PatientServiceTest {
     @DisplayName("Login succeeds with correct credentials")
     void testLogin_success() {
         patientService.register("Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
-        Patient loggedIn = patientService.login("jabelo", "1234");
+        Patient loggedIn = patientService.login("jabelo", "1234").value();
 
         assertNotNull(loggedIn);
         assertEquals("Jabelo Pitso", loggedIn.getName());
@@ -82,33 +98,33 @@ class PatientServiceTest {
     @DisplayName("Login succeeds regardless of username casing")
     void testLogin_caseInsensitiveUsername() {
         patientService.register("Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
-        Patient loggedIn = patientService.login("JABELO", "1234");
+        Result<Patient> loggedIn = patientService.login("JABELO", "1234");
 
-        assertNotNull(loggedIn, "Login should work with uppercase username");
+        assertTrue(loggedIn.isOk(), "Login should work with uppercase username");
     }
 
     @Test
     @DisplayName("Login fails with wrong password")
     void testLogin_wrongPassword() {
         patientService.register("Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
-        Patient loggedIn = patientService.login("jabelo", "wrongpassword");
+        Result<Patient> loggedIn = patientService.login("jabelo", "wrongpassword");
 
-        assertNull(loggedIn, "Wrong password should return null");
+        assertEquals(ErrorCode.INVALID_CREDENTIALS, loggedIn.error(), "Wrong password should be refused");
     }
 
     @Test
     @DisplayName("Login fails with non-existent username")
     void testLogin_unknownUsername() {
-        Patient loggedIn = patientService.login("nobody", "1234");
+        Result<Patient> loggedIn = patientService.login("nobody", "1234");
 
-        assertNull(loggedIn, "Unknown username should return null");
+        assertEquals(ErrorCode.INVALID_CREDENTIALS, loggedIn.error(), "Unknown username should be refused");
     }
 
     @Test
     @DisplayName("Find patient by ID returns correct patient")
     void testFindById_success() {
         Patient registered = patientService.register(
-                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+                "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234").value();
         Patient found = patientService.findById(registered.getId()).orElse(null);
 
         assertNotNull(found);
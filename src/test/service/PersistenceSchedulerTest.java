@@ -0,0 +1,95 @@
+package service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PersistenceScheduler Tests")
+class PersistenceSchedulerTest {
+
+    private PersistenceScheduler scheduler;
+    private final AtomicInteger  saves = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    @DisplayName("A burst of marks is written once")
+    void testMarks_coalesced() {
+        scheduler = new PersistenceScheduler(60_000, 1_000);
+        scheduler.register("doctors", () -> { saves.incrementAndGet(); return true; });
+
+        CompletableFuture<Void> first = scheduler.markDirty("doctors");
+        for (int i = 0; i < 9; i++) scheduler.markDirty("doctors");
+        assertFalse(first.isDone(), "Nothing should be written before the flush");
+
+        scheduler.flush();
+
+        assertTrue(first.isDone());
+        assertEquals(1, saves.get());
+        assertEquals(9, scheduler.writesAvoided());
+    }
+
+    @Test
+    @DisplayName("Reaching the batch size flushes without waiting for the interval")
+    void testBatchSize_triggersFlush() throws Exception {
+        scheduler = new PersistenceScheduler(60_000, 3);
+        scheduler.register("patients", () -> { saves.incrementAndGet(); return true; });
+
+        scheduler.markDirty("patients");
+        scheduler.markDirty("patients");
+        scheduler.markDirty("patients").get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    @DisplayName("A failed write fails the acknowledgement and is retried")
+    void testFailedWrite_retried() {
+        scheduler = new PersistenceScheduler(60_000, 1_000);
+        scheduler.register("doctors", () -> saves.incrementAndGet() > 1);
+
+        CompletableFuture<Void> ack = scheduler.markDirty("doctors");
+        scheduler.flush();
+        assertTrue(ack.isCompletedExceptionally());
+
+        scheduler.flush();
+        assertEquals(2, saves.get(), "Target should stay dirty after a failed write");
+    }
+
+    @Test
+    @DisplayName("A writer that throws fails the acknowledgement and is retried")
+    void testThrowingWrite_retried() {
+        scheduler = new PersistenceScheduler(60_000, 1_000);
+        scheduler.register("doctors", () -> {
+            if (saves.incrementAndGet() == 1) throw new IllegalStateException("disk gone");
+            return true;
+        });
+
+        CompletableFuture<Void> ack = scheduler.markDirty("doctors");
+        scheduler.flush();
+        assertTrue(ack.isCompletedExceptionally());
+
+        CompletableFuture<Void> retry = scheduler.markDirty("doctors");
+        scheduler.flush();
+        assertEquals(2, saves.get(), "Target should stay dirty after a writer threw");
+        assertTrue(retry.isDone() && !retry.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Write-through writes on every mark")
+    void testWriteThrough() {
+        scheduler = PersistenceScheduler.writeThrough();
+        scheduler.register("doctors", () -> { saves.incrementAndGet(); return true; });
+
+        assertTrue(scheduler.markDirty("doctors").isDone());
+        assertTrue(scheduler.markDirty("doctors").isDone());
+        assertEquals(2, saves.get());
+    }
+}
@@ -0,0 +1,97 @@
+package util;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BinarySnapshot Tests")
+class BinarySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Doctors round-trip with their slots")
+    void testDoctors_roundTrip() throws IOException {
+        Doctor d = new Doctor(7, "Sarah Johnson", "Cardiologist", "011-555-0101", "sarah", "sarah123");
+        d.addAvailableSlot("2099-07-01 10:00");
+        d.addAvailableSlot("2099-07-01 09:00");
+        String path = dir.resolve("doctors.bin").toString();
+
+        BinarySnapshot.saveDoctors(List.of(d), path);
+        Doctor loaded = BinarySnapshot.loadDoctors(path).get(0);
+
+        assertEquals(7, loaded.getId());
+        assertEquals("Cardiologist", loaded.getSpecialization());
+        assertEquals("sarah123", loaded.getPassword());
+        assertEquals(List.of("2099-07-01 09:00", "2099-07-01 10:00"), loaded.getAvailableSlots());
+    }
+
+    @Test
+    @DisplayName("Patients round-trip including non-ASCII names")
+    void testPatients_roundTrip() throws IOException {
+        String path = dir.resolve("patients.bin").toString();
+
+        BinarySnapshot.savePatients(List.of(
+                new Patient(1, "Zoë Ndlovu", 31, "011-000-0001", "zoe", "pw")), path);
+        Patient loaded = BinarySnapshot.loadPatients(path).get(0);
+
+        assertEquals("Zoë Ndlovu", loaded.getName());
+        assertEquals(31, loaded.getAge());
+        assertEquals("zoe", loaded.getUsername());
+    }
+
+    @Test
+    @DisplayName("Appointments round-trip with status and out-of-order ids")
+    void testAppointments_roundTrip() throws IOException {
+        Appointment a = new Appointment(5, 1, "Jabelo Pitso", 2, "John Smith", "2099-07-01 10:00", "Checkup");
+        Appointment b = new Appointment(3, 1, "Jabelo Pitso", 2, "John Smith", "2099-07-02 10:00", "Follow-up");
+        b.cancel();
+        String path = dir.resolve("appointments.bin").toString();
+
+        BinarySnapshot.saveAppointments(List.of(a, b), path);
+        List<Appointment> loaded = BinarySnapshot.loadAppointments(path);
+
+        assertEquals(5, loaded.get(0).getId());
+        assertEquals(3, loaded.get(1).getId());
+        assertEquals("2099-07-02 10:00", loaded.get(1).getSlot());
+        assertEquals(Appointment.Status.CANCELLED, loaded.get(1).getStatus());
+        assertEquals("John Smith", loaded.get(0).getDoctorName());
+    }
+
+    @Test
+    @DisplayName("Loading a file of the wrong kind fails")
+    void testWrongKind_rejected() throws IOException {
+        String path = dir.resolve("patients.bin").toString();
+        BinarySnapshot.savePatients(List.of(), path);
+
+        assertThrows(IOException.class, () -> BinarySnapshot.loadDoctors(path));
+        Files.writeString(Path.of(path), "not a snapshot");
+        assertThrows(IOException.class, () -> BinarySnapshot.loadPatients(path));
+    }
+
+    @Test
+    @DisplayName("A truncated file fails as an IOException, at whatever point it was cut")
+    void testTruncated_rejected() throws IOException {
+        Doctor d = new Doctor(7, "Sarah Johnson", "Cardiologist", "011-555-0101", "sarah", "sarah123");
+        d.addAvailableSlot("2099-07-01 10:00");
+        Path path = dir.resolve("doctors.bin");
+        BinarySnapshot.saveDoctors(List.of(d), path.toString());
+        byte[] whole = Files.readAllBytes(path);
+
+        for (int len = 0; len < whole.length; len++) {
+            Files.write(path, Arrays.copyOf(whole, len));
+            assertThrows(IOException.class, () -> BinarySnapshot.loadDoctors(path.toString()), len + " byte(s)");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package util;
+
+import model.AvailabilityTemplate;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileManager Tests")
+class FileManagerTest {
+
+    private static final Path PATIENTS = Path.of(FileManager.DATA_DIR, "patients.txt");
+    private static final Path REJECTED = Path.of(FileManager.DATA_DIR, "patients.txt.rejected");
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        new File(PATIENTS.toString()).delete();
+        new File(REJECTED.toString()).delete();
+        new File(PATIENTS + ".tmp").delete();
+    }
+
+    private static List<Patient> twoPatients() {
+        return List.of(
+                new Patient(1, "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234"),
+                new Patient(2, "Thandi Mokoena", 31, "011-000-0002", "thandi", "abcd"));
+    }
+
+    @Test
+    @DisplayName("Saved records carry a checksum and load back")
+    void testSave_roundTrip() throws IOException {
+        assertTrue(FileManager.savePatients(twoPatients()));
+
+        List<String> lines = Files.readAllLines(PATIENTS, StandardCharsets.UTF_8);
+        assertTrue(lines.stream().allMatch(FileManager::hasChecksum));
+        assertFalse(Files.exists(Path.of(PATIENTS + ".tmp")), "Temp file should be renamed away");
+        assertEquals(2, FileManager.loadPatients().size());
+    }
+
+    @Test
+    @DisplayName("A corrupted record is skipped and quarantined")
+    void testLoad_skipsCorruptRecord() throws IOException {
+        FileManager.savePatients(twoPatients());
+        List<String> lines = Files.readAllLines(PATIENTS, StandardCharsets.UTF_8);
+        lines.set(0, lines.get(0).replace("Jabelo", "Jabel0"));
+        Files.write(PATIENTS, lines, StandardCharsets.UTF_8);
+
+        List<Patient> loaded = FileManager.loadPatients();
+
+        assertEquals(1, loaded.size());
+        assertEquals("thandi", loaded.get(0).getUsername());
+        assertEquals(1, Files.readAllLines(REJECTED, StandardCharsets.UTF_8).size());
+
+        FileManager.loadPatients();
+        assertEquals(1, Files.readAllLines(REJECTED, StandardCharsets.UTF_8).size(),
+                "Loading again must not quarantine the same line twice");
+    }
+
+    @Test
+    @DisplayName("A torn last line is skipped")
+    void testLoad_skipsTornLine() throws IOException {
+        FileManager.savePatients(twoPatients());
+        String content = Files.readString(PATIENTS, StandardCharsets.UTF_8);
+        Files.writeString(PATIENTS, content.substring(0, content.length() - 12), StandardCharsets.UTF_8);
+
+        assertEquals(1, FileManager.loadPatients().size());
+    }
+
+    @Test
+    @DisplayName("Files written before checksums still load")
+    void testLoad_legacyLines() throws IOException {
+        Files.write(PATIENTS, List.of("1|Jabelo Pitso|25|011-000-0001|jabelo|1234"), StandardCharsets.UTF_8);
+
+        List<Patient> loaded = FileManager.loadPatients();
+
+        assertEquals(1, loaded.size());
+        assertEquals("1234", loaded.get(0).getPassword());
+        assertFalse(Files.exists(REJECTED));
+    }
+
+    @Test
+    @DisplayName("Files larger than one chunk parse in parallel and keep their order")
+    void testLoad_parallelChunksKeepOrder() throws IOException {
+        List<Patient> many = new ArrayList<>();
+        for (int i = 1; i <= 40_000; i++)
+            many.add(new Patient(i, "Patient " + i, 30, "011-000-" + i, "user" + i, "pw" + i));
+        FileManager.savePatients(many);
+        assertTrue(Files.size(PATIENTS) > 2 << 20, "Test needs several parse chunks");
+
+        List<Patient> loaded = FileManager.loadPatients();
+
+        assertEquals(40_000, loaded.size());
+        for (int i = 0; i < loaded.size(); i++) assertEquals(i + 1, loaded.get(i).getId());
+    }
+
+    @Test
+    @DisplayName("Doctor availability is saved as rules plus exceptions, not expanded slots")
+    void testDoctors_rulesRoundTrip() throws IOException {
+        Path doctors = Path.of(FileManager.DATA_DIR, "doctors.txt");
+        byte[] original = Files.exists(doctors) ? Files.readAllBytes(doctors) : null;
+        try {
+            Doctor d = new Doctor(1, "John Smith", "Surgeon", "011-000-0404", "john", "john123");
+            d.addRule(new AvailabilityTemplate(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                    LocalTime.of(8, 0), LocalTime.of(17, 0), 15, LocalDate.of(2099, 1, 1), LocalDate.of(2099, 12, 31)));
+            Slot booked = Slot.parse("2099-07-01 09:15");
+            assertTrue(d.claimSlot(booked));
+            assertFalse(d.claimSlot(booked), "A rule slot can only be claimed once");
+            d.addAvailableSlot("2099-07-04 10:00");   // a Saturday, outside the rule
+
+            assertTrue(FileManager.saveDoctors(List.of(d)));
+            assertTrue(Files.size(doctors) < 300, "Rules must not be expanded on disk");
+            Doctor loaded = FileManager.loadDoctors().get(0);
+
+            assertEquals(d.getRules(), loaded.getRules());
+            assertFalse(loaded.isSlotAvailable(booked));
+            assertTrue(loaded.isSlotAvailable(Slot.parse("2099-07-01 09:30")));
+            assertTrue(loaded.isSlotAvailable(Slot.parse("2099-07-04 10:00")));
+            assertEquals(List.of(Slot.parse("2099-07-01 09:00"), Slot.parse("2099-07-01 09:30")),
+                    loaded.nextAvailableSlots(Slot.parse("2099-07-01 09:00"), 2));
+        } finally {
+            if (original != null) Files.write(doctors, original);
+            else Files.deleteIfExists(doctors);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package util;
+
+import model.Appointment;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedAppointmentStore Tests")
+class MappedAppointmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private String records;
+    private String heap;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        records = dir.resolve("appointments.dat").toString();
+        heap    = dir.resolve("appointments.heap").toString();
+        Files.writeString(dir.resolve("appointments.txt"),
+                "1|10|Jabelo Pitso|2|John Smith|2099-07-01 10:00|Checkup|SCHEDULED\n"
+              + "2|11|Other Person|2|John Smith|2099-07-01 14:00|Follow-up|CANCELLED\n"
+              + "garbage line\n"
+              + "3|10|Jabelo Pitso|3|Jane Doe|2099-07-02 09:00|Skin check|COMPLETED\n");
+    }
+
+    @Test
+    @DisplayName("Imported records are read back lazily and intact")
+    void testImport_readsBack() throws IOException {
+        try (MappedAppointmentStore store = MappedAppointmentStore.importText(
+                dir.resolve("appointments.txt").toString(), records, heap)) {
+
+            assertEquals(3, store.size(), "Unparseable lines are skipped");
+            assertEquals(11, store.patientIdAt(1));
+            assertEquals(Appointment.Status.CANCELLED, store.statusAt(1));
+
+            Appointment a = store.get(2);
+            assertEquals(3, a.getId());
+            assertEquals("Jane Doe", a.getDoctorName());
+            assertEquals("2099-07-02 09:00", a.getSlot());
+            assertEquals("Skin check", a.getReason());
+            assertEquals(Appointment.Status.COMPLETED, a.getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Status updates and appends survive reopening")
+    void testUpdateAndAppend_persist() throws IOException {
+        MappedAppointmentStore.importText(dir.resolve("appointments.txt").toString(), records, heap).close();
+
+        try (MappedAppointmentStore store = MappedAppointmentStore.open(records, heap)) {
+            store.setStatus(store.indexOf(1), Appointment.Status.COMPLETED);
+            store.append(new Appointment(4, 12, "New Patient", 2, "John Smith",
+                    "2099-08-01 08:00", "First visit"));
+            store.force();
+        }
+
+        try (MappedAppointmentStore store = MappedAppointmentStore.open(records, heap)) {
+            assertEquals(4, store.size());
+            assertEquals(Appointment.Status.COMPLETED, store.statusAt(store.indexOf(1)));
+            assertEquals("New Patient", store.get(store.indexOf(4)).getPatientName());
+            assertEquals(-1, store.indexOf(99));
+            assertArrayEquals(new int[] { 1, 1, 2 }, store.countByStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("The archive is re-imported only when the text snapshot is newer")
+    void testOpenArchive_refreshes() throws IOException {
+        String text = dir.resolve("appointments.txt").toString();
+        try (MappedAppointmentStore store = MappedAppointmentStore.openArchive(text, records, heap)) {
+            assertEquals(3, store.size());
+            assertArrayEquals(new int[] { 2 }, store.indexesOfDoctor(3));
+            assertArrayEquals(new int[] { 1, 1, 0 }, store.countByDoctorAndStatus().get(2));
+        }
+
+        Files.writeString(dir.resolve("appointments.txt"),
+                "4|12|New Patient|3|Jane Doe|2099-08-01 08:00|First visit|SCHEDULED\n");
+        dir.resolve("appointments.txt").toFile().setLastModified(System.currentTimeMillis() + 60_000);
+        try (MappedAppointmentStore store = MappedAppointmentStore.openArchive(text, records, heap)) {
+            assertEquals(1, store.size());
+            assertEquals(4, store.get(0).getId());
+        }
+        try (MappedAppointmentStore store = MappedAppointmentStore.openArchive(text, records, heap)) {
+            assertEquals(1, store.size(), "Unchanged snapshot: opened, not re-imported");
+        }
+    }
+
+    @Test
+    @DisplayName("A failed import leaves the previous archive in place")
+    void testImport_failureKeepsArchive() throws IOException {
+        MappedAppointmentStore.importText(dir.resolve("appointments.txt").toString(), records, heap).close();
+        Path unreadable = Files.createDirectory(dir.resolve("not-a-file"));
+
+        assertThrows(IOException.class,
+                () -> MappedAppointmentStore.importText(unreadable.toString(), records, heap));
+
+        assertFalse(Files.exists(Path.of(records + ".tmp")));
+        assertFalse(Files.exists(Path.of(heap + ".tmp")));
+        try (MappedAppointmentStore store = MappedAppointmentStore.open(records, heap)) {
+            assertEquals(3, store.size());
+            assertEquals("Jane Doe", store.get(2).getDoctorName());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Metrics Tests")
+class MetricsTest {
+
+    @Test
+    @DisplayName("Histogram quantiles are within one sub-bucket and never under-report")
+    void testHistogram_quantiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v * 1_000);   // 1 µs .. 100 ms, uniform
+
+        assertEquals(100_000, h.count());
+        assertEquals(100_000_000L, h.maxNanos());
+        for (double q : new double[] { 0.5, 0.9, 0.99, 0.999 }) {
+            long exact = (long) (q * 100_000) * 1_000;
+            long reported = h.quantileNanos(q);
+            assertTrue(reported >= exact, q + ": " + reported + " < " + exact);
+            assertTrue(reported <= exact * 17 / 16, q + ": " + reported + " too far above " + exact);
+        }
+        assertEquals(h.maxNanos(), h.quantileNanos(1.0));
+    }
+
+    @Test
+    @DisplayName("Bucket bounds are contiguous and every value falls inside its own bucket")
+    void testHistogram_buckets() {
+        for (long v : new long[] { 0, 1, 15, 16, 17, 31, 32, 1_000, 999_999, 1L << 40, Long.MAX_VALUE }) {
+            int i = LatencyHistogram.index(v);
+            assertTrue(v <= LatencyHistogram.upperBound(i), "value " + v);
+            if (i > 0) assertTrue(v > LatencyHistogram.upperBound(i - 1), "value " + v);
+        }
+        assertEquals(0, new LatencyHistogram().quantileNanos(0.99));
+    }
+
+    @Test
+    @DisplayName("Prometheus output has HELP/TYPE lines, quantile labels, _sum and _count")
+    void testPrometheus_format() {
+        LatencyHistogram h = Metrics.histogram("test_op_seconds", "Test operation", "kind", "a\"b");
+        h.record(2_000_000);
+        LongAdder c = Metrics.counter("test_events_total", "Test events");
+        c.add(3);
+        Metrics.gauge("test_level", "Test gauge", () -> 1.5);
+
+        String text = Metrics.prometheus();
+        assertTrue(text.contains("# HELP test_op_seconds Test operation\n"));
+        assertTrue(text.contains("# TYPE test_op_seconds summary\n"));
+        assertTrue(text.contains("test_op_seconds{kind=\"a\\\"b\",quantile=\"0.99\"} 0.002\n"), text);
+        assertTrue(text.contains("test_op_seconds_count{kind=\"a\\\"b\"} 1\n"));
+        assertTrue(text.contains("# TYPE test_events_total counter\ntest_events_total 3\n"));
+        assertTrue(text.contains("# TYPE test_level gauge\ntest_level 1.5\n"));
+        assertTrue(Metrics.describe().contains("test_events_total"));
+    }
+
+    @Test
+    @DisplayName("A name is reused for the same series and refused for a different type")
+    void testRegistry_sameSeries() {
+        assertSame(Metrics.counter("test_same_total", "x", "k", "v"), Metrics.counter("test_same_total", "x", "k", "v"));
+        assertNotSame(Metrics.counter("test_same_total", "x", "k", "v"), Metrics.counter("test_same_total", "x", "k", "w"));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.histogram("test_same_total", "x"));
+    }
+}
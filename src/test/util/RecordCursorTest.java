@@ -0,0 +1,53 @@
+package util;
+
+import model.Appointment;
+import model.Slot;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RecordCursor Tests")
+class RecordCursorTest {
+
+    @Test
+    @DisplayName("Fields are read in place and trimmed")
+    void testFields() {
+        RecordCursor c = RecordCursor.of(" 42 |Dr. Zoë Ndlovu| 2099-07-01 10:00 |CANCELLED|-7");
+
+        assertEquals(42, c.nextInt());
+        assertEquals("Dr. Zoë Ndlovu", c.nextString());
+        assertSame(Slot.parse("2099-07-01 10:00"), c.nextSlot());
+        assertEquals(Appointment.Status.CANCELLED, c.nextEnum(Appointment.Status.values()));
+        assertEquals(-7, c.nextInt());
+        assertFalse(c.hasNext());
+    }
+
+    @Test
+    @DisplayName("Repeated shared fields return the same String")
+    void testSharedStrings() {
+        RecordCursor c = new RecordCursor();
+        byte[] line = "Checkup|Checkup".getBytes();
+        c.reset(line, 0, line.length);
+
+        assertSame(c.nextSharedString(), c.nextSharedString());
+    }
+
+    @Test
+    @DisplayName("Bad fields are rejected and slot lists skip invalid entries")
+    void testInvalid() {
+        assertThrows(NumberFormatException.class, () -> RecordCursor.of("12x").nextInt());
+        assertThrows(NumberFormatException.class, () -> RecordCursor.of("99999999999").nextInt());
+        assertThrows(IllegalArgumentException.class,
+                () -> RecordCursor.of("BOOKED").nextEnum(Appointment.Status.values()));
+
+        List<Slot>   slots   = new ArrayList<>();
+        List<String> invalid = new ArrayList<>();
+        RecordCursor.of("2099-07-01 10:00, nope ,2099-07-02 09:00").nextSlots(slots::add, invalid::add);
+
+        assertEquals(2, slots.size());
+        assertEquals(List.of("nope"), invalid);
+    }
+}
@@ -0,0 +1,60 @@
+package util;
+
+import model.Doctor;
+import model.Patient;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RecordJournal Tests")
+class RecordJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("The last record per id wins and new ids follow the snapshot")
+    void testReplay_lastWins() {
+        RecordJournal<Patient> journal = RecordJournal.patients(dir.resolve("patients.journal").toString());
+        Patient renamed = new Patient(1, "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234");
+        journal.append(List.of(renamed));
+        renamed.setName("Jabelo P.");
+        journal.append(List.of(renamed, new Patient(3, "Zoë Ndlovu", 31, "011-000-0003", "zoe", "pw")));
+        journal.close();
+
+        List<Patient> loaded = RecordJournal.patients(dir.resolve("patients.journal").toString()).replay(List.of(
+                new Patient(1, "Jabelo Pitso", 25, "011-000-0001", "jabelo", "1234"),
+                new Patient(2, "Thandi Mokoena", 31, "011-000-0002", "thandi", "abcd")));
+
+        assertEquals(List.of(1, 2, 3), loaded.stream().map(Patient::getId).toList());
+        assertEquals("Jabelo P.", loaded.get(0).getName());
+        assertEquals("Zoë Ndlovu", loaded.get(2).getName());
+    }
+
+    @Test
+    @DisplayName("A doctor line carries its slots, and a torn tail is skipped")
+    void testReplay_doctorAndTornLine() throws IOException {
+        Path path = dir.resolve("doctors.journal");
+        RecordJournal<Doctor> journal = RecordJournal.doctors(path.toString());
+        Doctor d = new Doctor(4, "Sarah Johnson", "Cardiologist", "011-555-0101", "sarah", "sarah123");
+        d.addAvailableSlot("2099-07-01 09:00");
+        journal.append(List.of(d));
+        journal.close();
+        Files.writeString(path, "R|4|Sarah Jo", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        RecordJournal<Doctor> reopened = RecordJournal.doctors(path.toString());
+        List<Doctor> loaded = reopened.replay(List.of());
+
+        assertEquals(1, loaded.size());
+        assertEquals(List.of("2099-07-01 09:00"), loaded.get(0).getAvailableSlots());
+        assertEquals(1, reopened.size(), "Only applied records count towards compaction");
+    }
+}
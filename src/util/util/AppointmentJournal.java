@@ -0,0 +1,174 @@
+package util;
+
+import model.Appointment;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of appointment changes, written between snapshots.
+ * Each create or status change is one line, so a booking costs O(1) I/O
+ * instead of rewriting the whole appointments file.
+ *
+ * FORMAT:  C|id|patientId|patientName|doctorId|doctorName|slot|reason|status|#crc
+ *          S|id|status|#crc
+ *          B|count|#crc      followed by count C lines that stand or fall together
+ *
+ * The CRC suffix is the same one FileManager writes; journals from before
+ * checksums are still replayed.
+ */
+public class AppointmentJournal {
+
+    private final JournalFile file;
+
+    public AppointmentJournal() {
+        this(FileManager.APPOINTMENTS_JOURNAL);
+    }
+
+    public AppointmentJournal(String path) {
+        this.file = new JournalFile(path, "appointment journal");
+    }
+
+    // ── Writing ───────────────────────────────────────────────────────────────
+
+    /** False if the record could not be written and fsynced; see {@link #append}. */
+    public boolean appendCreated(Appointment a) {
+        return append(List.of(FileManager.withChecksum("C|" + FileManager.formatAppointment(a))));
+    }
+
+    /**
+     * Journals a batch of new appointments as one unit: a B header and its C
+     * lines go out in one write and one fsync, and replay applies either all
+     * of them or none.
+     */
+    public boolean appendCreated(List<Appointment> batch) {
+        List<String> lines = new ArrayList<>(batch.size() + 1);
+        lines.add(FileManager.withChecksum("B|" + batch.size()));
+        for (Appointment a : batch) lines.add(FileManager.withChecksum("C|" + FileManager.formatAppointment(a)));
+        return append(lines);
+    }
+
+    public boolean appendStatus(Appointment a) {
+        return append(List.of(FileManager.withChecksum("S|" + a.getId() + "|" + a.getStatus())));
+    }
+
+    /**
+     * Writes all lines and fsyncs once, so a batch of changes shares a
+     * single disk flush. False if that failed: none of the lines is then in
+     * the journal, and the change must not be reported as made.
+     */
+    public boolean append(List<String> lines) {
+        return file.append(lines);
+    }
+
+    /** Empties the journal once its contents have been folded into a snapshot. */
+    public void reset() { file.reset(); }
+
+    public int size() { return file.size(); }
+
+    public void close() { file.close(); }
+
+    // ── Replay ────────────────────────────────────────────────────────────────
+
+    /**
+     * Applies every journal record on top of a snapshot keyed by appointment id.
+     * Records are idempotent, so replaying a journal that was already folded
+     * into the snapshot (crash between compaction steps) is harmless.
+     * A torn last line from a crash mid-append is skipped, and so is the
+     * whole of a batch that is missing any of its lines.
+     */
+    public synchronized void replay(Map<Integer, Appointment> snapshot) {
+        File journal = new File(file.path());
+        if (!journal.exists()) return;
+        int applied = 0, skipped = 0;
+        boolean checked = false;
+        // Lines of the batch being read; null outside a batch
+        List<String> batch = null;
+        int batchSize = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(journal, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                // Once the journal carries checksums, an unchecked line can only be torn
+                boolean hasChecksum = FileManager.hasChecksum(line);
+                checked |= hasChecksum;
+                String record = hasChecksum ? FileManager.verifyChecksum(line) : checked ? null : line;
+
+                if (batch != null) {
+                    batch.add(record);
+                    if (batch.size() < batchSize) continue;
+                    int n = applyBatch(batch, snapshot);
+                    applied += n;
+                    skipped += batch.size() - n;
+                    batch = null;
+                } else if (record != null && record.startsWith("B|")) {
+                    batchSize = batchSize(record);
+                    if (batchSize > 0) batch = new ArrayList<>(batchSize);
+                    else skipped++;
+                } else if (record != null && apply(record, snapshot)) {
+                    applied++;
+                } else {
+                    skipped++;
+                }
+            }
+            if (batch != null) skipped += batch.size();   // torn batch at the end
+        } catch (IOException e) {
+            System.out.println("  WARNING: Could not replay appointment journal -- " + e.getMessage());
+        }
+        file.replayed(applied);
+        if (skipped > 0)
+            System.out.println("  WARNING: Skipped " + skipped + " unreadable journal record(s).");
+    }
+
+    private static int batchSize(String header) {
+        try {
+            return Integer.parseInt(header.substring(2).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Applies every create in the batch, or none if any line is unreadable
+    private static int applyBatch(List<String> lines, Map<Integer, Appointment> snapshot) {
+        List<Appointment> parsed = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            Appointment a = null;
+            try {
+                if (line != null && line.startsWith("C|")) a = FileManager.parseAppointment(line.substring(2));
+            } catch (IllegalArgumentException e) {
+                // Torn or foreign line — the batch is dropped below
+            }
+            if (a == null) return 0;
+            parsed.add(a);
+        }
+        for (Appointment a : parsed) snapshot.put(a.getId(), a);
+        return parsed.size();
+    }
+
+    private static boolean apply(String line, Map<Integer, Appointment> snapshot) {
+        try {
+            if (line.startsWith("C|")) {
+                Appointment a = FileManager.parseAppointment(line.substring(2));
+                if (a == null) return false;
+                snapshot.put(a.getId(), a);
+                return true;
+            }
+            if (line.startsWith("S|")) {
+                String[] f = line.split("\\|");
+                if (f.length < 3) return false;
+                Appointment a = snapshot.get(Integer.parseInt(f[1].trim()));
+                if (a == null) return false;
+                a.setStatus(Appointment.Status.valueOf(f[2].trim()));
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            // Bad number, unknown status or invalid slot: torn or foreign line
+        }
+        return false;
+    }
+}
@@ -0,0 +1,332 @@
+package util;
+
+import model.Appointment;
+import model.AvailabilityTemplate;
+import model.Doctor;
+import model.Patient;
+import model.Slot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Versioned binary snapshots of the three data sets — an optional, faster to
+ * load alternative to the pipe-delimited text files.
+ *
+ * FORMAT (all integers are unsigned LEB128 varints unless noted):
+ *   magic "DASB" (4 bytes) | version (1 byte) | kind 'D'/'P'/'A' (1 byte)
+ *   dictionary: count, then count × (byteLength, UTF-8 bytes)
+ *   records:    count, then count × record
+ *
+ *   doctor      id, name$, specialization#, contact$, username$, password$,
+ *               slotCount, one-off slots as ascending epoch-minute deltas,
+ *               ruleCount, rules$ (AvailabilityTemplate text),
+ *               exceptionCount, exceptions as ascending epoch-minute deltas
+ *               (version 1 files end after the slots)
+ *   patient     id, name$, age, contact$, username$, password$
+ *   appointment id delta, patientId, patientName#, doctorId, doctorName#,
+ *               slot (epoch-minute + 1, or 0 followed by slot$), reason#, status ordinal
+ *
+ * '#' marks an index into the dictionary, so a name repeated on every
+ * appointment is stored once. '$' is an inline (byteLength, UTF-8 bytes)
+ * string, used for fields that are unique per record.
+ */
+public class BinarySnapshot {
+
+    public static final String DOCTORS_FILE      = FileManager.DATA_DIR + "doctors.bin";
+    public static final String PATIENTS_FILE     = FileManager.DATA_DIR + "patients.bin";
+    public static final String APPOINTMENTS_FILE = FileManager.DATA_DIR + "appointments.bin";
+
+    private static final byte[] MAGIC   = { 'D', 'A', 'S', 'B' };
+    private static final byte   VERSION = 2;
+
+    private static final Appointment.Status[] STATUSES = Appointment.Status.values();
+
+    // ── Doctors ───────────────────────────────────────────────────────────────
+
+    public static void saveDoctors(List<Doctor> doctors, String path) throws IOException {
+        Encoder e = new Encoder();
+        for (Doctor d : doctors) {
+            e.varint(d.getId());
+            e.inline(d.getName());
+            e.string(d.getSpecialization());
+            e.inline(d.getContactNumber());
+            e.inline(d.getUsername());
+            e.inline(d.getPassword());
+            long[] slots = d.getOneOffSlotMinutes();
+            e.varint(slots.length);
+            long prev = 0;
+            for (long s : slots) { e.varlong(s - prev); prev = s; }
+            e.varint(d.getRules().size());
+            for (AvailabilityTemplate r : d.getRules()) e.inline(r.toString());
+            e.varint(d.getExceptionMinutes().size());
+            prev = 0;
+            for (long m : d.getExceptionMinutes()) { e.varlong(m - prev); prev = m; }
+        }
+        e.writeTo(path, 'D', doctors.size());
+    }
+
+    public static List<Doctor> loadDoctors(String path) throws IOException {
+        return decode(path, 'D', in -> {
+            List<Doctor> list = new ArrayList<>(in.count);
+            for (int i = 0; i < in.count; i++) {
+                Doctor d = new Doctor(in.varint(), in.inline(), in.string(),
+                                      in.inline(), in.inline(), in.inline());
+                int slots = in.count();
+                long prev = 0;
+                for (int s = 0; s < slots; s++) {
+                    prev += in.varlong();
+                    d.addOneOffSlotMinute(prev);
+                }
+                if (in.version >= 2) {
+                    int rules = in.count();
+                    for (int r = 0; r < rules; r++) d.addRule(AvailabilityTemplate.parse(in.inline()));
+                    int exceptions = in.count();
+                    prev = 0;
+                    for (int x = 0; x < exceptions; x++) {
+                        prev += in.varlong();
+                        d.addExceptionMinute(prev);
+                    }
+                }
+                list.add(d);
+            }
+            return list;
+        });
+    }
+
+    // ── Patients ──────────────────────────────────────────────────────────────
+
+    public static void savePatients(List<Patient> patients, String path) throws IOException {
+        Encoder e = new Encoder();
+        for (Patient p : patients) {
+            e.varint(p.getId());
+            e.inline(p.getName());
+            e.varint(p.getAge());
+            e.inline(p.getContactNumber());
+            e.inline(p.getUsername());
+            e.inline(p.getPassword());
+        }
+        e.writeTo(path, 'P', patients.size());
+    }
+
+    public static List<Patient> loadPatients(String path) throws IOException {
+        return decode(path, 'P', in -> {
+            List<Patient> list = new ArrayList<>(in.count);
+            for (int i = 0; i < in.count; i++)
+                list.add(new Patient(in.varint(), in.inline(), in.varint(),
+                                     in.inline(), in.inline(), in.inline()));
+            return list;
+        });
+    }
+
+    // ── Appointments ──────────────────────────────────────────────────────────
+
+    public static void saveAppointments(List<Appointment> appointments, String path) throws IOException {
+        Encoder e = new Encoder();
+        int prevId = 0;
+        for (Appointment a : appointments) {
+            // Zig-zag so out-of-order ids still encode as a small varint
+            int delta = a.getId() - prevId;
+            e.varint((delta << 1) ^ (delta >> 31));
+            prevId = a.getId();
+            e.varint(a.getPatientId());
+            e.string(a.getPatientName());
+            e.varint(a.getDoctorId());
+            e.string(a.getDoctorName());
+            // Slots are always parsed now; the 0 + inline form is only read, for older files
+            e.varlong(a.getSlotTime().epochMinute() + 1);
+            e.string(a.getReason());
+            e.varint(a.getStatus().ordinal());
+        }
+        e.writeTo(path, 'A', appointments.size());
+    }
+
+    public static List<Appointment> loadAppointments(String path) throws IOException {
+        return decode(path, 'A', in -> {
+            List<Appointment> list = new ArrayList<>(in.count);
+            int prevId = 0;
+            for (int i = 0; i < in.count; i++) {
+                int zz = in.varint();
+                int id = prevId + ((zz >>> 1) ^ -(zz & 1));
+                prevId = id;
+                int patientId      = in.varint();
+                String patientName = in.string();
+                int doctorId       = in.varint();
+                String doctorName  = in.string();
+                long slotMinute    = in.varlong();
+                // Straight from the stored minute; only the older inline form is parsed
+                Slot slot          = slotMinute == 0 ? Slot.parse(in.inline()) : Slot.ofEpochMinute(slotMinute - 1);
+                Appointment a = new Appointment(id, patientId, patientName,
+                                                doctorId, doctorName, slot, in.string());
+                a.setStatus(STATUSES[in.varint()]);
+                list.add(a);
+            }
+            return list;
+        });
+    }
+
+    // ── Encoding ──────────────────────────────────────────────────────────────
+
+    private static final class Encoder {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private byte[] buf = new byte[8192];
+        private int len;
+
+        void string(String s) {
+            Integer ref = dictionary.get(s);
+            if (ref == null) {
+                ref = strings.size();
+                dictionary.put(s, ref);
+                strings.add(s);
+            }
+            varint(ref);
+        }
+
+        void inline(String s) { bytes(s.getBytes(StandardCharsets.UTF_8)); }
+
+        private void bytes(byte[] bytes) {
+            varint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, len, bytes.length);
+            len += bytes.length;
+        }
+
+        void varint(int v) { varlong(v & 0xFFFFFFFFL); }
+
+        void varlong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        private void ensure(int n) {
+            if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        }
+
+        void writeTo(String path, char kind, int count) throws IOException {
+            byte[] records = Arrays.copyOf(buf, len);
+            len = 0;
+            for (byte b : MAGIC) { ensure(1); buf[len++] = b; }
+            ensure(2);
+            buf[len++] = VERSION;
+            buf[len++] = (byte) kind;
+            varint(strings.size());
+            for (String s : strings) inline(s);
+            varint(count);
+            // Temp file, fsync, atomic rename — as FileManager does, so a failed save keeps the old file
+            Path target = Path.of(path), tmp = Path.of(path + ".tmp");
+            try {
+                try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer header = ByteBuffer.wrap(buf, 0, len);
+                    ByteBuffer body   = ByteBuffer.wrap(records);
+                    while (header.hasRemaining() || body.hasRemaining())
+                        ch.write(new ByteBuffer[] { header, body });
+                    ch.force(true);
+                }
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+        }
+    }
+
+    // ── Decoding ──────────────────────────────────────────────────────────────
+
+    // A truncated or damaged file fails as an IOException, like an unreadable one
+    private static <T> List<T> decode(String path, char kind, Function<Decoder, List<T>> records)
+            throws IOException {
+        Decoder in = Decoder.open(path, kind);
+        try {
+            return records.apply(in);
+        } catch (RuntimeException e) {
+            throw corrupt(path, e);
+        }
+    }
+
+    private static IOException corrupt(String path, RuntimeException e) {
+        return new IOException("Corrupt snapshot " + path + " (" + e + ")", e);
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer in;
+        private final String[] strings;
+        final int count;
+        final byte version;
+
+        private Decoder(ByteBuffer in, char kind) throws IOException {
+            this.in = in;
+            byte[] magic = new byte[MAGIC.length];
+            in.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a binary snapshot");
+            version = in.get();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+            if (in.get() != kind) throw new IOException("Snapshot does not hold '" + kind + "' records");
+            strings = new String[count()];
+            for (int i = 0; i < strings.length; i++) strings[i] = inline();
+            count = count();
+        }
+
+        static Decoder open(String path, char kind) throws IOException {
+            if (!new File(path).exists()) throw new IOException("No snapshot at " + path);
+            try (FileChannel ch = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                return new Decoder(map, kind);
+            } catch (RuntimeException e) {
+                throw corrupt(path, e);
+            }
+        }
+
+        // Every entry takes at least a byte, so a larger count can only be damage
+        int count() {
+            int n = varint();
+            if (n < 0 || n > in.remaining())
+                throw new IllegalStateException("count " + n + " exceeds the " + in.remaining() + " byte(s) left");
+            return n;
+        }
+
+        String inline() {
+            int n = count();
+            if (in.hasArray()) {
+                String s = new String(in.array(), in.arrayOffset() + in.position(), n, StandardCharsets.UTF_8);
+                in.position(in.position() + n);
+                return s;
+            }
+            byte[] bytes = new byte[n];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String string() { return strings[varint()]; }
+
+        int varint() { return (int) varlong(); }
+
+        long varlong() {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package util;
 
+import model.Slot;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 public class DateValidator {
 
@@ -18,24 +19,31 @@ public class DateValidator {
     public static boolean isValid(String slot) {
 
         // 1. Check format
-        LocalDateTime slotTime;
+        Slot parsed;
         try {
-            slotTime = LocalDateTime.parse(slot, FORMATTER);
-        } catch (DateTimeParseException e) {
+            parsed = Slot.parse(slot);
+        } catch (IllegalArgumentException e) {
             System.out.println("\n  ERROR: Invalid date format.");
             System.out.println("         Use YYYY-MM-DD HH:mm  (e.g. 2025-07-15 10:00)");
             return false;
         }
 
         // 2. Check it is in the future
-        if (slotTime.isBefore(LocalDateTime.now())) {
+        return isValid(parsed);
+    }
+
+    /**
+     * Same check for an already-parsed slot — a primitive compare against the
+     * cached clock, so nothing is formatted unless the slot is rejected.
+     */
+    public static boolean isValid(Slot slot) {
+        if (slot.isPast()) {
             System.out.println("\n  ERROR: Cannot book a slot in the past.");
             System.out.println("         Selected : " + slot);
             System.out.println("         Now      : " +
                     LocalDateTime.now().format(FORMATTER));
             return false;
         }
-
         return true;
     }
 
@@ -44,9 +52,10 @@ public class DateValidator {
      */
     public static boolean isValidFormat(String slot) {
         try {
-            LocalDateTime.parse(slot, FORMATTER);
+            // Same parser Doctor uses to store slots, so anything accepted here can be added
+            Slot.toEpochMinute(slot);
             return true;
-        } catch (DateTimeParseException e) {
+        } catch (IllegalArgumentException e) {
             System.out.println("\n  ERROR: Invalid date format.");
             System.out.println("         Use YYYY-MM-DD HH:mm  (e.g. 2025-07-15 10:00)");
             return false;
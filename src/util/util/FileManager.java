@@ -1,141 +1,436 @@
 package util;
 
 import model.Appointment;
+import model.AvailabilityTemplate;
 import model.Doctor;
 import model.Patient;
+import model.Slot;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
 
+/**
+ * Pipe-delimited text persistence. Saves never overwrite in place: records go
+ * to a temp file that is fsynced and then atomically renamed over the old
+ * one, so a crash mid-save leaves the previous file intact. Every line ends
+ * with a CRC-32C of the record ("...|#1a2b3c4d"); loads skip lines whose
+ * checksum does not match and keep them in a ".rejected" file for repair.
+ * Lines without a checksum (files written before checksums) are still read.
+ */
 public class FileManager {
 
-    private static final String DATA_DIR          = "data/";
+    // Overridable with -Ddata.dir=... (benchmarks point this at a scratch directory)
+    public static final String DATA_DIR           = dataDir();
     private static final String PATIENTS_FILE     = DATA_DIR + "patients.txt";
-    private static final String APPOINTMENTS_FILE = DATA_DIR + "appointments.txt";
+    static final String APPOINTMENTS_FILE         = DATA_DIR + "appointments.txt";
     private static final String DOCTORS_FILE      = DATA_DIR + "doctors.txt";
+    static final String APPOINTMENTS_JOURNAL      = DATA_DIR + "appointments.journal";
+    static final String DOCTORS_JOURNAL           = DATA_DIR + "doctors.journal";
+    static final String PATIENTS_JOURNAL          = DATA_DIR + "patients.journal";
+
+    private static final Appointment.Status[] STATUSES = Appointment.Status.values();
 
     static {
         new File(DATA_DIR).mkdirs();
     }
 
+    private static String dataDir() {
+        String dir = System.getProperty("data.dir", "data/");
+        return dir.endsWith("/") ? dir : dir + "/";
+    }
+
     // ── Doctors ───────────────────────────────────────────────────────────────
 
-    public static void saveDoctors(List<Doctor> doctors) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(DOCTORS_FILE))) {
-            for (Doctor d : doctors) {
-                // FORMAT: id|name|specialization|contact|username|password|slot1,slot2,...
-                String slots = String.join(",", d.getAvailableSlots());
-                bw.write(d.getId()             + "|" + d.getName()          + "|"
-                       + d.getSpecialization() + "|" + d.getContactNumber() + "|"
-                       + d.getUsername()       + "|" + d.getPassword()      + "|"
-                       + slots);
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            System.out.println("  WARNING: Could not save doctors -- " + e.getMessage());
-        }
+    public static boolean saveDoctors(List<Doctor> doctors) {
+        return writeRecords(DOCTORS_FILE, "doctors", doctors, FileManager::formatDoctor);
     }
 
     public static List<Doctor> loadDoctors() {
-        List<Doctor> list = new ArrayList<>();
-        File file = new File(DOCTORS_FILE);
-        if (!file.exists()) return list;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] f = line.split("\\|", -1);
-                if (f.length < 7) continue;
-                Doctor d = new Doctor(
-                        Integer.parseInt(f[0].trim()), f[1].trim(),
-                        f[2].trim(), f[3].trim(),
-                        f[4].trim(), f[5].trim()
-                );
-                // Reload saved slots
-                if (!f[6].trim().isEmpty()) {
-                    for (String slot : f[6].trim().split(","))
-                        d.addAvailableSlot(slot.trim());
+        return readRecords(DOCTORS_FILE, "doctors", FileManager::parseDoctor);
+    }
+
+    // FORMAT: id|name|specialization|contact|username|password|slot1,slot2,...|rule1;rule2;...|exception1,...
+    // Rules are AvailabilityTemplate text; exceptions are booked or removed rule slots.
+    // Expired rules and past exceptions are dropped on write, so the file does not grow
+    // with history. Lines from before rules existed end after the slots field.
+    static String formatDoctor(Doctor d) {
+        LocalDate today = LocalDate.now();
+        StringJoiner rules = new StringJoiner(";");
+        for (AvailabilityTemplate r : d.getRules())
+            if (!r.getLastDay().isBefore(today)) rules.add(r.toString());
+        StringJoiner exceptions = new StringJoiner(",");
+        for (long m : d.getExceptionMinutes().tailSet(Slot.currentMinute(), true)) exceptions.add(Slot.format(m));
+
+        return d.getId()             + "|" + d.getName()          + "|"
+             + d.getSpecialization() + "|" + d.getContactNumber() + "|"
+             + d.getUsername()       + "|" + d.getPassword()      + "|"
+             + String.join(",", d.getOneOffSlots()) + "|" + rules + "|" + exceptions;
+    }
+
+    static Doctor parseDoctor(RecordCursor c) {
+        if (c.remaining() < 7) return null;
+        Doctor d = new Doctor(c.nextInt(), c.nextString(), c.nextSharedString(),
+                              c.nextString(), c.nextString(), c.nextString());
+        // Reload saved slots, skipping any that no longer parse
+        c.nextSlots(d::addAvailableSlot, slot -> System.out.println(
+                "  WARNING: Skipping invalid slot '" + slot + "' for doctor #" + d.getId()));
+        if (c.hasNext()) {
+            for (String rule : c.nextString().split(";")) {
+                if (rule.isBlank()) continue;
+                try {
+                    d.addRule(AvailabilityTemplate.parse(rule));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("  WARNING: Skipping invalid rule '" + rule + "' for doctor #" + d.getId());
                 }
-                list.add(d);
             }
-        } catch (IOException e) {
-            System.out.println("  WARNING: Could not load doctors -- " + e.getMessage());
         }
-        return list;
+        if (c.hasNext()) {
+            c.nextSlots(d::addException, slot -> System.out.println(
+                    "  WARNING: Skipping invalid exception '" + slot + "' for doctor #" + d.getId()));
+        }
+        return d;
     }
 
     // ── Patients ──────────────────────────────────────────────────────────────
 
-    public static void savePatients(List<Patient> patients) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(PATIENTS_FILE))) {
-            for (Patient p : patients) {
-                bw.write(p.getId()             + "|" + p.getName()          + "|"
-                       + p.getAge()            + "|" + p.getContactNumber() + "|"
-                       + p.getUsername()       + "|" + p.getPassword());
-                bw.newLine();
+    public static boolean savePatients(List<Patient> patients) {
+        return writeRecords(PATIENTS_FILE, "patients", patients, FileManager::formatPatient);
+    }
+
+    public static List<Patient> loadPatients() {
+        return readRecords(PATIENTS_FILE, "patients", FileManager::parsePatient);
+    }
+
+    // FORMAT: id|name|age|contact|username|password
+    static String formatPatient(Patient p) {
+        return p.getId()       + "|" + p.getName()          + "|"
+             + p.getAge()      + "|" + p.getContactNumber() + "|"
+             + p.getUsername() + "|" + p.getPassword();
+    }
+
+    static Patient parsePatient(RecordCursor c) {
+        if (c.remaining() < 6) return null;
+        return new Patient(c.nextInt(), c.nextString(), c.nextInt(),
+                           c.nextString(), c.nextString(), c.nextString());
+    }
+
+    // ── Appointments ──────────────────────────────────────────────────────────
+
+    public static boolean saveAppointments(List<Appointment> appointments) {
+        return writeRecords(APPOINTMENTS_FILE, "appointments", appointments, FileManager::formatAppointment);
+    }
+
+    public static List<Appointment> loadAppointments() {
+        return readRecords(APPOINTMENTS_FILE, "appointments", FileManager::parseAppointment);
+    }
+
+    /** Appointments in a file of this format elsewhere, e.g. one partition of the sharded layout. */
+    public static boolean saveAppointments(List<Appointment> appointments, String path) {
+        return writeRecords(path, "appointments", appointments, FileManager::formatAppointment);
+    }
+
+    public static List<Appointment> loadAppointments(String path) {
+        return readRecords(path, "appointments", FileManager::parseAppointment);
+    }
+
+    // ── Record format (shared with AppointmentJournal) ────────────────────────
+
+    // FORMAT: id|patientId|patientName|doctorId|doctorName|slot|reason|status
+    static String formatAppointment(Appointment a) {
+        return a.getId()          + "|" + a.getPatientId()   + "|"
+             + a.getPatientName() + "|" + a.getDoctorId()    + "|"
+             + a.getDoctorName()  + "|" + a.getSlot()        + "|"
+             + a.getReason()      + "|" + a.getStatus();
+    }
+
+    // Returns null for short lines, matching the old "skip and continue" behaviour
+    static Appointment parseAppointment(String line) {
+        return parseAppointment(RecordCursor.of(line));
+    }
+
+    static Appointment parseAppointment(RecordCursor c) {
+        if (c.remaining() < 8) return null;
+        Appointment a = new Appointment(c.nextInt(), c.nextInt(), c.nextSharedString(),
+                                        c.nextInt(), c.nextSharedString(),
+                                        c.nextSlot(), c.nextSharedString());
+        a.setStatus(c.nextEnum(STATUSES));
+        return a;
+    }
+
+    // ── Checksums ─────────────────────────────────────────────────────────────
+
+    private static final String CHECKSUM_MARK = "|#";
+    private static final int    CHECKSUM_LEN  = CHECKSUM_MARK.length() + 8;
+
+    /** Appends the record's CRC-32C as "|#" + 8 hex digits. */
+    static String withChecksum(String record) {
+        String hex = Long.toHexString(crc(record));
+        return record + CHECKSUM_MARK + "00000000".substring(hex.length()) + hex;
+    }
+
+    static boolean hasChecksum(String line) {
+        return line.length() >= CHECKSUM_LEN
+            && line.startsWith(CHECKSUM_MARK, line.length() - CHECKSUM_LEN);
+    }
+
+    /** The record without its checksum, or null if the checksum does not match. */
+    static String verifyChecksum(String line) {
+        String record = line.substring(0, line.length() - CHECKSUM_LEN);
+        try {
+            long stored = Long.parseLong(line.substring(line.length() - 8), 16);
+            return stored == crc(record) ? record : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The record carried by a line: checked lines are verified and stripped,
+     * unchecked lines are returned as they are (legacy format). Null if corrupt.
+     */
+    static String readRecord(String line) {
+        return hasChecksum(line) ? verifyChecksum(line) : line;
+    }
+
+    private static long crc(String record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // Byte-level forms for the loader — no substring, no getBytes per line
+
+    private static boolean hasChecksum(byte[] b, int from, int to) {
+        return to - from >= CHECKSUM_LEN
+            && b[to - CHECKSUM_LEN] == '|' && b[to - CHECKSUM_LEN + 1] == '#';
+    }
+
+    private static boolean checksumMatches(byte[] b, int from, int to, CRC32C crc) {
+        long stored = 0;
+        for (int i = to - 8; i < to; i++) {
+            int digit = Character.digit((char) (b[i] & 0xFF), 16);
+            if (digit < 0) return false;
+            stored = (stored << 4) | digit;
+        }
+        crc.reset();
+        crc.update(b, from, to - CHECKSUM_LEN - from);
+        return stored == crc.getValue();
+    }
+
+    // ── Atomic write / verified read ──────────────────────────────────────────
+
+    private static final Map<String, LatencyHistogram> SAVE_TIMES =
+            perFile("das_file_save_seconds", "Atomic rewrite of a data file");
+    private static final Map<String, LatencyHistogram> LOAD_TIMES =
+            perFile("das_file_load_seconds", "Read and parse of a data file");
+
+    private static Map<String, LatencyHistogram> perFile(String name, String help) {
+        Map<String, LatencyHistogram> byFile = new HashMap<>();
+        for (String what : List.of("doctors", "patients", "appointments"))
+            byFile.put(what, Metrics.histogram(name, help, "file", what));
+        return byFile;
+    }
+
+    private static <T> boolean writeRecords(String path, String what, List<T> items,
+                                            Function<T, String> format) {
+        long start  = System.nanoTime();
+        Path target = Path.of(path);
+        Path tmp    = Path.of(path + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 BufferedWriter bw = new BufferedWriter(Channels.newWriter(ch, StandardCharsets.UTF_8))) {
+                for (T item : items) {
+                    bw.write(withChecksum(format.apply(item)));
+                    bw.newLine();
+                }
+                bw.flush();
+                ch.force(true);
             }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(target.toAbsolutePath().getParent());
+            return true;
         } catch (IOException e) {
-            System.out.println("  WARNING: Could not save patients -- " + e.getMessage());
+            System.out.println("  WARNING: Could not save " + what + " -- " + e.getMessage());
+            try { Files.deleteIfExists(tmp); } catch (IOException ignored) { }
+            return false;
+        } finally {
+            SAVE_TIMES.get(what).recordSince(start);
         }
     }
 
-    public static List<Patient> loadPatients() {
-        List<Patient> list = new ArrayList<>();
-        File file = new File(PATIENTS_FILE);
-        if (!file.exists()) return list;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] f = line.split("\\|");
-                if (f.length < 6) continue;
-                list.add(new Patient(
-                        Integer.parseInt(f[0].trim()), f[1].trim(),
-                        Integer.parseInt(f[2].trim()), f[3].trim(),
-                        f[4].trim(), f[5].trim()
-                ));
-            }
+    // Makes the rename itself durable; not every platform can open a directory
+    private static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    // Files are parsed in chunks of about this size, in parallel once there is more than one
+    private static final int PARSE_CHUNK_BYTES = 1 << 20;
+
+    // One cursor per parsing thread, so its string table is shared across chunks and loads
+    private static final ThreadLocal<RecordCursor> CURSORS = ThreadLocal.withInitial(RecordCursor::new);
+
+    private static <T> List<T> readRecords(String path, String what, Function<RecordCursor, T> parse) {
+        long start = System.nanoTime();
+        try {
+            return parseRecords(path, what, parse);
+        } finally {
+            LOAD_TIMES.get(what).recordSince(start);
+        }
+    }
+
+    private static <T> List<T> parseRecords(String path, String what, Function<RecordCursor, T> parse) {
+        // A leftover temp file is a save that never reached its rename — the
+        // main file is still the last good copy
+        new File(path + ".tmp").delete();
+        File file = new File(path);
+        if (!file.exists()) return new ArrayList<>();
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
         } catch (IOException e) {
-            System.out.println("  WARNING: Could not load patients -- " + e.getMessage());
+            System.out.println("  WARNING: Could not load " + what + " -- " + e.getMessage());
+            return new ArrayList<>();
         }
-        return list;
+        // Once a file carries checksums, an unchecked line can only be torn
+        int firstEnd = lineEnd(bytes, 0);
+        if (firstEnd > 0 && bytes[firstEnd - 1] == '\r') firstEnd--;
+        boolean checked = hasChecksum(bytes, 0, firstEnd);
+
+        // Chunk boundaries always fall just after a '\n', so no line is split
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        for (int at = PARSE_CHUNK_BYTES; at < bytes.length; at += PARSE_CHUNK_BYTES) {
+            int next = lineEnd(bytes, at) + 1;
+            if (next >= bytes.length) break;
+            bounds.add(next);
+            at = next;
+        }
+        bounds.add(bytes.length);
+
+        ParseTask<T> task = new ParseTask<>(bytes, bounds, 0, bounds.size() - 1, checked, parse);
+        Chunk<T> result = bounds.size() == 2 ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+        if (!result.rejected.isEmpty()) quarantine(path, what, result.rejected);
+        return result.items;
     }
 
-    // ── Appointments ──────────────────────────────────────────────────────────
+    private static int lineEnd(byte[] bytes, int from) {
+        int i = from;
+        while (i < bytes.length && bytes[i] != '\n') i++;
+        return i;
+    }
 
-    public static void saveAppointments(List<Appointment> appointments) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(APPOINTMENTS_FILE))) {
-            for (Appointment a : appointments) {
-                bw.write(a.getId()          + "|" + a.getPatientId()   + "|"
-                       + a.getPatientName() + "|" + a.getDoctorId()    + "|"
-                       + a.getDoctorName()  + "|" + a.getSlot()        + "|"
-                       + a.getReason()      + "|" + a.getStatus());
-                bw.newLine();
+    private static final class Chunk<T> {
+        final List<T>      items    = new ArrayList<>();
+        final List<String> rejected = new ArrayList<>();
+
+        Chunk<T> append(Chunk<T> next) {
+            items.addAll(next.items);
+            rejected.addAll(next.rejected);
+            return this;
+        }
+    }
+
+    /** Parses chunks [lo, hi) of a file, splitting the range in halves until one chunk is left. */
+    private static final class ParseTask<T> extends RecursiveTask<Chunk<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+        private final List<Integer> bounds;
+        private final int lo, hi;
+        private final boolean checked;
+        private final Function<RecordCursor, T> parse;
+
+        ParseTask(byte[] bytes, List<Integer> bounds, int lo, int hi,
+                  boolean checked, Function<RecordCursor, T> parse) {
+            this.bytes   = bytes;
+            this.bounds  = bounds;
+            this.lo      = lo;
+            this.hi      = hi;
+            this.checked = checked;
+            this.parse   = parse;
+        }
+
+        @Override
+        protected Chunk<T> compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                ParseTask<T> left  = new ParseTask<>(bytes, bounds, lo, mid, checked, parse);
+                ParseTask<T> right = new ParseTask<>(bytes, bounds, mid, hi, checked, parse);
+                right.fork();
+                return left.compute().append(right.join());
             }
-        } catch (IOException e) {
-            System.out.println("  WARNING: Could not save appointments -- " + e.getMessage());
+            Chunk<T> chunk = new Chunk<>();
+            RecordCursor cursor = CURSORS.get();
+            CRC32C crc = new CRC32C();
+            int from = bounds.get(lo), limit = bounds.get(hi);
+            while (from < limit) {
+                int eol = lineEnd(bytes, from);
+                int to  = eol > from && bytes[eol - 1] == '\r' ? eol - 1 : eol;
+                if (to > from) {
+                    // Record bounds without the checksum suffix, or -1 if the line is corrupt/torn
+                    int recordEnd = hasChecksum(bytes, from, to)
+                            ? (checksumMatches(bytes, from, to, crc) ? to - CHECKSUM_LEN : -1)
+                            : (checked ? -1 : to);
+                    T item = null;
+                    if (recordEnd >= 0) {
+                        try {
+                            item = parse.apply(cursor.reset(bytes, from, recordEnd));
+                        } catch (IllegalArgumentException e) {
+                            // Bad number, unknown status or invalid slot
+                        }
+                    }
+                    // Only a rejected line is ever turned into a String
+                    if (item != null) chunk.items.add(item);
+                    else chunk.rejected.add(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+                }
+                from = eol + 1;
+            }
+            return chunk;
         }
     }
 
-    public static List<Appointment> loadAppointments() {
-        List<Appointment> list = new ArrayList<>();
-        File file = new File(APPOINTMENTS_FILE);
-        if (!file.exists()) return list;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] f = line.split("\\|");
-                if (f.length < 8) continue;
-                Appointment a = new Appointment(
-                        Integer.parseInt(f[0].trim()), Integer.parseInt(f[1].trim()),
-                        f[2].trim(), Integer.parseInt(f[3].trim()), f[4].trim(),
-                        f[5].trim(), f[6].trim()
-                );
-                a.setStatus(Appointment.Status.valueOf(f[7].trim()));
-                list.add(a);
+    // A bad line stays in the source until its next save, so each load sees it
+    // again; only lines not already quarantined are appended
+    private static void quarantine(String path, String what, List<String> lines) {
+        String rejectedPath = path + ".rejected";
+        Set<String> known = new HashSet<>();
+        try {
+            if (new File(rejectedPath).exists())
+                known.addAll(Files.readAllLines(Path.of(rejectedPath), StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+        }
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(rejectedPath, StandardCharsets.UTF_8, true))) {
+            for (String line : lines) {
+                if (!known.add(line)) continue;
+                bw.write(line);
+                bw.newLine();
             }
-        } catch (IOException e) {
-            System.out.println("  WARNING: Could not load appointments -- " + e.getMessage());
+        } catch (IOException ignored) {
         }
-        return list;
+        System.out.println("  WARNING: Skipped " + lines.size() + " unreadable " + what
+                + " record(s) -- kept in " + rejectedPath);
     }
 }
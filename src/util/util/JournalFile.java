@@ -0,0 +1,89 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The append side shared by the journals: lines go out in one write and one
+ * fsync, and the file is truncated once a snapshot has absorbed it. Replay is
+ * left to each journal, which knows its record format.
+ */
+final class JournalFile {
+
+    private static final LatencyHistogram APPEND_LATENCY =
+            Metrics.histogram("das_journal_append_seconds", "Journal write plus fsync");
+
+    private final String path;
+    private final String what;      // for warnings, e.g. "appointment journal"
+    private FileChannel channel;
+    private int records;
+
+    JournalFile(String path, String what) {
+        this.path = path;
+        this.what = what;
+    }
+
+    String path() { return path; }
+
+    /**
+     * Writes all lines and fsyncs once; false if the write failed, in which
+     * case whatever part of it reached the file is cut off again so a later
+     * replay cannot apply a change the caller was told had failed.
+     */
+    synchronized boolean append(List<String> lines) {
+        long start = System.nanoTime();
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) sb.append(line).append('\n');
+        long before = -1;
+        try {
+            FileChannel ch = channel();
+            before = ch.size();
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(false);
+            records += lines.size();
+            return true;
+        } catch (IOException e) {
+            System.out.println("  WARNING: Could not write " + what + " -- " + e.getMessage());
+            if (before >= 0) {
+                try { channel.truncate(before); } catch (IOException ignored) { }
+            }
+            return false;
+        } finally {
+            APPEND_LATENCY.recordSince(start);
+        }
+    }
+
+    synchronized void reset() {
+        try {
+            channel().truncate(0);
+            channel.force(true);
+            records = 0;
+        } catch (IOException e) {
+            System.out.println("  WARNING: Could not reset " + what + " -- " + e.getMessage());
+        }
+    }
+
+    synchronized int size() { return records; }
+
+    /** Sets the record count after a replay, which only counts what still applies. */
+    synchronized void replayed(int applied) { records = applied; }
+
+    synchronized void close() {
+        if (channel == null) return;
+        try { channel.close(); } catch (IOException ignored) { }
+        channel = null;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen())
+            channel = FileChannel.open(Path.of(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return channel;
+    }
+}
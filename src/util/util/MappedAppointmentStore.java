@@ -0,0 +1,324 @@
+package util;
+
+import model.Appointment;
+import model.Slot;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read-mostly appointment archive for reporting over years of history.
+ * Records are fixed-width and memory-mapped; names and reasons live in a
+ * side heap file. Nothing is materialised on open — an {@link Appointment}
+ * is built only when a record is read through {@link #get(int)}, and the
+ * primitive accessors let reports filter without building any objects.
+ *
+ * RECORD (48 bytes, big-endian):
+ *   id int | patientId int | doctorId int | status byte + 3 pad
+ *   slot long (epoch-minute)
+ *   patientName long | doctorName long | reason long   (heap offsets)
+ *
+ * HEAP: repeated (length int, UTF-8 bytes); equal strings share one entry
+ * within a write session.
+ *
+ * {@link #openArchive()} keeps the store in step with data/appointments.txt
+ * for reports such as main.HistoryReport: it re-imports whenever the text
+ * snapshot is newer, so the archive is as current as the last compaction.
+ */
+public class MappedAppointmentStore implements Closeable {
+
+    public static final String RECORDS_FILE = FileManager.DATA_DIR + "appointments.dat";
+    public static final String HEAP_FILE    = FileManager.DATA_DIR + "appointments.heap";
+
+    static final int RECORD_SIZE = 48;
+    private static final int RECORDS_PER_SEGMENT = 1 << 24;     // 768 MB per mapping
+
+    private static final int OFF_ID = 0, OFF_PATIENT = 4, OFF_DOCTOR = 8, OFF_STATUS = 12,
+            OFF_SLOT = 16, OFF_PATIENT_NAME = 24, OFF_DOCTOR_NAME = 32, OFF_REASON = 40;
+
+    private static final Appointment.Status[] STATUSES = Appointment.Status.values();
+
+    private final FileChannel records;
+    private final FileChannel heap;
+    private MappedByteBuffer[] segments;
+    private MappedByteBuffer   heapMap;          // null when the heap is larger than one mapping
+    private int size;
+
+    // Dedupe for strings appended in this session (names repeat on every row)
+    private final Map<String, Long> heapIndex = new HashMap<>();
+
+    private MappedAppointmentStore(String recordsPath, String heapPath) throws IOException {
+        this.records = FileChannel.open(Path.of(recordsPath), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.heap = FileChannel.open(Path.of(heapPath), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            remap();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public static MappedAppointmentStore open() throws IOException {
+        return open(RECORDS_FILE, HEAP_FILE);
+    }
+
+    public static MappedAppointmentStore open(String recordsPath, String heapPath) throws IOException {
+        return new MappedAppointmentStore(recordsPath, heapPath);
+    }
+
+    /** The archive of data/appointments.txt, re-imported first if the snapshot has changed since. */
+    public static MappedAppointmentStore openArchive() throws IOException {
+        return openArchive(FileManager.APPOINTMENTS_FILE, RECORDS_FILE, HEAP_FILE);
+    }
+
+    public static MappedAppointmentStore openArchive(String textPath, String recordsPath,
+                                                     String heapPath) throws IOException {
+        File text = new File(textPath), archived = new File(recordsPath);
+        if (text.exists() && (!archived.exists() || archived.lastModified() < text.lastModified()))
+            return importText(textPath, recordsPath, heapPath);
+        return open(recordsPath, heapPath);
+    }
+
+    /**
+     * Streams a pipe-delimited appointments file into a fresh store, one line
+     * at a time, so the import itself never holds the history in memory. It
+     * is built in temp files that replace the archive only once complete, so
+     * a failed import leaves the previous archive as it was.
+     */
+    public static MappedAppointmentStore importText(String textPath, String recordsPath,
+                                                    String heapPath) throws IOException {
+        Path recordsTmp = Path.of(recordsPath + ".tmp"), heapTmp = Path.of(heapPath + ".tmp");
+        Files.deleteIfExists(recordsTmp);
+        Files.deleteIfExists(heapTmp);
+        // Stamped on the records so a snapshot written during the import still reads as newer
+        FileTime imported = Files.getLastModifiedTime(Path.of(textPath));
+        try (MappedAppointmentStore store = open(recordsTmp.toString(), heapTmp.toString())) {
+            store.load(textPath);
+            store.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(recordsTmp);
+            Files.deleteIfExists(heapTmp);
+            throw e;
+        }
+        Files.setLastModifiedTime(recordsTmp, imported);
+        // Heap first: records left stale by a crash in between are older than the snapshot and re-imported
+        Files.move(heapTmp, Path.of(heapPath), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(recordsTmp, Path.of(recordsPath), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(recordsPath, heapPath);
+    }
+
+    private void load(String textPath) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(textPath, StandardCharsets.UTF_8))) {
+            ByteBuffer batch = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            String line;
+            while ((line = br.readLine()) != null) {
+                Appointment a;
+                try {
+                    String record = FileManager.readRecord(line);
+                    a = record == null ? null : FileManager.parseAppointment(record);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                if (a == null) continue;
+                encode(a, batch);
+                if (!batch.hasRemaining()) flush(batch);
+            }
+            flush(batch);
+        }
+    }
+
+    // ── Reading ───────────────────────────────────────────────────────────────
+
+    public int size() { return size; }
+
+    public int idAt(int i)                    { return segment(i).getInt(offset(i) + OFF_ID); }
+    public int patientIdAt(int i)             { return segment(i).getInt(offset(i) + OFF_PATIENT); }
+    public int doctorIdAt(int i)              { return segment(i).getInt(offset(i) + OFF_DOCTOR); }
+    public Appointment.Status statusAt(int i) { return STATUSES[segment(i).get(offset(i) + OFF_STATUS)]; }
+
+    /** Epoch-minute of the slot. */
+    public long slotMinuteAt(int i) { return segment(i).getLong(offset(i) + OFF_SLOT); }
+
+    /** Materialises record {@code i} as an Appointment — the only place objects are built. */
+    public Appointment get(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Record " + i + " of " + size);
+        ByteBuffer seg = segment(i);
+        int base = offset(i);
+        Appointment a = new Appointment(
+                seg.getInt(base + OFF_ID), seg.getInt(base + OFF_PATIENT),
+                heapString(seg.getLong(base + OFF_PATIENT_NAME)),
+                seg.getInt(base + OFF_DOCTOR),
+                heapString(seg.getLong(base + OFF_DOCTOR_NAME)),
+                Slot.ofEpochMinute(seg.getLong(base + OFF_SLOT)),
+                heapString(seg.getLong(base + OFF_REASON)));
+        a.setStatus(STATUSES[seg.get(base + OFF_STATUS)]);
+        return a;
+    }
+
+    /** Lazy list view — elements are materialised on access and not retained. */
+    public List<Appointment> asList() {
+        return new AbstractList<>() {
+            @Override public Appointment get(int index) { return MappedAppointmentStore.this.get(index); }
+            @Override public int size()                 { return size; }
+        };
+    }
+
+    /** Binary search on id; records are appended in id order. Returns -1 if absent. */
+    public int indexOf(int id) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = idAt(mid);
+            if (midId < id) lo = mid + 1;
+            else if (midId > id) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public int[] countByStatus() {
+        int[] counts = new int[STATUSES.length];
+        for (int i = 0; i < size; i++) counts[segment(i).get(offset(i) + OFF_STATUS)]++;
+        return counts;
+    }
+
+    /** Counts per doctor id, indexed by status ordinal; one pass, no records materialised. */
+    public Map<Integer, int[]> countByDoctorAndStatus() {
+        Map<Integer, int[]> counts = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            ByteBuffer seg = segment(i);
+            int base = offset(i);
+            counts.computeIfAbsent(seg.getInt(base + OFF_DOCTOR), k -> new int[STATUSES.length])
+                  [seg.get(base + OFF_STATUS)]++;
+        }
+        return counts;
+    }
+
+    /** Indexes of the doctor's records, in file order; only the ids are read. */
+    public int[] indexesOfDoctor(int doctorId) {
+        int[] found = new int[16];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (doctorIdAt(i) != doctorId) continue;
+            if (n == found.length) found = Arrays.copyOf(found, n * 2);
+            found[n++] = i;
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    // ── Writing ───────────────────────────────────────────────────────────────
+
+    public synchronized void append(Appointment a) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+        encode(a, buf);
+        flush(buf);
+        remap();
+    }
+
+    /** Updates a status in place — the record width never changes. */
+    public synchronized void setStatus(int i, Appointment.Status status) throws IOException {
+        ByteBuffer one = ByteBuffer.wrap(new byte[] { (byte) status.ordinal() });
+        records.write(one, (long) i * RECORD_SIZE + OFF_STATUS);
+    }
+
+    public void force() throws IOException {
+        records.force(false);
+        heap.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            records.close();
+        } finally {
+            if (heap != null) heap.close();
+        }
+    }
+
+    private void encode(Appointment a, ByteBuffer buf) throws IOException {
+        buf.putInt(a.getId()).putInt(a.getPatientId()).putInt(a.getDoctorId())
+           .put((byte) a.getStatus().ordinal()).put((byte) 0).put((byte) 0).put((byte) 0)
+           .putLong(a.getSlotTime().epochMinute())
+           .putLong(heapAppend(a.getPatientName()))
+           .putLong(heapAppend(a.getDoctorName()))
+           .putLong(heapAppend(a.getReason()));
+    }
+
+    private void flush(ByteBuffer batch) throws IOException {
+        batch.flip();
+        long pos = records.size();
+        while (batch.hasRemaining()) pos += records.write(batch, pos);
+        batch.clear();
+    }
+
+    private long heapAppend(String s) throws IOException {
+        Long known = heapIndex.get(s);
+        if (known != null) return known;
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes);
+        buf.flip();
+        long offset = heap.size();
+        long pos = offset;
+        while (buf.hasRemaining()) pos += heap.write(buf, pos);
+        heapIndex.put(s, offset);
+        return offset;
+    }
+
+    private String heapString(long offset) {
+        try {
+            if (heapMap != null) {
+                int len = heapMap.getInt((int) offset);
+                byte[] bytes = new byte[len];
+                heapMap.get((int) offset + 4, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            ByteBuffer lenBuf = ByteBuffer.allocate(4);
+            heap.read(lenBuf, offset);
+            ByteBuffer bytes = ByteBuffer.allocate(lenBuf.flip().getInt());
+            heap.read(bytes, offset + 4);
+            return new String(bytes.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read appointment heap", e);
+        }
+    }
+
+    // ── Mapping ───────────────────────────────────────────────────────────────
+
+    private void remap() throws IOException {
+        size = (int) (records.size() / RECORD_SIZE);
+        int count = (size + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT;
+        segments = new MappedByteBuffer[count];
+        for (int s = 0; s < count; s++) {
+            long start = (long) s * RECORDS_PER_SEGMENT * RECORD_SIZE;
+            long len   = Math.min((long) RECORDS_PER_SEGMENT * RECORD_SIZE, (long) size * RECORD_SIZE - start);
+            segments[s] = records.map(FileChannel.MapMode.READ_ONLY, start, len);
+        }
+        long heapSize = heap.size();
+        heapMap = heapSize <= Integer.MAX_VALUE
+                ? heap.map(FileChannel.MapMode.READ_ONLY, 0, heapSize) : null;
+    }
+
+    private ByteBuffer segment(int i) { return segments[i / RECORDS_PER_SEGMENT]; }
+
+    private static int offset(int i) { return (i % RECORDS_PER_SEGMENT) * RECORD_SIZE; }
+}
@@ -0,0 +1,151 @@
+package util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide registry of latency histograms, counters and gauges, with no
+ * dependencies. Hot paths look their series up once into a static final
+ * field and then only record; the registry itself is touched when a series
+ * is created and when it is dumped.
+ *
+ * Series are named the Prometheus way, with optional label pairs:
+ *
+ *   static final LatencyHistogram BOOK = Metrics.histogram("das_book_seconds", "Booking latency");
+ *   Metrics.counter("das_booking_rejections_total", "Rejected bookings", "reason", "conflict").increment();
+ *
+ * {@link #prometheus()} renders the text exposition format (histograms as
+ * summaries with quantiles, in seconds); {@link #describe()} is the console view.
+ */
+public final class Metrics {
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private enum Type { SUMMARY, COUNTER, GAUGE }
+
+    // One family per metric name; its series are keyed by the rendered label set
+    private static final class Family {
+        final Type type;
+        final String help;
+        final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(Type type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private static final Map<String, Family> FAMILIES = new ConcurrentHashMap<>();
+
+    private Metrics() { }
+
+    // ── Registration ──────────────────────────────────────────────────────────
+
+    /** The histogram for {@code name} and the label pairs, created on first use. */
+    public static LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, Type.SUMMARY, help)
+                .series.computeIfAbsent(labels(labels), k -> new LatencyHistogram());
+    }
+
+    public static LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, Type.COUNTER, help)
+                .series.computeIfAbsent(labels(labels), k -> new LongAdder());
+    }
+
+    /** Registers a value read at dump time; replaces any earlier gauge of the same series. */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, Type.GAUGE, help).series.put(labels(labels), value);
+    }
+
+    private static Family family(String name, Type type, String help) {
+        Family f = FAMILIES.computeIfAbsent(name, k -> new Family(type, help));
+        if (f.type != type)
+            throw new IllegalArgumentException("Metric " + name + " is already a " + f.type.name().toLowerCase(Locale.ROOT));
+        return f;
+    }
+
+    // {k1="v1",k2="v2"}, or "" without labels
+    private static String labels(String... pairs) {
+        if (pairs.length % 2 != 0) throw new IllegalArgumentException("Labels come in name/value pairs");
+        if (pairs.length == 0) return "";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(pairs[i]).append("=\"")
+              .append(pairs[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+              .append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    // ── Output ────────────────────────────────────────────────────────────────
+
+    /** Prometheus text exposition format, version 0.0.4. */
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Family> fe : new TreeMap<>(FAMILIES).entrySet()) {
+            String name = fe.getKey();
+            Family f = fe.getValue();
+            sb.append("# HELP ").append(name).append(' ').append(f.help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(f.type.name().toLowerCase(Locale.ROOT)).append('\n');
+            for (Map.Entry<String, Object> se : new TreeMap<>(f.series).entrySet()) {
+                String labels = se.getKey();
+                switch (f.type) {
+                    case SUMMARY -> {
+                        LatencyHistogram h = (LatencyHistogram) se.getValue();
+                        for (double q : QUANTILES)
+                            sb.append(name).append(withLabel(labels, "quantile", Double.toString(q))).append(' ')
+                              .append(seconds(h.quantileNanos(q))).append('\n');
+                        sb.append(name).append("_sum").append(labels).append(' ')
+                          .append(seconds(h.sumNanos())).append('\n');
+                        sb.append(name).append("_count").append(labels).append(' ').append(h.count()).append('\n');
+                    }
+                    case COUNTER -> sb.append(name).append(labels).append(' ')
+                                      .append(((LongAdder) se.getValue()).sum()).append('\n');
+                    case GAUGE   -> sb.append(name).append(labels).append(' ')
+                                      .append(((DoubleSupplier) se.getValue()).getAsDouble()).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Human-readable dump for the console: percentiles in milliseconds, then counters and gauges. */
+    public static String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("  %-52s %8s %9s %9s %9s%n", "LATENCY (ms)", "count", "p50", "p99", "max"));
+        for (Map.Entry<String, Family> fe : new TreeMap<>(FAMILIES).entrySet()) {
+            if (fe.getValue().type != Type.SUMMARY) continue;
+            for (Map.Entry<String, Object> se : new TreeMap<>(fe.getValue().series).entrySet()) {
+                LatencyHistogram h = (LatencyHistogram) se.getValue();
+                sb.append(String.format("  %-52s %8d %9.3f %9.3f %9.3f%n", fe.getKey() + se.getKey(), h.count(),
+                        h.quantileNanos(0.5) / 1e6, h.quantileNanos(0.99) / 1e6, h.maxNanos() / 1e6));
+            }
+        }
+        sb.append(String.format("%n  %-52s %8s%n", "COUNTERS / GAUGES", "value"));
+        for (Map.Entry<String, Family> fe : new TreeMap<>(FAMILIES).entrySet()) {
+            Family f = fe.getValue();
+            if (f.type == Type.SUMMARY) continue;
+            for (Map.Entry<String, Object> se : new TreeMap<>(f.series).entrySet()) {
+                double v = f.type == Type.COUNTER ? ((LongAdder) se.getValue()).sum()
+                                                  : ((DoubleSupplier) se.getValue()).getAsDouble();
+                sb.append(String.format("  %-52s %8s%n", fe.getKey() + se.getKey(),
+                        v == Math.rint(v) ? String.valueOf((long) v) : String.format("%.3f", v)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String withLabel(String labels, String name, String value) {
+        String pair = name + "=\"" + value + "\"";
+        return labels.isEmpty() ? "{" + pair + "}" : labels.substring(0, labels.length() - 1) + "," + pair + "}";
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,171 @@
+package util;
+
+import model.Slot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reusable cursor over one pipe-delimited record held in a byte array. Fields
+ * are read in place: ints, slots and enum constants are decoded straight from
+ * the bytes, and a String is only built for fields the caller keeps. Fields
+ * that repeat (names, reasons, specializations) can be read through a small
+ * table, so a million rows naming the same doctor hold one String between them.
+ *
+ * One cursor per thread — it is reset for every line and is not thread-safe.
+ * Every field is trimmed of surrounding whitespace, like the old split/trim parse.
+ */
+public final class RecordCursor {
+
+    private static final int TABLE_SIZE = 4096;      // power of two
+    private static final int MAX_SHARED = 64;        // longer strings are not worth a lookup
+
+    private byte[] buf;
+    private int pos, end;
+
+    // Open-addressed string table keyed by the field bytes; never evicts
+    private final String[] table = new String[TABLE_SIZE];
+    private final byte[][] tableBytes = new byte[TABLE_SIZE][];
+
+    public RecordCursor reset(byte[] buf, int from, int to) {
+        this.buf = buf;
+        this.pos = from;
+        this.end = to;
+        return this;
+    }
+
+    /** Cursor over a single line, for callers that already hold it as a String. */
+    public static RecordCursor of(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return new RecordCursor().reset(bytes, 0, bytes.length);
+    }
+
+    /** True while there is at least one more field, including an empty last one. */
+    public boolean hasNext() { return pos <= end; }
+
+    /** Number of fields left, counted without consuming them. */
+    public int remaining() {
+        if (pos > end) return 0;
+        int n = 1;
+        for (int i = pos; i < end; i++) if (buf[i] == '|') n++;
+        return n;
+    }
+
+    // ── Fields ────────────────────────────────────────────────────────────────
+
+    public int nextInt() {
+        long start = advance();
+        int from = (int) (start >>> 32), to = (int) start;
+        if (from == to) throw new NumberFormatException("Empty number");
+        boolean negative = buf[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 10) throw notANumber(from, to);
+        long value = 0;
+        for (; i < to; i++) {
+            int c = buf[i];
+            if (c < '0' || c > '9') throw notANumber(from, to);
+            value = value * 10 + (c - '0');
+        }
+        if (negative) value = -value;
+        if (value != (int) value) throw notANumber(from, to);
+        return (int) value;
+    }
+
+    public String nextString() {
+        long start = advance();
+        int from = (int) (start >>> 32), to = (int) start;
+        return new String(buf, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /** Like {@link #nextString()}, but equal values share one String — for fields that repeat. */
+    public String nextSharedString() {
+        long start = advance();
+        return shared((int) (start >>> 32), (int) start);
+    }
+
+    public Slot nextSlot() {
+        long start = advance();
+        return Slot.ofEpochMinute(Slot.toEpochMinute(buf, (int) (start >>> 32), (int) start));
+    }
+
+    /** Matches the field against the constant names, e.g. {@code Status.values()}. */
+    public <E extends Enum<E>> E nextEnum(E[] values) {
+        long start = advance();
+        int from = (int) (start >>> 32), to = (int) start;
+        for (E v : values) if (equalsAscii(v.name(), from, to)) return v;
+        throw new IllegalArgumentException("No constant " + new String(buf, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a comma-separated slot list. Valid slots go to {@code slots}; the
+     * text of each invalid one goes to {@code invalid} (only then is a String built).
+     */
+    public void nextSlots(Consumer<Slot> slots, Consumer<String> invalid) {
+        long start = advance();
+        int from = (int) (start >>> 32), to = (int) start;
+        while (from < to) {
+            int comma = from;
+            while (comma < to && buf[comma] != ',') comma++;
+            int a = from, b = comma;
+            while (a < b && blank(buf[a])) a++;
+            while (b > a && blank(buf[b - 1])) b--;
+            if (a < b) {
+                try {
+                    slots.accept(Slot.ofEpochMinute(Slot.toEpochMinute(buf, a, b)));
+                } catch (IllegalArgumentException e) {
+                    invalid.accept(new String(buf, a, b - a, StandardCharsets.UTF_8));
+                }
+            }
+            from = comma + 1;
+        }
+    }
+
+    // ── Internals ─────────────────────────────────────────────────────────────
+
+    // Moves past the next field; returns its trimmed bounds packed as from << 32 | to
+    private long advance() {
+        if (pos > end) throw new IllegalArgumentException("Missing field");
+        int from = pos, to = from;
+        while (to < end && buf[to] != '|') to++;
+        pos = to + 1;
+        while (from < to && blank(buf[from])) from++;
+        while (to > from && blank(buf[to - 1])) to--;
+        return ((long) from << 32) | to;
+    }
+
+    // Same set String.trim() strips; UTF-8 continuation bytes are negative, so mask first
+    private static boolean blank(byte b) { return (b & 0xFF) <= ' '; }
+
+    private String shared(int from, int to) {
+        int len = to - from;
+        if (len == 0) return "";
+        if (len > MAX_SHARED) return new String(buf, from, len, StandardCharsets.UTF_8);
+        int h = 1;
+        for (int i = from; i < to; i++) h = 31 * h + buf[i];
+        h ^= h >>> 16;
+        for (int probe = 0; probe < 8; probe++) {
+            int slot = (h + probe) & (TABLE_SIZE - 1);
+            byte[] known = tableBytes[slot];
+            if (known == null) {
+                String s = new String(buf, from, len, StandardCharsets.UTF_8);
+                tableBytes[slot] = Arrays.copyOfRange(buf, from, to);
+                table[slot] = s;
+                return s;
+            }
+            if (Arrays.equals(known, 0, known.length, buf, from, to)) return table[slot];
+        }
+        // Neighbourhood full — just build it
+        return new String(buf, from, len, StandardCharsets.UTF_8);
+    }
+
+    private boolean equalsAscii(String s, int from, int to) {
+        if (s.length() != to - from) return false;
+        for (int i = 0; i < s.length(); i++) if (s.charAt(i) != buf[from + i]) return false;
+        return true;
+    }
+
+    private NumberFormatException notANumber(int from, int to) {
+        return new NumberFormatException("Not a number: " + new String(buf, from, to - from, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package util;
+
+import model.Doctor;
+import model.Patient;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Append-only log of whole records changed since the last snapshot of a
+ * file that is otherwise rewritten in full. A changed doctor is written as
+ * one line with all its slots and rules, so a slot edit costs the same I/O
+ * however many doctors there are.
+ *
+ * FORMAT:  R|<record in the snapshot's line format>|#crc
+ *
+ * The last line for an id wins on replay; new ids are added after the
+ * snapshot's records.
+ */
+public final class RecordJournal<T> {
+
+    private final JournalFile file;
+    private final Function<T, String> format;
+    private final Function<RecordCursor, T> parse;
+    private final ToIntFunction<T> id;
+
+    private RecordJournal(String path, String what, Function<T, String> format,
+                          Function<RecordCursor, T> parse, ToIntFunction<T> id) {
+        this.file   = new JournalFile(path, what);
+        this.format = format;
+        this.parse  = parse;
+        this.id     = id;
+    }
+
+    public static RecordJournal<Doctor> doctors() {
+        return doctors(FileManager.DOCTORS_JOURNAL);
+    }
+
+    public static RecordJournal<Doctor> doctors(String path) {
+        return new RecordJournal<>(path, "doctor journal",
+                FileManager::formatDoctor, FileManager::parseDoctor, Doctor::getId);
+    }
+
+    public static RecordJournal<Patient> patients() {
+        return patients(FileManager.PATIENTS_JOURNAL);
+    }
+
+    public static RecordJournal<Patient> patients(String path) {
+        return new RecordJournal<>(path, "patient journal",
+                FileManager::formatPatient, FileManager::parsePatient, Patient::getId);
+    }
+
+    // ── Writing ───────────────────────────────────────────────────────────────
+
+    /** Writes the current state of every record in {@code changed} with one fsync; false if that failed. */
+    public boolean append(List<T> changed) {
+        List<String> lines = new ArrayList<>(changed.size());
+        for (T item : changed) lines.add(FileManager.withChecksum("R|" + format.apply(item)));
+        return file.append(lines);
+    }
+
+    /** Empties the journal once its contents have been folded into a snapshot. */
+    public void reset() { file.reset(); }
+
+    public int size() { return file.size(); }
+
+    public void close() { file.close(); }
+
+    // ── Replay ────────────────────────────────────────────────────────────────
+
+    /**
+     * The snapshot with every journalled record laid over it. Lines are whole
+     * records, so a torn or corrupt one is skipped without affecting the rest.
+     */
+    public List<T> replay(List<T> snapshot) {
+        File journal = new File(file.path());
+        if (!journal.exists()) return snapshot;
+        Map<Integer, T> merged = new LinkedHashMap<>();
+        for (T item : snapshot) merged.put(id.applyAsInt(item), item);
+        int applied = 0, skipped = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(journal, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                T item = null;
+                String record = FileManager.hasChecksum(line) ? FileManager.verifyChecksum(line) : null;
+                try {
+                    if (record != null && record.startsWith("R|")) item = parse.apply(RecordCursor.of(record.substring(2)));
+                } catch (IllegalArgumentException e) {
+                    // Bad number or slot: torn or foreign line
+                }
+                if (item == null) { skipped++; continue; }
+                merged.put(id.applyAsInt(item), item);
+                applied++;
+            }
+        } catch (IOException e) {
+            System.out.println("  WARNING: Could not replay " + journal.getName() + " -- " + e.getMessage());
+        }
+        file.replayed(applied);
+        if (skipped > 0)
+            System.out.println("  WARNING: Skipped " + skipped + " unreadable record(s) in " + journal.getName() + ".");
+        return new ArrayList<>(merged.values());
+    }
+}
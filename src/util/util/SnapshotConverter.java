@@ -0,0 +1,61 @@
+package util;
+
+import model.Appointment;
+import model.Doctor;
+import model.Patient;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Converts the data/*.txt files to binary snapshots and reports how the two
+ * formats compare on size and load time.
+ *
+ *   java -cp out util.SnapshotConverter
+ */
+public class SnapshotConverter {
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("  Converting text data files to binary snapshots...\n");
+        System.out.printf("  %-14s %8s %12s %12s %10s %10s%n",
+                "file", "records", "text bytes", "bin bytes", "text ms", "bin ms");
+
+        List<Doctor> doctors = FileManager.loadDoctors();
+        BinarySnapshot.saveDoctors(doctors, BinarySnapshot.DOCTORS_FILE);
+        report("doctors", doctors.size(), FileManager.DATA_DIR + "doctors.txt",
+                BinarySnapshot.DOCTORS_FILE, FileManager::loadDoctors,
+                () -> BinarySnapshot.loadDoctors(BinarySnapshot.DOCTORS_FILE));
+
+        List<Patient> patients = FileManager.loadPatients();
+        BinarySnapshot.savePatients(patients, BinarySnapshot.PATIENTS_FILE);
+        report("patients", patients.size(), FileManager.DATA_DIR + "patients.txt",
+                BinarySnapshot.PATIENTS_FILE, FileManager::loadPatients,
+                () -> BinarySnapshot.loadPatients(BinarySnapshot.PATIENTS_FILE));
+
+        List<Appointment> appointments = FileManager.loadAppointments();
+        BinarySnapshot.saveAppointments(appointments, BinarySnapshot.APPOINTMENTS_FILE);
+        report("appointments", appointments.size(), FileManager.DATA_DIR + "appointments.txt",
+                BinarySnapshot.APPOINTMENTS_FILE, FileManager::loadAppointments,
+                () -> BinarySnapshot.loadAppointments(BinarySnapshot.APPOINTMENTS_FILE));
+    }
+
+    private interface Loader { Object load() throws IOException; }
+
+    private static void report(String name, int records, String textPath, String binPath,
+                               Loader text, Loader binary) throws IOException {
+        // Best of a few runs, so JIT warm-up doesn't dominate small files
+        long textMs = Long.MAX_VALUE, binMs = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long t0 = System.nanoTime();
+            text.load();
+            long t1 = System.nanoTime();
+            binary.load();
+            long t2 = System.nanoTime();
+            textMs = Math.min(textMs, (t1 - t0) / 1_000_000);
+            binMs  = Math.min(binMs,  (t2 - t1) / 1_000_000);
+        }
+        System.out.printf("  %-14s %8d %12d %12d %10d %10d%n", name, records,
+                new File(textPath).length(), new File(binPath).length(), textMs, binMs);
+    }
+}